@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.imagej.ops.OpService;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.real.FloatType;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.scijava.Context;
+
+/**
+ * Base class of the JMH benchmarks, providing an {@link OpService} and test
+ * images with reproducible content.
+ * <p>
+ * The benchmarks are run through the {@code jmh} profile, which also enables
+ * the GC profiler, so that allocation rates are reported along with the
+ * timings.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class AbstractOpsBenchmark {
+
+	private static final long SEED = 0xdeadbeef;
+
+	protected Context context;
+
+	protected OpService ops;
+
+	@Setup
+	public void setUp() {
+		context = new Context(OpService.class);
+		ops = context.service(OpService.class);
+		createInputs();
+	}
+
+	@TearDown
+	public void disposeContext() {
+		context.dispose();
+	}
+
+	/**
+	 * Creates the inputs of the benchmarks. Called once the {@link OpService} is
+	 * available, so subclasses may already match ops here.
+	 */
+	protected void createInputs() {
+		// NB: No inputs by default.
+	}
+
+	// -- Helper methods --
+
+	protected Img<UnsignedByteType> randomBytes(final long... dims) {
+		final Img<UnsignedByteType> img = ArrayImgs.unsignedBytes(dims);
+		final Random random = new Random(SEED);
+		for (final UnsignedByteType t : img) {
+			t.set(random.nextInt(256));
+		}
+		return img;
+	}
+
+	protected Img<FloatType> randomFloats(final long... dims) {
+		final Img<FloatType> img = ArrayImgs.floats(dims);
+		final Random random = new Random(SEED);
+		for (final FloatType t : img) {
+			t.set(random.nextFloat());
+		}
+		return img;
+	}
+
+	/**
+	 * Creates a binary noise image, in which one in the given number of pixels
+	 * is background.
+	 */
+	protected Img<BitType> randomMask(final int backgroundRatio,
+		final long... dims)
+	{
+		final Img<BitType> img = ArrayImgs.bits(dims);
+		final Random random = new Random(SEED);
+		for (final BitType t : img) {
+			t.set(random.nextInt(backgroundRatio) != 0);
+		}
+		return img;
+	}
+
+}
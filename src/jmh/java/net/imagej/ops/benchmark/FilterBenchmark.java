@@ -0,0 +1,85 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.benchmark;
+
+import net.imagej.ops.Ops;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.img.Img;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.real.FloatType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the Gauss, median and mean filters and FFT convolution.
+ */
+public class FilterBenchmark extends AbstractOpsBenchmark {
+
+	@Param({ "1", "5" })
+	private int radius;
+
+	private Img<UnsignedByteType> bytes;
+	private Img<UnsignedByteType> byteOut;
+	private Img<FloatType> floats;
+	private Img<FloatType> kernel;
+
+	@Override
+	protected void createInputs() {
+		bytes = randomBytes(1024, 1024);
+		byteOut = bytes.factory().create(bytes);
+		floats = randomFloats(1024, 1024);
+		kernel = randomFloats(2 * radius + 1, 2 * radius + 1);
+	}
+
+	@Benchmark
+	public Object gauss() {
+		return ops.run(Ops.Filter.Gauss.class, floats, (double) radius);
+	}
+
+	@Benchmark
+	public Object median() {
+		return ops.run(Ops.Filter.Median.class, byteOut, bytes, new RectangleShape(
+			radius, false));
+	}
+
+	@Benchmark
+	public Object mean() {
+		return ops.run(Ops.Filter.Mean.class, byteOut, bytes, new RectangleShape(
+			radius, false));
+	}
+
+	@Benchmark
+	public Object convolve() {
+		return ops.run(Ops.Filter.Convolve.class, floats, kernel);
+	}
+
+}
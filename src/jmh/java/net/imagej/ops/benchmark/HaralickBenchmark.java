@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.benchmark;
+
+import net.imagej.ops.Ops;
+import net.imagej.ops.image.cooccurrenceMatrix.MatrixOrientation2D;
+import net.imglib2.img.Img;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks the Haralick features, including the computation of the
+ * cooccurrence matrix.
+ */
+public class HaralickBenchmark extends AbstractOpsBenchmark {
+
+	private Img<UnsignedByteType> img;
+
+	@Override
+	protected void createInputs() {
+		img = randomBytes(256, 256);
+	}
+
+	@Benchmark
+	public Object contrast() {
+		return ops.run(Ops.Haralick.Contrast.class, img, 32, 1,
+			MatrixOrientation2D.HORIZONTAL);
+	}
+
+	@Benchmark
+	public Object entropy() {
+		return ops.run(Ops.Haralick.Entropy.class, img, 32, 1,
+			MatrixOrientation2D.HORIZONTAL);
+	}
+
+	@Benchmark
+	public Object correlation() {
+		return ops.run(Ops.Haralick.Correlation.class, img, 32, 1,
+			MatrixOrientation2D.HORIZONTAL);
+	}
+
+}
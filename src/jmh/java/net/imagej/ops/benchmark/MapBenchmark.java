@@ -0,0 +1,115 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.benchmark;
+
+import net.imagej.ops.Ops;
+import net.imagej.ops.map.Maps;
+import net.imagej.ops.map.MapUnaryComputers.IIToII;
+import net.imagej.ops.map.MapUnaryComputers.IIToIIParallel;
+import net.imagej.ops.special.computer.Computers;
+import net.imagej.ops.special.computer.UnaryComputerOp;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.CursorBasedChunk;
+import net.imagej.ops.thread.chunker.DefaultChunker;
+import net.imagej.ops.thread.chunker.ForkJoinChunker;
+import net.imglib2.Cursor;
+import net.imglib2.img.Img;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks {@link Maps} and the {@link ChunkerOp}s they are parallelized
+ * with.
+ */
+public class MapBenchmark extends AbstractOpsBenchmark {
+
+	private Img<UnsignedByteType> in;
+	private Img<UnsignedByteType> out;
+	private UnaryComputerOp<UnsignedByteType, UnsignedByteType> addConstant;
+
+	@Override
+	protected void createInputs() {
+		in = randomBytes(2000, 2000);
+		out = in.factory().create(in);
+		addConstant = Computers.unary(ops, Ops.Math.Add.class,
+			UnsignedByteType.class, UnsignedByteType.class, new UnsignedByteType(5));
+	}
+
+	@Benchmark
+	public Object mapsMap() {
+		Maps.map(in, out, addConstant);
+		return out;
+	}
+
+	@Benchmark
+	public Object mapIIToII() {
+		return ops.run(IIToII.class, out, in, addConstant);
+	}
+
+	@Benchmark
+	public Object mapIIToIIParallel() {
+		return ops.run(IIToIIParallel.class, out, in, addConstant);
+	}
+
+	@Benchmark
+	public Object defaultChunker() {
+		return ops.run(DefaultChunker.class, copyChunk(), in.size());
+	}
+
+	@Benchmark
+	public Object forkJoinChunker() {
+		return ops.run(ForkJoinChunker.class, copyChunk(), in.size());
+	}
+
+	// -- Helper methods --
+
+	private CursorBasedChunk copyChunk() {
+		return new CursorBasedChunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final Cursor<UnsignedByteType> inCursor = in.cursor();
+				final Cursor<UnsignedByteType> outCursor = out.cursor();
+				setToStart(inCursor, startIndex);
+				setToStart(outCursor, startIndex);
+				for (long i = 0; i < numSteps; i++) {
+					outCursor.get().set(inCursor.get());
+					inCursor.jumpFwd(stepSize);
+					outCursor.jumpFwd(stepSize);
+				}
+			}
+		};
+	}
+
+}
@@ -50,6 +50,7 @@ public class CustomOpEnvironment extends AbstractContextual implements
 
 	private final OpEnvironment parent;
 	private final OpIndex index;
+	private volatile OpInfoIndex lookup;
 
 	// -- Constructors --
 
@@ -106,6 +107,13 @@ public class CustomOpEnvironment extends AbstractContextual implements
 		return index.values();
 	}
 
+	@Override
+	public Collection<OpInfo> infos(final OpRef ref) {
+		OpInfoIndex result = lookup;
+		if (result == null) lookup = result = new OpInfoIndex(index.values());
+		return result.get(ref);
+	}
+
 	@Override
 	public OpEnvironment parent() {
 		return parent;
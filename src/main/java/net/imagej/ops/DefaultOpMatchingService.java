@@ -31,10 +31,16 @@ package net.imagej.ops;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 import net.imagej.ops.OpCandidate.StatusCode;
@@ -42,6 +48,7 @@ import net.imagej.ops.OpCandidate.StatusCode;
 import org.scijava.Context;
 import org.scijava.InstantiableException;
 import org.scijava.convert.ConvertService;
+import org.scijava.event.EventHandler;
 import org.scijava.log.LogService;
 import org.scijava.module.Module;
 import org.scijava.module.ModuleInfo;
@@ -49,6 +56,8 @@ import org.scijava.module.ModuleItem;
 import org.scijava.module.ModuleService;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.plugin.event.PluginsAddedEvent;
+import org.scijava.plugin.event.PluginsRemovedEvent;
 import org.scijava.service.AbstractService;
 import org.scijava.service.Service;
 import org.scijava.util.ConversionUtils;
@@ -56,6 +65,13 @@ import org.scijava.util.GenericUtils;
 
 /**
  * Default service for finding {@link Op}s which match a request.
+ * <p>
+ * Successful matches are memoized per {@link OpEnvironment}, keyed on the
+ * request's name, types, output types and argument classes. A subsequent
+ * request with the same signature only needs to re-validate the remembered
+ * {@link OpInfo} against its arguments, instead of scanning all available ops.
+ * The memo is discarded whenever plugins are added or removed.
+ * </p>
  * 
  * @author Curtis Rueden
  */
@@ -76,6 +92,30 @@ public class DefaultOpMatchingService extends AbstractService implements
 	@Parameter
 	private LogService log;
 
+	/** Memoized matches, one table per op environment. */
+	private final Map<OpEnvironment, Map<MatchKey, CachedMatch>> matchCache =
+		Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final AtomicLong cacheHits = new AtomicLong();
+	private final AtomicLong cacheMisses = new AtomicLong();
+
+	// -- DefaultOpMatchingService methods --
+
+	/** Gets the number of requests resolved from the match cache. */
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	/** Gets the number of requests which required a full candidate search. */
+	public long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	/** Discards all memoized matches. */
+	public void clearCache() {
+		matchCache.clear();
+	}
+
 	// -- OpMatchingService methods --
 
 	@Override
@@ -87,6 +127,12 @@ public class DefaultOpMatchingService extends AbstractService implements
 	public OpCandidate findMatch(final OpEnvironment ops,
 		final List<OpRef> refs)
 	{
+		// check whether an op with the same signature was matched before
+		final MatchKey key = new MatchKey(refs);
+		final OpCandidate cached = cachedMatch(ops, refs, key);
+		if (cached != null) return cached;
+		cacheMisses.incrementAndGet();
+
 		// find candidates with matching name & type
 		final List<OpCandidate> candidates = findCandidates(ops, refs);
 		assertCandidates(candidates, refs.get(0));
@@ -94,7 +140,9 @@ public class DefaultOpMatchingService extends AbstractService implements
 		// narrow down candidates to the exact matches
 		final List<OpCandidate> matches = filterMatches(candidates);
 
-		return singleMatch(candidates, matches);
+		final OpCandidate match = singleMatch(candidates, matches);
+		cacheMatch(ops, refs, key, candidates, match);
+		return match;
 	}
 
 	@Override
@@ -109,7 +157,7 @@ public class DefaultOpMatchingService extends AbstractService implements
 		final List<OpRef> refs)
 	{
 		final ArrayList<OpCandidate> candidates = new ArrayList<>();
-		for (final OpInfo info : ops.infos()) {
+		for (final OpInfo info : infos(ops, refs)) {
 			for (final OpRef ref : refs) {
 				if (isCandidate(info, ref)) {
 					candidates.add(new OpCandidate(ops, ref, info));
@@ -207,6 +255,26 @@ public class DefaultOpMatchingService extends AbstractService implements
 
 	// -- Helper methods --
 
+	/**
+	 * Gets the ops which might match any of the given references, in order of
+	 * priority.
+	 * <p>
+	 * Helper method of {@link #findCandidates}.
+	 * </p>
+	 */
+	private Collection<OpInfo> infos(final OpEnvironment ops,
+		final List<OpRef> refs)
+	{
+		if (refs.size() == 1) return ops.infos(refs.get(0));
+		final LinkedHashSet<OpInfo> infos = new LinkedHashSet<>();
+		for (final OpRef ref : refs) {
+			infos.addAll(ops.infos(ref));
+		}
+		final ArrayList<OpInfo> sorted = new ArrayList<>(infos);
+		Collections.sort(sorted);
+		return sorted;
+	}
+
 	/** Helper method of {@link #findCandidates}. */
 	private boolean isCandidate(final OpInfo info, final OpRef ref) {
 		if (!info.nameMatches(ref.getName())) return false;
@@ -226,6 +294,58 @@ public class DefaultOpMatchingService extends AbstractService implements
 		return ref.typesMatch(opClass);
 	}
 
+	/**
+	 * Re-validates the memoized match for the given signature, if any.
+	 * <p>
+	 * Helper method of {@link #findMatch}.
+	 * </p>
+	 * 
+	 * @return The matching candidate, or null if there is no memoized match or
+	 *         it does not accept the given arguments.
+	 */
+	private OpCandidate cachedMatch(final OpEnvironment ops,
+		final List<OpRef> refs, final MatchKey key)
+	{
+		final Map<MatchKey, CachedMatch> table = matchCache.get(ops);
+		if (table == null) return null;
+		final CachedMatch cached = table.get(key);
+		if (cached == null) return null;
+
+		final OpCandidate candidate = new OpCandidate(ops, refs.get(cached.refIndex),
+			cached.info);
+		final List<OpCandidate> candidates = Collections.singletonList(candidate);
+		final List<OpCandidate> matches = filterMatches(candidates);
+		if (matches.size() != 1) {
+			// NB: The op no longer accepts these arguments; search from scratch.
+			table.remove(key);
+			return null;
+		}
+		cacheHits.incrementAndGet();
+		return singleMatch(candidates, matches);
+	}
+
+	/**
+	 * Memoizes the given match, provided that its selection depended on nothing
+	 * but the signature of the request. If any candidate was rejected by its
+	 * {@link Contingent#conforms()} check, the outcome may differ for other
+	 * arguments of the same classes, so the match is not remembered.
+	 * <p>
+	 * Helper method of {@link #findMatch}.
+	 * </p>
+	 */
+	private void cacheMatch(final OpEnvironment ops, final List<OpRef> refs,
+		final MatchKey key, final List<OpCandidate> candidates,
+		final OpCandidate match)
+	{
+		for (final OpCandidate candidate : candidates) {
+			if (candidate.getStatusCode() == StatusCode.DOES_NOT_CONFORM) return;
+		}
+		final int refIndex = refs.indexOf(match.getRef());
+		if (refIndex < 0) return;
+		matchCache.computeIfAbsent(ops, env -> new ConcurrentHashMap<>()).put(key,
+			new CachedMatch(match.opInfo(), refIndex));
+	}
+
 	/** Helper method of {@link #findMatch}. */
 	private void assertCandidates(final List<OpCandidate> candidates,
 		final OpRef ref)
@@ -629,4 +749,75 @@ public class DefaultOpMatchingService extends AbstractService implements
 			type);
 	}
 
+	// -- Event handlers --
+
+	@EventHandler
+	protected void onEvent(final PluginsAddedEvent evt) {
+		clearCache();
+	}
+
+	@EventHandler
+	protected void onEvent(final PluginsRemovedEvent evt) {
+		clearCache();
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Normalized signature of a list of {@link OpRef}s: names, type constraints,
+	 * output types and the classes (rather than values) of the arguments.
+	 */
+	private static final class MatchKey {
+
+		private final Object[] signature;
+		private final int hash;
+
+		private MatchKey(final List<OpRef> refs) {
+			final ArrayList<Object> sig = new ArrayList<>();
+			for (final OpRef ref : refs) {
+				sig.add(ref.getName());
+				sig.add(ref.getTypes());
+				sig.add(ref.getOutTypes());
+				final Object[] args = ref.getArgs();
+				sig.add(args.length);
+				for (final Object arg : args) {
+					// NB: Type arguments are placeholders for typed nulls.
+					sig.add(arg == null || arg instanceof Type ? arg : arg.getClass());
+				}
+			}
+			signature = sig.toArray();
+			hash = Arrays.hashCode(signature);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (this == o) return true;
+			if (!(o instanceof MatchKey)) return false;
+			final MatchKey that = (MatchKey) o;
+			return hash == that.hash && Arrays.equals(signature, that.signature);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString(signature);
+		}
+	}
+
+	/** The op which matched a given {@link MatchKey}. */
+	private static final class CachedMatch {
+
+		private final OpInfo info;
+		private final int refIndex;
+
+		private CachedMatch(final OpInfo info, final int refIndex) {
+			this.info = info;
+			this.refIndex = refIndex;
+		}
+	}
+
 }
@@ -34,9 +34,12 @@ import java.util.Collection;
 
 import org.scijava.command.CommandInfo;
 import org.scijava.command.CommandService;
+import org.scijava.event.EventHandler;
 import org.scijava.plugin.AbstractPTService;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.plugin.event.PluginsAddedEvent;
+import org.scijava.plugin.event.PluginsRemovedEvent;
 import org.scijava.service.Service;
 
 /**
@@ -58,6 +61,9 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 	@Parameter
 	private NamespaceService namespaceService;
 
+	/** Lookup table of available ops; rebuilt when plugins change. */
+	private volatile OpInfoIndex index;
+
 	// -- OpEnvironment methods --
 
 	@Override
@@ -75,13 +81,12 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 
 	@Override
 	public Collection<OpInfo> infos() {
-		// TODO: Consider maintaining a separate and efficient
-		// OpInfo data structure in AbstractOpEnvironment.
-		final ArrayList<OpInfo> infos = new ArrayList<>();
-		for (final CommandInfo cInfo : commandService.getCommandsOfType(Op.class)) {
-			infos.add(new OpInfo(cInfo));
-		}
-		return infos;
+		return new ArrayList<>(index().infos());
+	}
+
+	@Override
+	public Collection<OpInfo> infos(final OpRef ref) {
+		return index().get(ref);
 	}
 
 	@Override
@@ -96,4 +101,37 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 		return Op.class;
 	}
 
+	// -- Event handlers --
+
+	@EventHandler
+	protected void onEvent(final PluginsAddedEvent evt) {
+		index = null;
+	}
+
+	@EventHandler
+	protected void onEvent(final PluginsRemovedEvent evt) {
+		index = null;
+	}
+
+	// -- Helper methods --
+
+	private OpInfoIndex index() {
+		OpInfoIndex result = index;
+		if (result == null) {
+			synchronized (this) {
+				result = index;
+				if (result == null) {
+					final ArrayList<OpInfo> infos = new ArrayList<>();
+					for (final CommandInfo cInfo : commandService.getCommandsOfType(
+						Op.class))
+					{
+						infos.add(new OpInfo(cInfo));
+					}
+					index = result = new OpInfoIndex(infos);
+				}
+			}
+		}
+		return result;
+	}
+
 }
@@ -297,6 +297,15 @@ public interface OpEnvironment extends Contextual {
 	 */
 	Collection<OpInfo> infos();
 
+	/**
+	 * Gets the available ops which might match the given reference, in the same
+	 * order as {@link #infos()}. The result may contain ops which do not match
+	 * after all, but must not omit any which do.
+	 */
+	default Collection<OpInfo> infos(final OpRef ref) {
+		return infos();
+	}
+
 	/** Gets the fully qualified names of all available operations. */
 	default Collection<String> ops() {
 		// collect list of unique operation names
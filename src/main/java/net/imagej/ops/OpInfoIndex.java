@@ -0,0 +1,156 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.scijava.InstantiableException;
+import org.scijava.util.GenericUtils;
+
+/**
+ * Lookup table over a fixed collection of {@link OpInfo}s, used to narrow down
+ * the ops which might match an {@link OpRef} without scanning all of them.
+ * <p>
+ * Ops are bucketed by name (fully qualified and without namespace, including
+ * aliases), and lazily by the op types (e.g. {@link Ops.Filter.Gauss} or
+ * {@link net.imagej.ops.special.computer.UnaryComputerOp}) they implement. Each
+ * bucket preserves the order of the original collection, so that candidates
+ * are still considered in order of priority.
+ * </p>
+ * 
+ * @see OpEnvironment#infos(OpRef)
+ */
+public class OpInfoIndex {
+
+	/** All indexed ops, in order. */
+	private final List<OpInfo> infos;
+
+	/** Ops by qualified name, simple name and aliases. */
+	private final Map<String, List<OpInfo>> names = new HashMap<>();
+
+	/** Ops by implemented type, populated on demand. */
+	private final Map<Class<?>, List<OpInfo>> types = new ConcurrentHashMap<>();
+
+	public OpInfoIndex(final Collection<? extends OpInfo> infos) {
+		this.infos = Collections.unmodifiableList(new ArrayList<>(infos));
+		for (final OpInfo info : this.infos) {
+			for (final String key : nameKeys(info)) {
+				names.computeIfAbsent(key, k -> new ArrayList<>()).add(info);
+			}
+		}
+		names.replaceAll((name, named) -> Collections.unmodifiableList(named));
+	}
+
+	// -- OpInfoIndex methods --
+
+	/** Gets all indexed ops, in order. */
+	public List<OpInfo> infos() {
+		return infos;
+	}
+
+	/**
+	 * Gets the ops which might match the given reference. Every op which could
+	 * satisfy the reference's name and type constraints is included, but not
+	 * every included op necessarily does.
+	 */
+	public List<OpInfo> get(final OpRef ref) {
+		if (ref.getName() != null) return named(ref.getName());
+		final Collection<Type> refTypes = ref.getTypes();
+		if (refTypes == null || refTypes.isEmpty()) return infos;
+		// FIXME: Use generic assignability test, once it exists.
+		final Class<?> type = GenericUtils.getClass(refTypes.iterator().next());
+		// NB: A type without raw class, e.g. a type variable, narrows nothing.
+		return type == null ? infos : ofType(type);
+	}
+
+	/**
+	 * Gets the ops whose name or one of whose aliases matches the given name,
+	 * with or without namespace.
+	 * 
+	 * @see OpInfo#nameMatches(String)
+	 */
+	public List<OpInfo> named(final String name) {
+		final List<OpInfo> named = names.get(name);
+		return named == null ? Collections.emptyList() : named;
+	}
+
+	/**
+	 * Gets the ops implementing the given type. Ops whose class cannot be loaded
+	 * are included as well, so that they are reported during matching.
+	 */
+	public List<OpInfo> ofType(final Class<?> type) {
+		return types.computeIfAbsent(type, t -> {
+			final ArrayList<OpInfo> matching = new ArrayList<>();
+			for (final OpInfo info : infos) {
+				try {
+					if (!t.isAssignableFrom(info.cInfo().loadClass())) continue;
+				}
+				catch (final InstantiableException exc) {
+					// NB: Leave it to the matcher to report the invalid op.
+				}
+				matching.add(info);
+			}
+			return Collections.unmodifiableList(matching);
+		});
+	}
+
+	// -- Helper methods --
+
+	/** Gets the names under which the given op can be requested. */
+	private static Set<String> nameKeys(final OpInfo info) {
+		final Set<String> keys = new LinkedHashSet<>();
+		addNameKeys(keys, info.getName());
+		final String[] aliases = info.getAliases();
+		if (aliases != null) {
+			for (final String alias : aliases) {
+				addNameKeys(keys, alias);
+			}
+		}
+		return keys;
+	}
+
+	private static void addNameKeys(final Set<String> keys, final String name) {
+		if (name == null) return;
+		keys.add(name);
+		final int dot = name.lastIndexOf(".");
+		if (dot >= 0) keys.add(name.substring(dot + 1));
+	}
+
+}
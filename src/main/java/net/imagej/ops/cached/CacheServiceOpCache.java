@@ -0,0 +1,126 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.cached;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.scijava.cache.CacheService;
+
+/**
+ * {@link OpCache} storing its entries in a {@link CacheService}. This is the
+ * backend used by {@link CachedOpEnvironment} unless another one is given.
+ * Since the {@link CacheService} drops entries on its own, no evictions are
+ * counted.
+ * <p>
+ * The {@link CacheService} may be shared and cannot remove single entries, so
+ * each key is stored together with the current generation of this cache.
+ * {@link #clear()} starts a new generation, which makes all earlier entries
+ * unreachable; the {@link CacheService} frees them like any other entry it no
+ * longer needs.
+ * </p>
+ */
+public class CacheServiceOpCache implements OpCache {
+
+	private final CacheService cacheService;
+
+	private final AtomicReference<Object> generation = new AtomicReference<>(
+		new Object());
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public CacheServiceOpCache(final CacheService cacheService) {
+		this.cacheService = cacheService;
+	}
+
+	// -- OpCache methods --
+
+	@Override
+	public Object get(final Object key) {
+		final Object value = cacheService.get(new GenerationKey(generation.get(),
+			key));
+		(value == null ? misses : hits).incrementAndGet();
+		return value;
+	}
+
+	@Override
+	public void put(final Object key, final Object value) {
+		cacheService.put(new GenerationKey(generation.get(), key), value);
+	}
+
+	@Override
+	public void clear() {
+		generation.set(new Object());
+	}
+
+	@Override
+	public long getHits() {
+		return hits.get();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public long getEvictions() {
+		return 0;
+	}
+
+	// -- Helper classes --
+
+	/** Key of an entry, scoped to one generation of the cache. */
+	private static final class GenerationKey {
+
+		private final Object generation;
+		private final Object key;
+
+		public GenerationKey(final Object generation, final Object key) {
+			this.generation = generation;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof GenerationKey)) return false;
+			final GenerationKey other = (GenerationKey) obj;
+			return generation == other.generation && key.equals(other.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(generation) + key.hashCode();
+		}
+	}
+
+}
@@ -29,11 +29,16 @@
 
 package net.imagej.ops.cached;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.imagej.ops.AbstractOp;
 import net.imagej.ops.CustomOpEnvironment;
@@ -43,10 +48,12 @@ import net.imagej.ops.OpInfo;
 import net.imagej.ops.OpRef;
 import net.imagej.ops.special.function.UnaryFunctionOp;
 import net.imagej.ops.special.hybrid.UnaryHybridCF;
+import net.imglib2.EuclideanSpace;
 
 import org.scijava.Priority;
 import org.scijava.cache.CacheService;
 import org.scijava.command.CommandInfo;
+import org.scijava.command.CommandModuleItem;
 import org.scijava.module.Module;
 import org.scijava.module.ModuleItem;
 import org.scijava.plugin.Parameter;
@@ -62,6 +69,11 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 	@Parameter
 	private CacheService cs;
 	private Collection<Class<?>> ignoredOps;
+	private volatile OpCache cache;
+
+	/** Fields of the arguments which are part of the cache keys, per op class. */
+	private final Map<Class<?>, List<Field>> argFields =
+		new ConcurrentHashMap<>();
 
 	public CachedOpEnvironment(final OpEnvironment parent) {
 		this(parent, null, new ArrayList<>());
@@ -76,6 +88,19 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 	public CachedOpEnvironment(final OpEnvironment parent,
 		final Collection<? extends OpInfo> prioritizedInfos,
 		final Collection<Class<?>> ignoredOps)
+	{
+		this(parent, prioritizedInfos, ignoredOps, null);
+	}
+
+	/**
+	 * Creates an environment caching the results of its ops in the given
+	 * {@link OpCache}, such as an {@link LRUOpCache} with a bounded size.
+	 *
+	 * @param cache the cache backend, or null to use the {@link CacheService}
+	 */
+	public CachedOpEnvironment(final OpEnvironment parent,
+		final Collection<? extends OpInfo> prioritizedInfos,
+		final Collection<Class<?>> ignoredOps, final OpCache cache)
 	{
 		super(parent, prioritizedInfos);
 
@@ -84,6 +109,16 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 		}
 
 		this.ignoredOps = ignoredOps;
+		this.cache = cache;
+	}
+
+	/**
+	 * Gets the {@link OpCache} holding the results of this environment's ops,
+	 * e.g. to query its statistics.
+	 */
+	public OpCache getCache() {
+		if (cache == null) initCache();
+		return cache;
 	}
 
 	@Override
@@ -115,6 +150,10 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 
 	// -- Helper methods --
 
+	private synchronized void initCache() {
+		if (cache == null) cache = new CacheServiceOpCache(cs);
+	}
+
 	private <I, O> CachedFunctionOp<I, O> wrapUnaryFunction(
 		final UnaryFunctionOp<I, O> op)
 	{
@@ -132,6 +171,22 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 	 * specified offset.
 	 */
 	private Object[] otherArgs(final Op op, final int offset) {
+		final List<Field> fields = argFields.computeIfAbsent(op.getClass(),
+			c -> argFields(info(op).cInfo(), offset));
+		if (fields != null) {
+			final Object[] args = new Object[fields.size()];
+			for (int i = 0; i < args.length; i++) {
+				try {
+					args[i] = fields.get(i).get(op);
+				}
+				catch (final IllegalAccessException exc) {
+					throw new IllegalStateException(exc);
+				}
+			}
+			return args;
+		}
+
+		// NB: Not all inputs are fields, so the values come from a module.
 		final CommandInfo cInfo = info(op).cInfo();
 		final Module module = cInfo.createModule(op);
 		final ArrayList<Object> args = new ArrayList<>();
@@ -142,6 +197,23 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 		return args.toArray();
 	}
 
+	/**
+	 * Gets the fields of the given op's inputs, starting at the specified
+	 * offset, or null if not all of these inputs are fields.
+	 */
+	private List<Field> argFields(final CommandInfo cInfo, final int offset) {
+		final ArrayList<Field> fields = new ArrayList<>();
+		int i = 0;
+		for (final ModuleItem<?> input : cInfo.inputs()) {
+			if (i++ < offset) continue;
+			if (!(input instanceof CommandModuleItem)) return null;
+			final Field field = ((CommandModuleItem<?>) input).getField();
+			field.setAccessible(true);
+			fields.add(field);
+		}
+		return fields;
+	}
+
 	// -- Helper classes --
 
 	/**
@@ -156,31 +228,36 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 		UnaryFunctionOp<I, O>
 	{
 
-		@Parameter
-		private CacheService cache;
-
 		private final UnaryFunctionOp<I, O> delegate;
 
 		private final Object[] args;
 
+		private final int argsHash;
+
 		public CachedFunctionOp(final UnaryFunctionOp<I, O> delegate,
 			final Object[] args)
 		{
 			this.delegate = delegate;
 			this.args = args;
+			argsHash = 31 * delegate.getClass().hashCode() + Arrays.hashCode(args);
+		}
+
+		/** Gets the key of the result for the given input. */
+		protected CacheKey key(final I input) {
+			return new CacheKey(input, delegate.getClass(), args, argsHash);
 		}
 
 		@Override
 		public O calculate(final I input) {
 
-			final Hash hash = new Hash(input, delegate, args);
+			final CacheKey hash = key(input);
 
 			@SuppressWarnings("unchecked")
-			O output = (O) cache.get(hash);
+			O output = (O) getCache().get(hash);
 
 			if (output == null) {
 				output = delegate.calculate(input);
-				cache.put(hash, output);
+				getCache().put(hash, output);
 			}
 			return output;
 		}
@@ -230,32 +307,26 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 		UnaryHybridCF<I, O>
 	{
 
-		@Parameter
-		private CacheService cache;
-
 		private final UnaryHybridCF<I, O> delegate;
 
-		private final Object[] args;
-
 		public CachedHybridOp(final UnaryHybridCF<I, O> delegate,
 			final Object[] args)
 		{
 			super(delegate, args);
 			this.delegate = delegate;
-			this.args = args;
 		}
 
 		@Override
 		public O calculate(final I input) {
-			final Hash hash = new Hash(input, delegate, args);
+			final CacheKey hash = key(input);
 
 			@SuppressWarnings("unchecked")
-			O output = (O) cache.get(hash);
+			O output = (O) getCache().get(hash);
 
 			if (output == null) {
 				output = createOutput(input);
 				compute(input, output);
-				cache.put(hash, output);
+				getCache().put(hash, output);
 			}
 			return output;
 		}
@@ -282,15 +353,43 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 	}
 
 	/**
-	 * Simple utility class to wrap two objects and an array of objects in a
-	 * single object which combines their hashes.
+	 * Key of a cached result, combining the input with the op class and the
+	 * op's other arguments.
+	 * <p>
+	 * Inputs living in a {@link EuclideanSpace}, i.e. images, views and ROIs, are
+	 * compared by identity and only weakly referenced: their
+	 * {@link Object#equals} is either identity anyway or iterates over their
+	 * data, and the keys must not keep them from being garbage collected. Other
+	 * inputs, such as numeric values, are compared by equality.
+	 * </p>
 	 */
-	private class Hash {
+	private static class CacheKey {
+
+		private final Object input;
+
+		private final WeakReference<Object> inputRef;
+
+		private final Class<?> opClass;
+
+		private final Object[] args;
 
 		private final int hash;
 
-		public Hash(final Object o1, final Object o2, final Object[] args) {
-			hash = Objects.hash(o1, o2.getClass(), Arrays.hashCode(args));
+		public CacheKey(final Object input, final Class<?> opClass,
+			final Object[] args, final int argsHash)
+		{
+			if (input instanceof EuclideanSpace) {
+				this.input = null;
+				inputRef = new WeakReference<>(input);
+				hash = 31 * System.identityHashCode(input) + argsHash;
+			}
+			else {
+				this.input = input;
+				inputRef = null;
+				hash = 31 * Objects.hashCode(input) + argsHash;
+			}
+			this.opClass = opClass;
+			this.args = args;
 		}
 
 		@Override
@@ -301,8 +400,18 @@ public class CachedOpEnvironment extends CustomOpEnvironment {
 		@Override
 		public boolean equals(final Object obj) {
 			if (obj == this) return true;
-			if (obj instanceof Hash) return hash == ((Hash) obj).hash;
-			return false;
+			if (!(obj instanceof CacheKey)) return false;
+			final CacheKey other = (CacheKey) obj;
+			if (hash != other.hash || opClass != other.opClass) return false;
+			if (inputRef != null) {
+				final Object referent = inputRef.get();
+				if (other.inputRef == null || referent == null ||
+					referent != other.inputRef.get()) return false;
+			}
+			else if (other.inputRef != null || !Objects.equals(input, other.input)) {
+				return false;
+			}
+			return Arrays.equals(args, other.args);
 		}
 	}
 }
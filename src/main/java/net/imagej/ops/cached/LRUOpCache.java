@@ -0,0 +1,221 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.cached;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.imglib2.IterableInterval;
+import net.imglib2.type.numeric.RealType;
+
+/**
+ * {@link OpCache} holding entries up to a budget of (estimated) bytes, evicting
+ * the least recently used entries first.
+ * <p>
+ * The size of each value is estimated once, when it is put into the cache, by
+ * {@link #sizeOf(Object)}. Images and other {@link IterableInterval}s of
+ * {@link RealType}s are estimated from their number of elements and bits per
+ * pixel; arrays (including nested arrays, such as cooccurrence matrices) and
+ * {@link Collection}s from their elements. Values larger than the whole budget
+ * are not cached at all.
+ * </p>
+ */
+public class LRUOpCache implements OpCache {
+
+	/** Estimated size of objects which are not otherwise accounted for. */
+	private static final long OBJECT_SIZE = 64;
+
+	/** Estimated size of an array's header. */
+	private static final long ARRAY_HEADER_SIZE = 16;
+
+	private final long maxBytes;
+
+	private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16,
+		0.75f, true);
+
+	private long bytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Creates a cache holding at most the given number of (estimated) bytes.
+	 */
+	public LRUOpCache(final long maxBytes) {
+		if (maxBytes < 0) throw new IllegalArgumentException(
+			"Negative cache size: " + maxBytes);
+		this.maxBytes = maxBytes;
+	}
+
+	/** Gets the maximum number of (estimated) bytes held by this cache. */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/** Gets the number of (estimated) bytes currently held by this cache. */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/** Gets the number of entries currently held by this cache. */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	// -- OpCache methods --
+
+	@Override
+	public synchronized Object get(final Object key) {
+		final Entry entry = entries.get(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.value;
+	}
+
+	@Override
+	public void put(final Object key, final Object value) {
+		// NB: Estimate outside of the lock, since it may iterate over the value.
+		final long size = sizeOf(value);
+		synchronized (this) {
+			final Entry old = entries.remove(key);
+			if (old != null) bytes -= old.size;
+			if (size > maxBytes) return;
+
+			entries.put(key, new Entry(value, size));
+			bytes += size;
+
+			final Iterator<Entry> iter = entries.values().iterator();
+			while (bytes > maxBytes) {
+				// NB: The new entry is the most recently used, so it is never evicted.
+				final Entry eldest = iter.next();
+				iter.remove();
+				bytes -= eldest.size;
+				evictions++;
+			}
+		}
+	}
+
+	@Override
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	@Override
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	@Override
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	@Override
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	// -- Internal methods --
+
+	/**
+	 * Estimates the number of bytes occupied by the given value. Subclasses can
+	 * override this to account for further types of values.
+	 */
+	protected long sizeOf(final Object value) {
+		if (value == null) return 0;
+		if (value instanceof IterableInterval) {
+			final IterableInterval<?> interval = (IterableInterval<?>) value;
+			final long size = interval.size();
+			if (size == 0) return OBJECT_SIZE;
+			final Object type = interval.firstElement();
+			final long bits = type instanceof RealType ? ((RealType<?>) type)
+				.getBitsPerPixel() : 8 * OBJECT_SIZE;
+			return OBJECT_SIZE + (size * bits + 7) / 8;
+		}
+		if (value.getClass().isArray()) {
+			final int length = Array.getLength(value);
+			final Class<?> component = value.getClass().getComponentType();
+			if (component.isPrimitive()) {
+				return ARRAY_HEADER_SIZE + length * primitiveSize(component);
+			}
+			long size = ARRAY_HEADER_SIZE + 8L * length;
+			for (int i = 0; i < length; i++) {
+				size += sizeOf(Array.get(value, i));
+			}
+			return size;
+		}
+		if (value instanceof Collection) {
+			long size = OBJECT_SIZE;
+			for (final Object element : (Collection<?>) value) {
+				size += sizeOf(element);
+			}
+			return size;
+		}
+		if (value instanceof Map) {
+			long size = OBJECT_SIZE;
+			for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				size += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+			}
+			return size;
+		}
+		return OBJECT_SIZE;
+	}
+
+	// -- Helper methods --
+
+	private static long primitiveSize(final Class<?> type) {
+		if (type == long.class || type == double.class) return 8;
+		if (type == int.class || type == float.class) return 4;
+		if (type == short.class || type == char.class) return 2;
+		return 1;
+	}
+
+	// -- Helper classes --
+
+	private static class Entry {
+
+		private final Object value;
+		private final long size;
+
+		public Entry(final Object value, final long size) {
+			this.value = value;
+			this.size = size;
+		}
+	}
+
+}
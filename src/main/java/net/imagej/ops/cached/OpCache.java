@@ -0,0 +1,67 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.cached;
+
+/**
+ * Storage backend for the results cached by a {@link CachedOpEnvironment}.
+ * <p>
+ * Implementations must be thread safe and may drop entries at any time; a
+ * cached op simply recomputes results which are no longer present.
+ * </p>
+ */
+public interface OpCache {
+
+	/**
+	 * Gets the value cached for the given key.
+	 *
+	 * @return the cached value, or null if none is present
+	 */
+	Object get(Object key);
+
+	/** Caches the given value for the given key. */
+	void put(Object key, Object value);
+
+	/**
+	 * Removes all entries from the cache. The hit, miss and eviction counts
+	 * cover the whole lifetime of the cache and are kept.
+	 */
+	void clear();
+
+	/** Gets the number of {@link #get} calls which found a value. */
+	long getHits();
+
+	/** Gets the number of {@link #get} calls which found no value. */
+	long getMisses();
+
+	/** Gets the number of entries dropped to stay within the cache's bounds. */
+	long getEvictions();
+
+}
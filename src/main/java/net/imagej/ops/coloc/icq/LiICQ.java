@@ -94,6 +94,16 @@ public class LiICQ<T extends RealType<T>, U extends RealType<U>>
 		return icqValue;
 	}
 
+	/** @return the fixed mean of the first channel, or null to compute it */
+	public DoubleType getMean1() {
+		return mean1;
+	}
+
+	/** @return the fixed mean of the second channel, or null to compute it */
+	public DoubleType getMean2() {
+		return mean2;
+	}
+
 	private <V extends RealType<V>> double computeMeanOf(final Iterable<V> in) {
 		return ops().stats().mean(in).getRealDouble();
 	}
@@ -30,18 +30,20 @@
 package net.imagej.ops.coloc.pValue;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.coloc.ShuffledView;
+import net.imagej.ops.coloc.icq.LiICQ;
+import net.imagej.ops.coloc.pearsons.DefaultPearsons;
 import net.imagej.ops.special.computer.AbstractBinaryComputerOp;
 import net.imagej.ops.special.function.BinaryFunctionOp;
-import net.imglib2.Cursor;
+import net.imagej.ops.thread.ThreadUtil;
 import net.imglib2.Dimensions;
 import net.imglib2.IterableInterval;
-import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.img.Img;
 import net.imglib2.type.numeric.RealType;
@@ -49,6 +51,7 @@ import net.imglib2.util.Intervals;
 import net.imglib2.util.Util;
 import net.imglib2.view.Views;
 
+import org.scijava.app.StatusService;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 import org.scijava.thread.ThreadService;
@@ -66,8 +69,14 @@ public class DefaultPValue<T extends RealType<T>, U extends RealType<U>> extends
 	implements Ops.Coloc.PValue
 {
 
+	/** Number of times the progress is reported at most. */
+	private static final int PROGRESS_UPDATES = 100;
+
 	@Parameter
 	private ThreadService ts;
+
+	@Parameter(required = false)
+	private StatusService status;
 	
 	@Parameter
 	private BinaryFunctionOp<Iterable<T>, Iterable<U>, Double> op;
@@ -96,37 +105,52 @@ public class DefaultPValue<T extends RealType<T>, U extends RealType<U>> extends
 		
 		// compute actual coloc value
 		final double value = op.calculate(iterableImage1, iterableImage2);
-		
+
+		// permute blocks of primitive copies rather than shuffled views
+		final PermutationEngine engine = new PermutationEngine(trimmedImage1,
+			trimmedImage2, blockSize);
+		final PermutationEngine.Statistic statistic = statistic(engine,
+			iterableImage1, iterableImage2);
+		// NB: Compare against the value as computed for the randomizations, so
+		// that an identity permutation reproduces it exactly.
+		final double reference = statistic == null ? value : statistic.evaluate(
+			engine.identity());
+
 		// compute shuffled coloc values in parallel
-		int threadCount = Runtime.getRuntime().availableProcessors(); // FIXME: conform to Ops threading strategy...
 		Random r = new Random(seed);
 		long[] seeds = new long[nrRandomizations];
 		for (int s = 0; s < nrRandomizations; s++ ) {
 			seeds[s] = r.nextLong();
 		}
-		ArrayList<Future<?>> future = new ArrayList<>(threadCount);
-		for (int t = 0; t < threadCount; t++) {
-			int offset = t * nrRandomizations / threadCount;
-			int count = (t+1) * nrRandomizations / threadCount - offset;
-			future.add(ts.run(() -> {
-				final ShuffledView<T> shuffled = new ShuffledView<>(trimmedImage1,
-					blockSize, seeds[offset]); // a new one per thread and each needs its own seed
-				Img<T> buffer = Util.getSuitableImgFactory(shuffled, type1).create(
-					shuffled);
-				for (int i = 0; i < count; i++) {
-					int index = offset + i;
-					if (index >= nrRandomizations) break;
-					if (i > 0) shuffled.shuffleBlocks(seeds[index]);
-					copy(shuffled, buffer);
-					sampleDistribution[index] = op.calculate(buffer, iterableImage2);
+		final int taskCount = ThreadUtil.numTasks(ts, nrRandomizations, 1);
+		final int progressStep = Math.max(1, nrRandomizations / PROGRESS_UPDATES);
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicInteger done = new AtomicInteger();
+		final List<Future<?>> futures = new ArrayList<>(taskCount);
+		for (int t = 0; t < taskCount; t++) {
+			futures.add(ts.run(() -> {
+				final PermutationEngine.Statistic randomized = statistic != null
+					? statistic : bufferedStatistic(engine, trimmedImage1, type1,
+						iterableImage2);
+				final int[] permutation = new int[engine.numBlocks()];
+				int index;
+				while ((index = next.getAndIncrement()) < nrRandomizations) {
+					engine.permutation(seeds[index], permutation);
+					sampleDistribution[index] = randomized.evaluate(permutation);
+					final int finished = done.incrementAndGet();
+					if (status != null && (finished % progressStep == 0 ||
+						finished == nrRandomizations))
+					{
+						status.showProgress(finished, nrRandomizations);
+					}
 				}
 			}));
 		}
 
 		// wait for threads to finish
 		try {
-			for (int t = 0; t < threadCount; t++) {
-				future.get(t).get();
+			for (final Future<?> future : futures) {
+				future.get();
 			}
 		}
 		catch (final InterruptedException | ExecutionException exc) {
@@ -137,17 +161,43 @@ public class DefaultPValue<T extends RealType<T>, U extends RealType<U>> extends
 
 		output.setColocValue(value);
 		output.setColocValuesArray(sampleDistribution);
-		output.setPValue(calculatePvalue(value, sampleDistribution));
+		output.setPValue(calculatePvalue(reference, sampleDistribution));
 	}
 
-	private void copy(ShuffledView<T> shuffled, Img<T> buffer) {
-		Cursor<T> cursor = buffer.localizingCursor();
-		RandomAccess<T> ra = shuffled.randomAccess();
-		while (cursor.hasNext()) {
-			T v = cursor.next();
-			ra.setPosition(cursor);
-			v.set(ra.get());
+	/**
+	 * Gets a primitive evaluation of the coloc op, if it is one with a known
+	 * formula, or null otherwise.
+	 */
+	private PermutationEngine.Statistic statistic(
+		final PermutationEngine engine, final IterableInterval<T> image1,
+		final IterableInterval<U> image2)
+	{
+		if (op instanceof DefaultPearsons) return engine.pearsons();
+		if (op instanceof LiICQ) {
+			final LiICQ<?, ?> icq = (LiICQ<?, ?>) op;
+			final double mean1 = icq.getMean1() != null ? icq.getMean1().get()
+				: ops().stats().mean(image1).getRealDouble();
+			final double mean2 = icq.getMean2() != null ? icq.getMean2().get()
+				: ops().stats().mean(image2).getRealDouble();
+			return engine.icq(mean1, mean2);
 		}
+		return null;
+	}
+
+	/**
+	 * Evaluates the coloc op on a buffer of its own, which is refilled with the
+	 * permuted first channel for every randomization.
+	 */
+	private PermutationEngine.Statistic bufferedStatistic(
+		final PermutationEngine engine, final RandomAccessibleInterval<T> image1,
+		final T type1, final IterableInterval<U> image2)
+	{
+		final Img<T> buffer = Util.getSuitableImgFactory(image1, type1).create(
+			image1);
+		return permutation -> {
+			engine.fill(permutation, buffer);
+			return op.calculate(buffer, image2);
+		};
 	}
 
 	private double calculatePvalue(final double input,
@@ -0,0 +1,243 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.coloc.pValue;
+
+import java.util.Random;
+
+import net.imagej.ops.coloc.ColocUtil;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.view.Views;
+
+/**
+ * Evaluates coloc statistics on block-wise permutations of the first channel
+ * without materializing a shuffled image per randomization. Both channels are
+ * read once into primitive arrays in block-major order, so the samples of each
+ * block are contiguous and shuffling the blocks only permutes block indices.
+ * The block layout is the one of {@link net.imagej.ops.coloc.ShuffledView}.
+ */
+final class PermutationEngine {
+
+	/** A statistic of the first channel permuted by blocks, and the second. */
+	interface Statistic {
+
+		double evaluate(int[] permutation);
+	}
+
+	private final int numDimensions;
+	private final long[] dims;
+	private final int[] blockSize;
+	private final int[] blockDims;
+	private final int numBlocks;
+	private final int blockVolume;
+
+	private final double[] values1;
+	private final double[] values2;
+
+	PermutationEngine(final RandomAccessibleInterval<? extends RealType<?>> image1,
+		final RandomAccessibleInterval<? extends RealType<?>> image2,
+		final int[] blockSize)
+	{
+		numDimensions = image1.numDimensions();
+		dims = new long[numDimensions];
+		image1.dimensions(dims);
+		this.blockSize = blockSize;
+		blockDims = new int[numDimensions];
+		long blocks = 1;
+		long volume = 1;
+		for (int d = 0; d < numDimensions; d++) {
+			blockDims[d] = (int) (dims[d] / blockSize[d]);
+			blocks *= blockDims[d];
+			volume *= blockSize[d];
+		}
+		if (blocks * volume > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Image is too large: " + blocks *
+				volume + " samples");
+		}
+		numBlocks = (int) blocks;
+		blockVolume = (int) volume;
+
+		values1 = read(image1);
+		values2 = read(image2);
+	}
+
+	int numBlocks() {
+		return numBlocks;
+	}
+
+	/** Gets the permutation which leaves every block in place. */
+	int[] identity() {
+		final int[] permutation = new int[numBlocks];
+		for (int b = 0; b < numBlocks; b++) {
+			permutation[b] = b;
+		}
+		return permutation;
+	}
+
+	/**
+	 * Gets the block permutation for the given seed, the same one a
+	 * {@link net.imagej.ops.coloc.ShuffledView} shuffled with this seed uses.
+	 */
+	void permutation(final long seed, final int[] permutation) {
+		for (int b = 0; b < numBlocks; b++) {
+			permutation[b] = b;
+		}
+		ColocUtil.shuffle(permutation, new Random(seed));
+	}
+
+	/**
+	 * Writes the first channel, permuted by blocks, into the target in flat
+	 * iteration order.
+	 */
+	void fill(final int[] permutation,
+		final IterableInterval<? extends RealType<?>> target)
+	{
+		final Cursor<? extends RealType<?>> cursor = Views.flatIterable(target)
+			.cursor();
+		final long[] position = new long[numDimensions];
+		final int run = blockSize[0];
+		while (cursor.hasNext()) {
+			// a run of samples shares its block along the first dimension
+			final int start = permutation[blockIndex(position)] * blockVolume +
+				offsetInBlock(position);
+			for (int i = 0; i < run; i++) {
+				cursor.next().setReal(values1[start + i]);
+			}
+			position[0] += run;
+			for (int d = 0; d < numDimensions - 1 && position[d] == dims[d]; d++) {
+				position[d] = 0;
+				position[d + 1]++;
+			}
+		}
+	}
+
+	/**
+	 * Pearson's correlation, as computed by
+	 * {@link net.imagej.ops.coloc.pearsons.DefaultPearsons}. All sums but the
+	 * one of the products are invariant under permutation, so they are
+	 * accumulated only once.
+	 */
+	Statistic pearsons() {
+		double x = 0, y = 0, xx = 0, yy = 0;
+		for (int i = 0; i < values1.length; i++) {
+			x += values1[i];
+			y += values2[i];
+			xx += values1[i] * values1[i];
+			yy += values2[i] * values2[i];
+		}
+		final double invCount = 1.0 / values1.length;
+		final double pearsons2 = xx - (x * x * invCount);
+		final double pearsons3 = yy - (y * y * invCount);
+		final double xyMeans = x * y * invCount;
+		final double norm = Math.sqrt(pearsons2 * pearsons3);
+
+		return permutation -> {
+			double xy = 0;
+			for (int b = 0; b < numBlocks; b++) {
+				final int offset1 = permutation[b] * blockVolume;
+				final int offset2 = b * blockVolume;
+				for (int i = 0; i < blockVolume; i++) {
+					xy += values1[offset1 + i] * values2[offset2 + i];
+				}
+			}
+			return (xy - xyMeans) / norm;
+		};
+	}
+
+	/**
+	 * Li's ICQ, as computed by {@link net.imagej.ops.coloc.icq.LiICQ}. The means
+	 * are invariant under permutation, so the sign of each sample's difference
+	 * to its mean is computed only once.
+	 */
+	Statistic icq(final double mean1, final double mean2) {
+		final byte[] signs1 = signs(values1, mean1);
+		final byte[] signs2 = signs(values2, mean2);
+
+		return permutation -> {
+			long numNegativeProducts = 0;
+			for (int b = 0; b < numBlocks; b++) {
+				final int offset1 = permutation[b] * blockVolume;
+				final int offset2 = b * blockVolume;
+				for (int i = 0; i < blockVolume; i++) {
+					if (signs1[offset1 + i] * signs2[offset2 + i] < 0) {
+						numNegativeProducts++;
+					}
+				}
+			}
+			final long numPositiveProducts = signs1.length - numNegativeProducts;
+			return ((double) numPositiveProducts / (double) signs1.length) - 0.5;
+		};
+	}
+
+	// -- Helper methods --
+
+	private double[] read(
+		final RandomAccessibleInterval<? extends RealType<?>> image)
+	{
+		final double[] values = new double[numBlocks * blockVolume];
+		final Cursor<? extends RealType<?>> cursor = Views.flatIterable(Views
+			.zeroMin(image)).localizingCursor();
+		final long[] position = new long[numDimensions];
+		while (cursor.hasNext()) {
+			final double value = cursor.next().getRealDouble();
+			cursor.localize(position);
+			values[blockIndex(position) * blockVolume + offsetInBlock(
+				position)] = value;
+		}
+		return values;
+	}
+
+	private int blockIndex(final long[] position) {
+		int index = 0;
+		for (int d = numDimensions - 1; d >= 0; d--) {
+			index = index * blockDims[d] + (int) (position[d] / blockSize[d]);
+		}
+		return index;
+	}
+
+	private int offsetInBlock(final long[] position) {
+		int offset = 0;
+		for (int d = numDimensions - 1; d >= 0; d--) {
+			offset = offset * blockSize[d] + (int) (position[d] % blockSize[d]);
+		}
+		return offset;
+	}
+
+	private static byte[] signs(final double[] values, final double mean) {
+		final byte[] signs = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			signs[i] = (byte) Math.signum(mean - values[i]);
+		}
+		return signs;
+	}
+
+}
@@ -72,6 +72,22 @@ public class DeconvolveNamespace extends AbstractNamespace {
 		return result;
 	}
 
+	@OpMethod(op = net.imagej.ops.deconvolve.TiledRichardsonLucy.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+		RandomAccessibleInterval<O> richardsonLucy(
+			final RandomAccessibleInterval<O> out,
+			final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel, final long maxBytes,
+			final int maxIterations)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(
+				net.imagej.ops.deconvolve.TiledRichardsonLucy.class, out, in, kernel,
+				maxBytes, maxIterations);
+		return result;
+	}
+
 	@OpMethod(op = net.imagej.ops.deconvolve.PadAndRichardsonLucy.class)
 	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
 		RandomAccessibleInterval<O> richardsonLucy(
@@ -376,6 +392,22 @@ public class DeconvolveNamespace extends AbstractNamespace {
 		return result;
 	}
 
+	@OpMethod(op = net.imagej.ops.deconvolve.TiledRichardsonLucyTV.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+		RandomAccessibleInterval<O> richardsonLucyTV(
+			final RandomAccessibleInterval<O> out,
+			final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel, final long maxBytes,
+			final int maxIterations, final float regularizationFactor)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(
+				net.imagej.ops.deconvolve.TiledRichardsonLucyTV.class, out, in, kernel,
+				maxBytes, maxIterations, regularizationFactor);
+		return result;
+	}
+
 	@OpMethod(op = net.imagej.ops.deconvolve.PadAndRichardsonLucyTV.class)
 	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
 		RandomAccessibleInterval<O> richardsonLucyTV(
@@ -130,13 +130,26 @@ public class NonCirculantNormalizationFactor<I extends RealType<I>, O extends Re
 	 */
 	@Override
 	public void mutate(RandomAccessibleInterval<O> arg) {
-		// if the normalization image hasn't been computed yet, then compute it
+		// normalize for non-circulant deconvolution
+		final float[] n = RichardsonLucyKernels.floats(getNormalization(arg));
+		final float[] values = RichardsonLucyKernels.floats(arg);
+		if (n != null && values != null) {
+			RichardsonLucyKernels.update(ops(), values, null, n);
+		}
+		else {
+			divide.mutate1(normalization, Views.iterable(arg));
+		}
+	}
+
+	/**
+	 * Gets the normalization image, computing it for the size of the given
+	 * image on the first call.
+	 */
+	Img<O> getNormalization(final RandomAccessibleInterval<O> arg) {
 		if (normalization == null) {
 			this.createNormalizationImageSemiNonCirculant(arg);
 		}
-
-		// normalize for non-circulant deconvolution
-		divide.mutate1(normalization, Views.iterable(arg));
+		return normalization;
 	}
 
 	protected void createNormalizationImageSemiNonCirculant(Interval fastFFTInterval) {
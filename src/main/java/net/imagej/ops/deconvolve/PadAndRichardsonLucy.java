@@ -35,6 +35,7 @@ import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
 import net.imagej.ops.deconvolve.accelerate.VectorAccelerator;
 import net.imagej.ops.filter.AbstractPadAndFFTFilter;
+import net.imagej.ops.filter.FFTPlan;
 import net.imagej.ops.special.computer.BinaryComputerOp;
 import net.imagej.ops.special.computer.Computers;
 import net.imagej.ops.special.computer.UnaryComputerOp;
@@ -93,6 +94,12 @@ public class PadAndRichardsonLucy<I extends RealType<I> & NativeType<I>, O exten
 	@Parameter(required = false)
 	private boolean accelerate = false;
 
+	/**
+	 * Plan holding the kernel spectrum and complex buffers to reuse.
+	 */
+	@Parameter(required = false)
+	private FFTPlan<C> fftPlan;
+
 	private UnaryComputerOp<RandomAccessibleInterval<O>, RandomAccessibleInterval<O>> computeEstimateOp;
 
 	private UnaryInplaceOp<RandomAccessibleInterval<O>, RandomAccessibleInterval<O>> normalizer;
@@ -129,7 +136,7 @@ public class PadAndRichardsonLucy<I extends RealType<I> & NativeType<I>, O exten
 		createFilterComputer(RandomAccessibleInterval<I> paddedInput,
 			RandomAccessibleInterval<K> paddedKernel,
 			RandomAccessibleInterval<C> fftImg, RandomAccessibleInterval<C> fftKernel,
-			RandomAccessibleInterval<O> output)
+			boolean performKernelFFT, RandomAccessibleInterval<O> output)
 	{
 		UnaryInplaceOp<RandomAccessibleInterval<O>, RandomAccessibleInterval<O>> accelerator =
 			null;
@@ -161,17 +168,28 @@ public class PadAndRichardsonLucy<I extends RealType<I> & NativeType<I>, O exten
 						.getTypeFromInterval(output), in());
 
 			return Computers.binary(ops(), RichardsonLucyC.class, output,
-				paddedInput, paddedKernel, fftImg, fftKernel, true, true,
+				paddedInput, paddedKernel, fftImg, fftKernel, true, performKernelFFT,
 				maxIterations, accelerator, computeEstimateOp, fg.calculate(
 					paddedInput), list);
 		}
 
 		// return a richardson lucy computer
 		return Computers.binary(ops(), RichardsonLucyC.class, output,
-			paddedInput, paddedKernel, fftImg, fftKernel, true, true,
+			paddedInput, paddedKernel, fftImg, fftKernel, true, performKernelFFT,
 			maxIterations, accelerator, computeEstimateOp);
 	}
 
+	@Override
+	protected boolean isFilterReusable() {
+		// the non-circulant normalization and first guess depend on the input
+		return !nonCirculant;
+	}
+
+	@Override
+	protected FFTPlan<C> getFFTPlan() {
+		return fftPlan;
+	}
+
 	/**
 	 * set up and return the compute estimate op. This function can be over-ridden
 	 * to implement different types of richardson lucy (like total variation
@@ -32,6 +32,7 @@ package net.imagej.ops.deconvolve;
 import java.util.ArrayList;
 
 import net.imagej.ops.Ops;
+import net.imagej.ops.deconvolve.accelerate.VectorAccelerator;
 import net.imagej.ops.filter.AbstractIterativeFFTFilterC;
 import net.imagej.ops.filter.convolve.ConvolveFFTC;
 import net.imagej.ops.filter.fft.FFTMethodsOpC;
@@ -50,6 +51,7 @@ import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.img.Img;
 import net.imglib2.type.numeric.ComplexType;
 import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
 import net.imglib2.util.Util;
 import net.imglib2.view.IntervalView;
 import net.imglib2.view.Views;
@@ -115,6 +117,9 @@ public class RichardsonLucyC<I extends RealType<I>, O extends RealType<O>, K ext
 
 	private RandomAccessibleInterval<O> raiExtendedReblurred;
 
+	/** Whether the estimate was created by this op, from its input. */
+	private boolean ownEstimate;
+
 	@Override
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void initialize() {
@@ -165,19 +170,34 @@ public class RichardsonLucyC<I extends RealType<I>, O extends RealType<O>, K ext
 		}
 
 		// if a starting point for the estimate was not passed in then create
-		// estimate Img and use the input as the starting point
-		if (raiExtendedEstimate == null) {
-
+		// estimate Img and use the input as the starting point; the estimate of
+		// a previous call is reused for an input of the same size
+		if (raiExtendedEstimate == null || ownEstimate && !Intervals
+			.equalDimensions(raiExtendedEstimate, in))
+		{
 			raiExtendedEstimate = createOp.calculate(in);
-
+			ownEstimate = true;
+		}
+		if (ownEstimate) {
 			copyOp.compute(in, raiExtendedEstimate);
 		}
 
-		// create image for the reblurred
-		raiExtendedReblurred = createOp.calculate(in);
+		// the accelerator starts afresh for every input
+		if (getAccelerator() instanceof VectorAccelerator) {
+			((VectorAccelerator<?>) getAccelerator()).reset();
+		}
 
-		// perform fft of psf
-		fftKernelOp.compute(kernel, getFFTKernel());
+		// create image for the reblurred, unless there is one from a previous call
+		if (raiExtendedReblurred == null || !Intervals.equalDimensions(
+			raiExtendedReblurred, in))
+		{
+			raiExtendedReblurred = createOp.calculate(in);
+		}
+
+		// perform fft of psf if needed
+		if (getPerformKernelFFT()) {
+			fftKernelOp.compute(kernel, getFFTKernel());
+		}
 
 		// -- perform iterations --
 
@@ -197,12 +217,16 @@ public class RichardsonLucyC<I extends RealType<I>, O extends RealType<O>, K ext
 			rlCorrectionOp.compute(in, raiExtendedReblurred, raiExtendedReblurred);
 
 			// perform update to calculate new estimate
-			updateOp.compute(raiExtendedReblurred, raiExtendedEstimate);
+			int fused = fusedUpdate();
+			if (fused < 0) {
+				updateOp.compute(raiExtendedReblurred, raiExtendedEstimate);
+				fused = 0;
+			}
 
 			// apply post processing
 			if (iterativePostProcessingOps != null) {
-				for (UnaryInplaceOp<RandomAccessibleInterval<O>, RandomAccessibleInterval<O>> pp : iterativePostProcessingOps) {
-					pp.mutate(raiExtendedEstimate);
+				for (int p = fused; p < iterativePostProcessingOps.size(); p++) {
+					iterativePostProcessingOps.get(p).mutate(raiExtendedEstimate);
 				}
 			}
 
@@ -226,4 +250,43 @@ public class RichardsonLucyC<I extends RealType<I>, O extends RealType<O>, K ext
 			end)), out);
 	}
 
+	// -- Helper methods --
+
+	/**
+	 * Performs the standard update, together with a leading non-circulant
+	 * normalization, in a single pass over the float arrays of the estimate and
+	 * the correction.
+	 *
+	 * @return the number of post processing ops which have been applied, or -1
+	 *         if the update could not be fused
+	 */
+	private int fusedUpdate() {
+		if (!(updateOp instanceof RichardsonLucyUpdate)) return -1;
+
+		final float[] estimate = RichardsonLucyKernels.floats(raiExtendedEstimate);
+		final float[] correction = RichardsonLucyKernels.floats(
+			raiExtendedReblurred);
+		if (estimate == null || correction == null) return -1;
+
+		if (iterativePostProcessingOps != null && !iterativePostProcessingOps
+			.isEmpty() && iterativePostProcessingOps
+				.get(0) instanceof NonCirculantNormalizationFactor)
+		{
+			@SuppressWarnings("unchecked")
+			final NonCirculantNormalizationFactor<?, O, ?, ?> factor =
+				(NonCirculantNormalizationFactor<?, O, ?, ?>) iterativePostProcessingOps
+					.get(0);
+			final float[] normalization = RichardsonLucyKernels.floats(factor
+				.getNormalization(raiExtendedEstimate));
+			if (normalization != null) {
+				RichardsonLucyKernels.update(ops(), estimate, correction,
+					normalization);
+				return 1;
+			}
+		}
+
+		RichardsonLucyKernels.update(ops(), estimate, correction, null);
+		return 0;
+	}
+
 }
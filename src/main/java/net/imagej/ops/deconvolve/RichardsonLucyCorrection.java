@@ -99,7 +99,13 @@ public class RichardsonLucyCorrection<I extends RealType<I>, O extends RealType<
 		RandomAccessibleInterval<O> correction)
 	{
 		// divide observed image by reblurred
-		divide.mutate1(reblurred, observed);
+		final float[] values = RichardsonLucyKernels.floats(reblurred);
+		if (values != null) {
+			RichardsonLucyKernels.divideHandleZero(ops(), observed, values);
+		}
+		else {
+			divide.mutate1(reblurred, observed);
+		}
 
 		// correlate with psf to compute the correction factor
 		// Note: FFT of psf is pre-computed and set as an input parameter of the op
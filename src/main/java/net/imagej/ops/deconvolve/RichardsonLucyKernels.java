@@ -0,0 +1,215 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.deconvolve;
+
+import net.imagej.ops.OpEnvironment;
+import net.imagej.ops.thread.chunker.Chunk;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.basictypeaccess.array.FloatArray;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.view.Views;
+
+/**
+ * Fused element-wise kernels of the Richardson Lucy iterations. Each kernel
+ * makes a single pass over the primitive {@code float} arrays of
+ * {@link FloatType} {@link ArrayImg}s, split into chunks by a
+ * {@link ChunkerOp}. The kernels perform exactly the same {@code float}
+ * arithmetic as the generic implementations in the ops, so the results do not
+ * depend on which code path is taken.
+ * <p>
+ * Callers obtain the arrays via {@link #floats(RandomAccessibleInterval)} and
+ * fall back to their generic implementation if any of them is {@code null}.
+ * </p>
+ */
+public final class RichardsonLucyKernels {
+
+	private RichardsonLucyKernels() {
+		// prevent instantiation of utility class
+	}
+
+	/**
+	 * Gets the backing array of the given image.
+	 *
+	 * @return the storage array if the image is an {@link ArrayImg} of
+	 *         {@link FloatType}, {@code null} otherwise
+	 */
+	public static float[] floats(final RandomAccessibleInterval<?> image) {
+		if (!(image instanceof ArrayImg)) return null;
+		final ArrayImg<?, ?> img = (ArrayImg<?, ?>) image;
+		if (!(img.firstElement() instanceof FloatType)) return null;
+		final Object access = img.update(null);
+		if (!(access instanceof FloatArray)) return null;
+		return ((FloatArray) access).getCurrentStorageArray();
+	}
+
+	/**
+	 * Replaces each value of {@code reblurred} by the observed value divided by
+	 * it, or by zero where it is not positive. The observed image is read in
+	 * flat iteration order.
+	 */
+	public static void divideHandleZero(final OpEnvironment ops,
+		final RandomAccessibleInterval<? extends RealType<?>> observed,
+		final float[] reblurred)
+	{
+		ops.run(ChunkerOp.class, new Chunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final Cursor<? extends RealType<?>> cursor = Views.flatIterable(
+					observed).cursor();
+				cursor.jumpFwd(startIndex);
+				int i = (int) startIndex;
+				for (long s = 0; s < numSteps; s++, i += stepSize) {
+					cursor.jumpFwd(s == 0 ? 1 : stepSize);
+					final float r = reblurred[i];
+					reblurred[i] = r > 0 ? cursor.get().getRealFloat() / r : 0f;
+				}
+			}
+		}, reblurred.length);
+	}
+
+	/**
+	 * Multiplies the estimate by the correction and, if given, divides the
+	 * positive results by the normalization (setting all others to zero), in a
+	 * single pass. Either of {@code correction} and {@code normalization} may be
+	 * {@code null}.
+	 */
+	public static void update(final OpEnvironment ops, final float[] estimate,
+		final float[] correction, final float[] normalization)
+	{
+		ops.run(ChunkerOp.class, new Chunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				int i = (int) startIndex;
+				for (long s = 0; s < numSteps; s++, i += stepSize) {
+					float e = estimate[i];
+					if (correction != null) e *= correction[i];
+					if (normalization != null) e = e > 0 ? e / normalization[i] : 0f;
+					estimate[i] = e;
+				}
+			}
+		}, estimate.length);
+	}
+
+	/**
+	 * Multiplies the estimate by the correction and by the total variation
+	 * factor {@code 1 / (1 - regularizationFactor * variation)}, in a single
+	 * pass.
+	 */
+	public static void updateTV(final OpEnvironment ops, final float[] estimate,
+		final float[] correction, final float[] variation,
+		final float regularizationFactor)
+	{
+		ops.run(ChunkerOp.class, new Chunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				int i = (int) startIndex;
+				for (long s = 0; s < numSteps; s++, i += stepSize) {
+					final float e = estimate[i] * correction[i];
+					estimate[i] = e * (1f / (1f - regularizationFactor * variation[i]));
+				}
+			}
+		}, estimate.length);
+	}
+
+	/**
+	 * Computes {@code gk = iterated - prediction} and, if {@code gkm1} is given,
+	 * the dot products {@code gk . gkm1} and {@code gkm1 . gkm1} in the same
+	 * pass. NB: The sums are accumulated sequentially, so that the acceleration
+	 * factor does not depend on the number of threads.
+	 *
+	 * @return the two dot products, or zeros if {@code gkm1} is {@code null}
+	 */
+	public static double[] gradient(final float[] iterated,
+		final float[] prediction, final float[] gk, final float[] gkm1)
+	{
+		double numerator = 0;
+		double denominator = 0;
+		if (gkm1 == null) {
+			for (int i = 0; i < gk.length; i++) {
+				gk[i] = iterated[i] - prediction[i];
+			}
+		}
+		else {
+			for (int i = 0; i < gk.length; i++) {
+				final float g = iterated[i] - prediction[i];
+				final float gm1 = gkm1[i];
+				gk[i] = g;
+				numerator += g * gm1;
+				denominator += gm1 * gm1;
+			}
+		}
+		return new double[] { numerator, denominator };
+	}
+
+	/**
+	 * Takes an accelerated step from the current estimate along the change
+	 * since the previous estimate, in a single pass: the prediction
+	 * {@code max(x + a * (x - previous), 0.0001)} replaces {@code x}, and the
+	 * former {@code x} becomes {@code previous}. Without a step, the prediction
+	 * is the estimate itself.
+	 */
+	public static void accelerate(final OpEnvironment ops, final float[] x,
+		final float[] previous, final float[] prediction, final boolean step,
+		final float a)
+	{
+		ops.run(ChunkerOp.class, new Chunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				int i = (int) startIndex;
+				for (long s = 0; s < numSteps; s++, i += stepSize) {
+					final float xi = x[i];
+					final float p = step ? Math.max(xi + a * (xi - previous[i]),
+						0.0001f) : xi;
+					prediction[i] = p;
+					previous[i] = xi;
+					x[i] = p;
+				}
+			}
+		}, x.length);
+	}
+
+}
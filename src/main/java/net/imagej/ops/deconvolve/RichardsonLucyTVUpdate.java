@@ -84,6 +84,14 @@ public class RichardsonLucyTVUpdate<T extends RealType<T> & NativeType<T>, I ext
 
 		divUnitGradFastThread(estimate);
 
+		final float[] e = RichardsonLucyKernels.floats(estimate);
+		final float[] c = RichardsonLucyKernels.floats(correction);
+		final float[] v = RichardsonLucyKernels.floats(variation);
+		if (e != null && c != null && v != null) {
+			RichardsonLucyKernels.updateTV(ops(), e, c, v, regularizationFactor);
+			return;
+		}
+
 		final Cursor<T> cursorCorrection = Views.iterable(correction).cursor();
 
 		final Cursor<T> cursorVariation = Views.iterable(variation).cursor();
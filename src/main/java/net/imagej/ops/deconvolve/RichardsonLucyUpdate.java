@@ -76,6 +76,12 @@ public class RichardsonLucyUpdate<T extends RealType<T>> extends
 	public void compute(RandomAccessibleInterval<T> correction,
 		RandomAccessibleInterval<T> estimate)
 	{
+		final float[] e = RichardsonLucyKernels.floats(estimate);
+		final float[] c = RichardsonLucyKernels.floats(correction);
+		if (e != null && c != null) {
+			RichardsonLucyKernels.update(ops(), e, c, null);
+			return;
+		}
 
 		// TODO: delte these lines when problem in initialization is fixed
 		if (mul == null) {
@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.deconvolve;
+
+import net.imagej.ops.Ops;
+import net.imagej.ops.filter.AbstractTiledFFTFilter;
+import net.imagej.ops.filter.FFTPlan;
+import net.imagej.ops.special.computer.BinaryComputerOp;
+import net.imagej.ops.special.computer.Computers;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.outofbounds.OutOfBoundsMirrorFactory;
+import net.imglib2.outofbounds.OutOfBoundsMirrorFactory.Boundary;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.complex.ComplexFloatType;
+
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Richardson Lucy op for (@link RandomAccessibleInterval) which keeps its
+ * memory use within a given budget by deconvolving the image block by block
+ * with {@link PadAndRichardsonLucy}.
+ * <p>
+ * Each block overlaps its neighbors by the size of the PSF. Since the
+ * iterations spread information further than that, the results close to the
+ * block borders are an approximation of those of {@link PadAndRichardsonLucy}
+ * on the whole image. Peak memory scales with the block size instead of the
+ * image size. All blocks have the same size, and each thread deconvolves its
+ * blocks with a single {@link PadAndRichardsonLucy} op, which keeps its
+ * estimate and complex buffers from one block to the next.
+ * </p>
+ *
+ * @param <I>
+ * @param <O>
+ * @param <K>
+ */
+@Plugin(type = Ops.Deconvolve.RichardsonLucy.class)
+public class TiledRichardsonLucy<I extends RealType<I> & NativeType<I>, O extends RealType<O> & NativeType<O>, K extends RealType<K> & NativeType<K>>
+	extends AbstractTiledFFTFilter<I, O, K> implements
+	Ops.Deconvolve.RichardsonLucy
+{
+
+	/**
+	 * max number of iterations
+	 */
+	@Parameter
+	private int maxIterations;
+
+	/**
+	 * Defines the out of bounds strategy for the extended area of the input.
+	 * Defaults to mirroring, as for {@link PadAndRichardsonLucy}.
+	 */
+	@Parameter(required = false)
+	private OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput;
+
+	/**
+	 * indicates whether to use acceleration
+	 */
+	@Parameter(required = false)
+	private boolean accelerate = false;
+
+	/**
+	 * Plan to share the PSF spectrum and complex buffers with further calls.
+	 */
+	@Parameter(required = false)
+	private FFTPlan<ComplexFloatType> fftPlan;
+
+	@Override
+	public void initialize() {
+		super.initialize();
+
+		if (obfInput == null) {
+			obfInput = new OutOfBoundsMirrorFactory<>(Boundary.SINGLE);
+		}
+	}
+
+	@Override
+	protected OutOfBoundsFactory<I, RandomAccessibleInterval<I>> getOBFInput() {
+		return obfInput;
+	}
+
+	@Override
+	protected
+		BinaryComputerOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<K>, RandomAccessibleInterval<O>>
+		createTileComputer(final RandomAccessibleInterval<I> tileIn,
+			final RandomAccessibleInterval<K> kernel,
+			final RandomAccessibleInterval<O> tileOut,
+			final FFTPlan<ComplexFloatType> plan)
+	{
+		return Computers.binary(ops(), PadAndRichardsonLucy.class, tileOut, tileIn,
+			kernel, null, obfInput, null, null, null, maxIterations, false,
+			accelerate, plan);
+	}
+
+	@Override
+	protected FFTPlan<ComplexFloatType> getFFTPlan() {
+		return fftPlan;
+	}
+
+	@Override
+	protected long tileBytes(final long complexSize, final long paddedSize,
+		final long tileSize, final long outBytes)
+	{
+		// an input spectrum, the estimate and reblurred image, the buffers of the
+		// accelerator and an output tile
+		final long realBuffers = accelerate ? 6 : 2;
+		return COMPLEX_BYTES * complexSize + outBytes * (realBuffers * paddedSize +
+			tileSize);
+	}
+
+	protected int getMaxIterations() {
+		return maxIterations;
+	}
+
+	protected boolean getAccelerate() {
+		return accelerate;
+	}
+
+}
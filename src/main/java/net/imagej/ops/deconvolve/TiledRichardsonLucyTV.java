@@ -0,0 +1,86 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.deconvolve;
+
+import net.imagej.ops.Ops;
+import net.imagej.ops.filter.FFTPlan;
+import net.imagej.ops.special.computer.BinaryComputerOp;
+import net.imagej.ops.special.computer.Computers;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.complex.ComplexFloatType;
+
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Richardson Lucy with total variation op for (@link RandomAccessibleInterval)
+ * which keeps its memory use within a given budget by deconvolving the image
+ * block by block with {@link PadAndRichardsonLucyTV}.
+ *
+ * @param <I>
+ * @param <O>
+ * @param <K>
+ * @see TiledRichardsonLucy
+ */
+@Plugin(type = Ops.Deconvolve.RichardsonLucyTV.class)
+public class TiledRichardsonLucyTV<I extends RealType<I> & NativeType<I>, O extends RealType<O> & NativeType<O>, K extends RealType<K> & NativeType<K>>
+	extends TiledRichardsonLucy<I, O, K> implements
+	Ops.Deconvolve.RichardsonLucyTV
+{
+
+	@Parameter
+	private float regularizationFactor = 0.01f;
+
+	@Override
+	protected
+		BinaryComputerOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<K>, RandomAccessibleInterval<O>>
+		createTileComputer(final RandomAccessibleInterval<I> tileIn,
+			final RandomAccessibleInterval<K> kernel,
+			final RandomAccessibleInterval<O> tileOut,
+			final FFTPlan<ComplexFloatType> plan)
+	{
+		return Computers.binary(ops(), PadAndRichardsonLucyTV.class, tileOut,
+			tileIn, kernel, null, getOBFInput(), null, null, null,
+			getMaxIterations(), false, getAccelerate(), plan, regularizationFactor);
+	}
+
+	@Override
+	protected long tileBytes(final long complexSize, final long paddedSize,
+		final long tileSize, final long outBytes)
+	{
+		// the total variation update needs one more buffer
+		return super.tileBytes(complexSize, paddedSize, tileSize, outBytes) +
+			outBytes * paddedSize;
+	}
+
+}
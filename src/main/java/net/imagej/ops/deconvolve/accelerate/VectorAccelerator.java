@@ -30,6 +30,7 @@
 package net.imagej.ops.deconvolve.accelerate;
 
 import net.imagej.ops.Ops;
+import net.imagej.ops.deconvolve.RichardsonLucyKernels;
 import net.imagej.ops.special.function.Functions;
 import net.imagej.ops.special.function.UnaryFunctionOp;
 import net.imagej.ops.special.inplace.AbstractUnaryInplaceOp;
@@ -41,6 +42,7 @@ import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImgFactory;
 import net.imglib2.type.NativeType;
 import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
 import net.imglib2.util.Util;
 import net.imglib2.view.Views;
 
@@ -69,10 +71,16 @@ public class VectorAccelerator<T extends RealType<T> & NativeType<T>> extends
 	Img<T> gk;
 	Img<T> gkm1;
 
+	/** Buffer to swap with gk, so that gk need not be copied. */
+	Img<T> gkSpare;
+
 	private UnaryFunctionOp<Dimensions, Img<T>> create;
 
 	double accelerationFactor = 0.0f;
 
+	/** Whether the next step starts afresh, see {@link #reset()}. */
+	private boolean restart = true;
+
 	ArrayImgFactory<T> factory;
 
 	@Override
@@ -92,7 +100,9 @@ public class VectorAccelerator<T extends RealType<T> & NativeType<T>> extends
 	}
 
 	public void initialize(RandomAccessibleInterval<T> yk_iterated) {
-		if (yk_prediction == null) {
+		if (yk_prediction == null || !Intervals.equalDimensions(yk_prediction,
+			yk_iterated))
+		{
 
 			long[] temp = new long[yk_iterated.numDimensions()];
 			yk_iterated.dimensions(temp);
@@ -101,23 +111,35 @@ public class VectorAccelerator<T extends RealType<T> & NativeType<T>> extends
 
 			yk_prediction = create.calculate(dims);
 			xkm1_previous = create.calculate(dims);
-			yk_prediction = create.calculate(dims);
 			gk = create.calculate(dims);
-			hk_vector = create.calculate(dims);
+			gkSpare = null;
+			hk_vector = null;
 
 		}
 
 	}
 
+	/**
+	 * Forgets the previous iterations, so that the next step starts afresh, e.g.
+	 * for another image. The buffers are kept for an image of the same size.
+	 */
+	public void reset() {
+		if (gkm1 != null) gkSpare = gkm1;
+		gkm1 = null;
+		accelerationFactor = 0.0;
+		restart = true;
+	}
+
 	public void accelerate(RandomAccessibleInterval<T> yk_iterated) {
 
 		// use the iterated prediction and the previous value of the prediction
 		// to calculate the acceleration factor
-		if (yk_prediction != null) {
+		if (yk_prediction != null && !restart) {
 
 			accelerationFactor = computeAccelerationFactor(yk_iterated);
 
 			if ((accelerationFactor < 0)) {
+				gkSpare = gkm1;
 				gkm1 = null;
 				accelerationFactor = 0.0;
 			}
@@ -130,19 +152,31 @@ public class VectorAccelerator<T extends RealType<T> & NativeType<T>> extends
 		// current estimate for x is yk_iterated
 		RandomAccessibleInterval<T> xk_estimate = yk_iterated;
 
+		// TODO: Revisit where initialization should be done
+		if (accelerationFactor <= 0) initialize(yk_iterated);
+		restart = false;
+
+		// take the step, update the previous estimate and the prediction in a
+		// single pass if all images are backed by float arrays
+		final float[] x = RichardsonLucyKernels.floats(xk_estimate);
+		final float[] previous = RichardsonLucyKernels.floats(xkm1_previous);
+		final float[] prediction = RichardsonLucyKernels.floats(yk_prediction);
+		if (x != null && previous != null && prediction != null) {
+			RichardsonLucyKernels.accelerate(ops(), x, previous, prediction,
+				accelerationFactor > 0, (float) accelerationFactor);
+			return;
+		}
+
 		// calculate the change vector between x and x previous
 		if (accelerationFactor > 0) {
+			if (hk_vector == null) hk_vector = create.calculate(xkm1_previous);
 			Subtract(xk_estimate, xkm1_previous, hk_vector);
 
 			// make the next prediction
-			yk_prediction = AddAndScale(xk_estimate, hk_vector,
-				(float) accelerationFactor);
+			AddAndScale(xk_estimate, hk_vector, (float) accelerationFactor,
+				yk_prediction);
 		}
 		else {
-
-			// TODO: Revisit where initialization should be done
-			initialize(yk_iterated);
-
 			Copy(xk_estimate, yk_prediction);
 		}
 
@@ -154,21 +188,43 @@ public class VectorAccelerator<T extends RealType<T> & NativeType<T>> extends
 	}
 
 	double computeAccelerationFactor(RandomAccessibleInterval<T> yk_iterated) {
-		// gk=StaticFunctions.Subtract(yk_iterated, yk_prediction);
-		Subtract(yk_iterated, yk_prediction, gk);
-
-		if (gkm1 != null) {
-			double numerator = DotProduct(gk, gkm1);
-			double denominator = DotProduct(gkm1, gkm1);
+		double factor = 0.0;
+
+		final float[] iterated = RichardsonLucyKernels.floats(yk_iterated);
+		final float[] prediction = RichardsonLucyKernels.floats(yk_prediction);
+		final float[] g = RichardsonLucyKernels.floats(gk);
+		final float[] gm1 = gkm1 == null ? null : RichardsonLucyKernels.floats(
+			gkm1);
+
+		if (iterated != null && prediction != null && g != null &&
+			(gkm1 == null || gm1 != null))
+		{
+			// subtract and compute both dot products in a single pass
+			final double[] dots = RichardsonLucyKernels.gradient(iterated,
+				prediction, g, gm1);
+			if (gkm1 != null) factor = dots[0] / dots[1];
+		}
+		else {
+			// gk=StaticFunctions.Subtract(yk_iterated, yk_prediction);
+			Subtract(yk_iterated, yk_prediction, gk);
 
-			gkm1 = gk.copy();
-			return numerator / denominator;
+			if (gkm1 != null) {
+				double numerator = DotProduct(gk, gkm1);
+				double denominator = DotProduct(gkm1, gkm1);
 
+				factor = numerator / denominator;
+			}
 		}
 
-		gkm1 = gk.copy();
+		// keep gk as gkm1 by swapping the buffers instead of copying gk, since gk
+		// is overwritten in the next iteration anyway
+		Img<T> previous = gkm1 != null ? gkm1 : gkSpare;
+		if (previous == null) previous = create.calculate(gk);
+		gkSpare = null;
+		gkm1 = gk;
+		gk = previous;
 
-		return 0.0;
+		return factor;
 
 	}
 
@@ -234,8 +290,13 @@ public class VectorAccelerator<T extends RealType<T> & NativeType<T>> extends
 	public Img<T> AddAndScale(final RandomAccessibleInterval<T> img1,
 		final Img<T> img2, final float a)
 	{
-		Img<T> out = create.calculate(img1);
+		return AddAndScale(img1, img2, a, create.calculate(img1));
+	}
 
+	// TODO: replace with op
+	public Img<T> AddAndScale(final RandomAccessibleInterval<T> img1,
+		final Img<T> img2, final float a, final Img<T> out)
+	{
 		final Cursor<T> cursor1 = Views.iterable(img1).cursor();
 		final Cursor<T> cursor2 = img2.cursor();
 		final Cursor<T> cursorOut = out.cursor();
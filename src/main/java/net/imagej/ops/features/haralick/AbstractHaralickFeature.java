@@ -31,7 +31,6 @@ package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
-import net.imagej.ops.image.cooccurrenceMatrix.CooccurrenceMatrix2D;
 import net.imagej.ops.image.cooccurrenceMatrix.MatrixOrientation;
 import net.imagej.ops.special.function.Functions;
 import net.imagej.ops.special.function.UnaryFunctionOp;
@@ -43,7 +42,16 @@ import net.imglib2.type.numeric.real.DoubleType;
 import org.scijava.plugin.Parameter;
 
 /**
- * Abstract class for HaralickFeatures.
+ * Abstract class for HaralickFeatures. Each feature is a view on the result
+ * vector of {@link DefaultHaralickFeatures}, which computes the cooccurrence
+ * matrix and its marginals only once for all features.
+ * <p>
+ * A feature op on its own computes the whole vector on every call. Several
+ * features of the same input only share one vector when they are run in a
+ * {@link net.imagej.ops.cached.CachedOpEnvironment}; otherwise, callers
+ * needing more than one feature should call {@link Ops.Haralick.Features}
+ * directly.
+ * </p>
  * 
  * @author Christian Dietz (University of Konstanz)
  * @param <T>
@@ -62,7 +70,7 @@ public abstract class AbstractHaralickFeature<T extends RealType<T>> extends
 	@Parameter
 	protected MatrixOrientation orientation;
 
-	private UnaryFunctionOp<IterableInterval<T>, double[][]> coocFunc;
+	private UnaryFunctionOp<IterableInterval<T>, double[]> featuresFunc;
 
 	@Override
 	public DoubleType createOutput(final IterableInterval<T> input) {
@@ -71,19 +79,22 @@ public abstract class AbstractHaralickFeature<T extends RealType<T>> extends
 
 	@Override
 	public void initialize() {
-		coocFunc = Functions.unary(ops(), Ops.Image.CooccurrenceMatrix.class,
-			double[][].class, in(), numGreyLevels, distance, orientation);
+		featuresFunc = Functions.unary(ops(), Ops.Haralick.Features.class,
+			double[].class, in(), numGreyLevels, distance, orientation);
+	}
+
+	@Override
+	public void compute(final IterableInterval<T> input,
+		final DoubleType output)
+	{
+		output.set(featuresFunc.calculate(input)[getFeatureType().index()]);
 	}
 
 	/**
-	 * Creates {@link CooccurrenceMatrix2D} from {@link IterableInterval} on
-	 * demand, given the specified parameters. No caching!
-	 * 
-	 * @return the {@link CooccurrenceMatrix2D}
+	 * @return the entry of the {@link DefaultHaralickFeatures} result vector this
+	 *         feature reads
 	 */
-	protected double[][] getCooccurrenceMatrix(final IterableInterval<T> input) {
-		return coocFunc.calculate(input);
-	}
+	protected abstract HaralickFeatureType getFeatureType();
 
 	@Override
 	public boolean conforms() {
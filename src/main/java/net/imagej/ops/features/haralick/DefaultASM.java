@@ -29,9 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -48,17 +46,8 @@ public class DefaultASM<T extends RealType<T>> extends
 		AbstractHaralickFeature<T> implements Ops.Haralick.ASM {
 
 	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-		final int nrGrayLevels = matrix.length;
-
-		double res = 0;
-		for (int i = 0; i < nrGrayLevels; i++) {
-			for (int j = 0; j < nrGrayLevels; j++) {
-				res += matrix[i][j] * matrix[i][j];
-			}
-		}
-		output.setReal(res);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.ASM;
 	}
 
 }
@@ -29,13 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocMeanX;
-import net.imagej.ops.features.haralick.helper.CoocMeanY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -51,31 +45,9 @@ import org.scijava.plugin.Plugin;
 public class DefaultClusterPromenence<T extends RealType<T>> extends AbstractHaralickFeature<T>
 		implements Ops.Haralick.ClusterPromenence {
 
-	private UnaryFunctionOp<double[][], DoubleType> coocMeanXFunc;
-	private UnaryFunctionOp<double[][], DoubleType> coocMeanYFunc;
-
 	@Override
-	public void initialize() {
-		super.initialize();
-		coocMeanXFunc = Functions.unary(ops(), CoocMeanX.class, DoubleType.class, double[][].class);
-		coocMeanYFunc = Functions.unary(ops(), CoocMeanY.class, DoubleType.class, double[][].class);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.CLUSTER_PROMENENCE;
 	}
 
-	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		final int nrGrayLevels = matrix.length;
-
-		final double mux = coocMeanXFunc.calculate(matrix).getRealDouble();
-		final double muy = coocMeanYFunc.calculate(matrix).getRealDouble();
-
-		double res = 0;
-		for (int i = 0; i < nrGrayLevels; i++) {
-			for (int j = 0; j < nrGrayLevels; j++) {
-				res += Math.pow(i + j - mux - muy, 4) * matrix[i][j];
-			}
-		}
-		output.setReal(res);
-	}
 }
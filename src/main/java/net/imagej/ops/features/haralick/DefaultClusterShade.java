@@ -29,13 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocMeanX;
-import net.imagej.ops.features.haralick.helper.CoocMeanY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -50,31 +44,9 @@ import org.scijava.plugin.Plugin;
 public class DefaultClusterShade<T extends RealType<T>> extends
 		AbstractHaralickFeature<T> implements Ops.Haralick.ClusterShade {
 
-	private UnaryFunctionOp<double[][], DoubleType> coocMeanXFunc;
-	private UnaryFunctionOp<double[][], DoubleType> coocMeanYFunc;
-
-	@Override
-	public void initialize() {
-		super.initialize();
-		coocMeanXFunc = Functions.unary(ops(), CoocMeanX.class, DoubleType.class, double[][].class);
-		coocMeanYFunc = Functions.unary(ops(), CoocMeanY.class, DoubleType.class, double[][].class);
-	}
-	
 	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		final double mux = coocMeanXFunc.calculate(matrix).getRealDouble();
-		final double muy = coocMeanYFunc.calculate(matrix).getRealDouble();
-
-
-		double res = 0;
-		for (int j = 0; j < matrix.length; j++) {
-			for (int i = 0; i < matrix.length; i++) {
-				res += (Math.pow((i + j - mux - muy), 3) * matrix[j][i]);
-			}
-		}
-		output.setReal(res);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.CLUSTER_SHADE;
 	}
 
 }
@@ -29,12 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocPXMinusY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -49,27 +44,10 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = Ops.Haralick.Contrast.class, label = "Haralick: Contrast")
 public class DefaultContrast<T extends RealType<T>> extends
 		AbstractHaralickFeature<T> implements Ops.Haralick.Contrast {
-	
-	private UnaryFunctionOp<double[][], double[]> coocPXMinusYFunc;
-	
-	@Override
-	public void initialize() {
-		super.initialize();
-		coocPXMinusYFunc = Functions.unary(ops(), CoocPXMinusY.class, double[].class, double[][].class);
-	}
-	
-	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
 
-		final double[] pxminusxy = coocPXMinusYFunc.calculate(matrix);
-
-		double res = 0;
-		for (int k = 0; k <= matrix.length - 1; k++) {
-			res += k * k * pxminusxy[k];
-		}
-
-		output.set(res);
+	@Override
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.CONTRAST;
 	}
 
 }
@@ -29,15 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocMeanX;
-import net.imagej.ops.features.haralick.helper.CoocMeanY;
-import net.imagej.ops.features.haralick.helper.CoocStdX;
-import net.imagej.ops.features.haralick.helper.CoocStdY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -54,41 +46,9 @@ import org.scijava.plugin.Plugin;
 public class DefaultCorrelation<T extends RealType<T>> extends
 		AbstractHaralickFeature<T> implements Ops.Haralick.Correlation {
 
-	// required functions
-	private UnaryFunctionOp<double[][], DoubleType> coocMeanXFunc;
-	private UnaryFunctionOp<double[][], DoubleType> coocMeanYFunc;
-	private UnaryFunctionOp<double[][], DoubleType> coocStdYFunc;
-	private UnaryFunctionOp<double[][], DoubleType> coocStdXFunc;
-
-	@Override
-	public void initialize() {
-		super.initialize();
-		coocMeanXFunc = Functions.unary(ops(), CoocMeanX.class, DoubleType.class, double[][].class);
-		coocMeanYFunc = Functions.unary(ops(), CoocMeanY.class, DoubleType.class, double[][].class);
-		coocStdXFunc = Functions.unary(ops(), CoocStdX.class, DoubleType.class, double[][].class);
-		coocStdYFunc = Functions.unary(ops(), CoocStdY.class, DoubleType.class, double[][].class);
-	}
-	
 	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		final int nrGrayLevels = matrix.length;
-
-		final double meanx = coocMeanXFunc.calculate(matrix).get();
-		final double meany = coocMeanYFunc.calculate(matrix).get();
-		final double stdx = coocStdXFunc.calculate(matrix).get();
-		final double stdy = coocStdYFunc.calculate(matrix).get();
-
-		double sum = 0;
-		for (int i = 0; i < nrGrayLevels; i++) {
-			for (int j = 0; j < nrGrayLevels; j++) {
-				sum += i*j*matrix[i][j];
-			}
-		}
-		
-		output.set((sum - (meanx*meany))/(stdx*stdy));
-
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.CORRELATION;
 	}
 
 }
@@ -29,12 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocPXMinusY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -50,31 +45,9 @@ import org.scijava.plugin.Plugin;
 public class DefaultDifferenceEntropy<T extends RealType<T>> extends
 		AbstractHaralickFeature<T> implements Ops.Haralick.DifferenceEntropy {
 
-	// Avoid log 0
-	private static final double EPSILON = Double.MIN_NORMAL;
-
-	private UnaryFunctionOp<double[][], double[]> coocPXMinusYFunc;
-	
-	@Override
-	public void initialize() {
-		super.initialize();
-		coocPXMinusYFunc = Functions.unary(ops(), CoocPXMinusY.class, double[].class, double[][].class);
-	}
-	
 	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		final double[] pxminusy = coocPXMinusYFunc.calculate(matrix);
-		final int nrGrayLevels = matrix.length;
-
-		double res = 0;
-		for (int k = 0; k < nrGrayLevels; k++) {
-			res += pxminusy[k] * Math.log(pxminusy[k] + EPSILON);
-		}
-
-		output.set(-res);
-
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.DIFFERENCE_ENTROPY;
 	}
 
 }
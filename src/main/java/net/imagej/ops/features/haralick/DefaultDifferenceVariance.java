@@ -29,12 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocPXMinusY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -52,31 +47,9 @@ import org.scijava.plugin.Plugin;
 public class DefaultDifferenceVariance<T extends RealType<T>> extends AbstractHaralickFeature<T>
 		implements Ops.Haralick.DifferenceVariance {
 
-	private UnaryFunctionOp<double[][], double[]> coocPXMinusYFunc;
-
-	@Override
-	public void initialize() {
-		super.initialize();
-		coocPXMinusYFunc = Functions.unary(ops(), CoocPXMinusY.class, double[].class, double[][].class);
-	}
-
 	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-		final double[] pxminusy = coocPXMinusYFunc.calculate(matrix);
-
-		double mu = 0.0;
-
-		for (int i = 0; i < numGreyLevels; i++) {
-			mu += i * pxminusy[i];
-		}
-
-		double sum = 0.0d;
-		for (int k = 0; k < numGreyLevels; k++) {
-			sum += Math.pow(k - mu, 2) * pxminusy[k];
-		}
-
-		output.set(sum);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.DIFFERENCE_VARIANCE;
 	}
 
 }
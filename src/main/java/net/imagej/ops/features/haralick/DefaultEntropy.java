@@ -29,9 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -48,22 +46,9 @@ import org.scijava.plugin.Plugin;
 public class DefaultEntropy<T extends RealType<T>> extends
 		AbstractHaralickFeature<T> implements Ops.Haralick.Entropy {
 
-	// Avoid log 0
-	private static final double EPSILON = Double.MIN_NORMAL;
-	
 	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-		double res = 0;
-
-		final int nrGrayLevels = matrix.length;
-
-		for (int i = 0; i < nrGrayLevels; i++) {
-			for (int j = 0; j < nrGrayLevels; j++) {
-				res += matrix[i][j] * Math.log(matrix[i][j] + EPSILON);
-			}
-		}
-
-		output.set(-res);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.ENTROPY;
 	}
+
 }
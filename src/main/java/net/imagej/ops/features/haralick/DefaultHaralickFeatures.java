@@ -0,0 +1,247 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.features.haralick;
+
+import static net.imagej.ops.features.haralick.HaralickFeatureType.ASM;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.CLUSTER_PROMENENCE;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.CLUSTER_SHADE;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.CONTRAST;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.CORRELATION;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.DIFFERENCE_ENTROPY;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.DIFFERENCE_VARIANCE;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.ENTROPY;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.ICM1;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.ICM2;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.IFDM;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.MAX_PROBABILITY;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.SUM_AVERAGE;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.SUM_ENTROPY;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.SUM_VARIANCE;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.TEXTURE_HOMOGENEITY;
+import static net.imagej.ops.features.haralick.HaralickFeatureType.VARIANCE;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.Ops;
+import net.imagej.ops.image.cooccurrenceMatrix.MatrixOrientation;
+import net.imagej.ops.special.function.AbstractUnaryFunctionOp;
+import net.imagej.ops.special.function.Functions;
+import net.imagej.ops.special.function.UnaryFunctionOp;
+import net.imglib2.IterableInterval;
+import net.imglib2.type.numeric.RealType;
+
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Computes all Haralick features of an {@link IterableInterval} at once. The
+ * cooccurrence matrix is computed a single time for the given orientation and
+ * distance, its marginals are accumulated in one sweep over the matrix, and
+ * every feature is derived from those. The result vector is indexed by
+ * {@link HaralickFeatureType#index()}.
+ * <p>
+ * Each feature is accumulated in the same order as its standalone
+ * implementation used to, so the values are identical to the ones of the
+ * individual Haralick ops, which are now views on this op.
+ * </p>
+ */
+@Plugin(type = Ops.Haralick.Features.class,
+	label = "Haralick: All Features")
+public class DefaultHaralickFeatures<T extends RealType<T>> extends
+	AbstractUnaryFunctionOp<IterableInterval<T>, double[]> implements
+	Ops.Haralick.Features, Contingent
+{
+
+	private static final double EPSILON = Double.MIN_NORMAL;
+
+	@Parameter
+	private int numGreyLevels = 32;
+
+	@Parameter
+	private int distance = 1;
+
+	@Parameter
+	private MatrixOrientation orientation;
+
+	private UnaryFunctionOp<IterableInterval<T>, double[][]> coocFunc;
+
+	@Override
+	public void initialize() {
+		coocFunc = Functions.unary(ops(), Ops.Image.CooccurrenceMatrix.class,
+			double[][].class, in(), numGreyLevels, distance, orientation);
+	}
+
+	@Override
+	public double[] calculate(final IterableInterval<T> input) {
+		return features(coocFunc.calculate(input));
+	}
+
+	@Override
+	public boolean conforms() {
+		return orientation.numDims() == in().numDimensions();
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Derives all Haralick features from a normalized cooccurrence matrix.
+	 */
+	static double[] features(final double[][] matrix) {
+		final int n = matrix.length;
+
+		// first sweep: marginals and all features needing no mean
+		final double[] px = new double[n];
+		final double[] py = new double[n];
+		final double[] pxplusy = new double[2 * n + 1];
+		final double[] pxminusy = new double[n];
+
+		double asm = 0;
+		double entropy = 0;
+		double ifdm = 0;
+		double homogeneity = 0;
+		double maxProbability = 0;
+		double sumIJ = 0;
+		double total = 0;
+		for (int i = 0; i < n; i++) {
+			final double[] row = matrix[i];
+			for (int j = 0; j < n; j++) {
+				final double p = row[j];
+				px[j] += p;
+				py[i] += p;
+				pxplusy[i + j + 2] += p;
+				pxminusy[Math.abs(i - j)] += p;
+
+				asm += p * p;
+				entropy += p * Math.log(p + EPSILON);
+				ifdm += p / (1 + ((i - j) * (i - j)));
+				homogeneity += p / (1 + Math.abs(i - j));
+				if (p > maxProbability) maxProbability = p;
+				sumIJ += i * j * p;
+				total += p;
+			}
+		}
+		entropy = -entropy;
+
+		// statistics of the marginals
+		double meanx = 0;
+		double meany = 0;
+		double hx = 0;
+		double hy = 0;
+		for (int i = 0; i < n; i++) {
+			meanx += i * px[i];
+			meany += i * py[i];
+			hx += px[i] * Math.log(px[i] + EPSILON);
+			hy += py[i] * Math.log(py[i] + EPSILON);
+		}
+		hx = -hx;
+		hy = -hy;
+
+		double varx = 0;
+		double vary = 0;
+		for (int i = 0; i < n; i++) {
+			varx += ((i - meanx) * (i - meanx)) * px[i];
+			vary += ((i - meany) * (i - meany)) * py[i];
+		}
+		final double stdx = Math.sqrt(varx);
+		final double stdy = Math.sqrt(vary);
+
+		double contrast = 0;
+		double differenceEntropy = 0;
+		double differenceMean = 0;
+		for (int k = 0; k < n; k++) {
+			contrast += k * k * pxminusy[k];
+			differenceEntropy += pxminusy[k] * Math.log(pxminusy[k] + EPSILON);
+			differenceMean += k * pxminusy[k];
+		}
+		differenceEntropy = -differenceEntropy;
+		double differenceVariance = 0;
+		for (int k = 0; k < n; k++) {
+			differenceVariance += Math.pow(k - differenceMean, 2) * pxminusy[k];
+		}
+
+		double sumAverage = 0;
+		double sumEntropy = 0;
+		for (int k = 2; k <= 2 * n; k++) {
+			sumAverage += k * pxplusy[k];
+			sumEntropy += pxplusy[k] * Math.log(pxplusy[k] + EPSILON);
+		}
+		sumEntropy = -sumEntropy;
+		// NB: historically defined around the sum entropy, not the sum average
+		double sumVariance = 0;
+		for (int k = 2; k <= 2 * n; k++) {
+			sumVariance += (k - sumEntropy) * (k - sumEntropy) * pxplusy[k];
+		}
+
+		// second sweep: everything depending on the means or marginals
+		final double mean = total / (n * n);
+		double clusterShade = 0;
+		double clusterPromenence = 0;
+		double variance = 0;
+		double hxy1 = 0;
+		double hxy2 = 0;
+		for (int i = 0; i < n; i++) {
+			final double[] row = matrix[i];
+			for (int j = 0; j < n; j++) {
+				final double p = row[j];
+				clusterShade += Math.pow(i + j - meanx - meany, 3) * p;
+				clusterPromenence += Math.pow(i + j - meanx - meany, 4) * p;
+				variance += (i - mean) * (i - mean) * p;
+				final double pxy = px[i] * py[j];
+				final double logPxy = Math.log(pxy + EPSILON);
+				hxy1 += p * logPxy;
+				hxy2 += pxy * logPxy;
+			}
+		}
+		hxy1 = -hxy1;
+		hxy2 = -hxy2;
+
+		final double icm2 = Math.sqrt(1 - Math.exp(-2 * (hxy2 - entropy)));
+
+		final double[] features = new double[HaralickFeatureType.values().length];
+		features[ASM.index()] = asm;
+		features[CLUSTER_PROMENENCE.index()] = clusterPromenence;
+		features[CLUSTER_SHADE.index()] = clusterShade;
+		features[CONTRAST.index()] = contrast;
+		features[CORRELATION.index()] = (sumIJ - (meanx * meany)) / (stdx * stdy);
+		features[DIFFERENCE_ENTROPY.index()] = differenceEntropy;
+		features[DIFFERENCE_VARIANCE.index()] = differenceVariance;
+		features[ENTROPY.index()] = entropy;
+		features[ICM1.index()] = (entropy - hxy1) / (hx > hy ? hx : hy);
+		features[ICM2.index()] = Double.isNaN(icm2) ? 0 : icm2;
+		features[IFDM.index()] = ifdm;
+		features[MAX_PROBABILITY.index()] = maxProbability;
+		features[SUM_AVERAGE.index()] = sumAverage;
+		features[SUM_ENTROPY.index()] = sumEntropy;
+		features[SUM_VARIANCE.index()] = sumVariance;
+		features[TEXTURE_HOMOGENEITY.index()] = homogeneity;
+		features[VARIANCE.index()] = variance;
+		return features;
+	}
+
+}
@@ -30,12 +30,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocHXY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -52,30 +47,9 @@ public class DefaultICM1<T extends RealType<T>> extends
 	AbstractHaralickFeature<T> implements Ops.Haralick.ICM1
 {
 
-	private UnaryFunctionOp<double[][], double[]> coocHXYFunc;
-	private UnaryFunctionOp<IterableInterval<T>, DoubleType> entropy;
-
-	@Override
-	public void initialize() {
-		super.initialize();
-		coocHXYFunc = Functions.unary(ops(), CoocHXY.class, double[].class,
-			double[][].class);
-		entropy = Functions.unary(ops(), Ops.Haralick.Entropy.class, DoubleType.class, in(),
-			numGreyLevels, distance, orientation);
-	}
-
 	@Override
-	public void compute(final IterableInterval<T> input,
-		final DoubleType output)
-	{
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		final double[] coochxy = coocHXYFunc.calculate(matrix);
-
-		final double res = (entropy.calculate(input).get() - coochxy[2]) / (coochxy[0] > coochxy[1]
-			? coochxy[0] : coochxy[1]);
-
-		output.set(res);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.ICM1;
 	}
 
 }
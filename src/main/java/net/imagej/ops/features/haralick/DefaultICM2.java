@@ -30,12 +30,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocHXY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -51,35 +46,9 @@ public class DefaultICM2<T extends RealType<T>> extends
 	AbstractHaralickFeature<T> implements Ops.Haralick.ICM2
 {
 
-	private UnaryFunctionOp<double[][], double[]> coocHXYFunc;
-	private UnaryFunctionOp<IterableInterval<T>, DoubleType> entropy;
-
 	@Override
-	public void initialize() {
-		super.initialize();
-		coocHXYFunc = Functions.unary(ops(), CoocHXY.class, double[].class,
-			double[][].class);
-		entropy = Functions.unary(ops(), Ops.Haralick.Entropy.class, DoubleType.class, in(),
-			numGreyLevels, distance, orientation);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.ICM2;
 	}
 
-	@Override
-	public void compute(final IterableInterval<T> input,
-		final DoubleType output)
-	{
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		double res = 0;
-		final double[] coochxy = coocHXYFunc.calculate(matrix);
-		res = Math.sqrt(1 - Math.exp(-2 * (coochxy[3] - entropy.calculate(input)
-			.get())));
-
-		// if NaN
-		if (Double.isNaN(res)) {
-			output.set(0);
-		}
-		else {
-			output.set(res);
-		}
-	}
 }
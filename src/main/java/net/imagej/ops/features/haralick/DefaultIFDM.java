@@ -29,9 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -48,20 +46,8 @@ public class DefaultIFDM<T extends RealType<T>> extends AbstractHaralickFeature<
 		implements Ops.Haralick.IFDM {
 
 	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		double res = 0;
-
-		final int nrGrayLevels = matrix.length;
-
-		for (int i = 0; i < nrGrayLevels; i++) {
-			for (int j = 0; j < nrGrayLevels; j++) {
-					res += matrix[i][j] / (1 + ((i - j) * (i - j)));
-			}
-		}
-
-		output.set(res);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.IFDM;
 	}
 
 }
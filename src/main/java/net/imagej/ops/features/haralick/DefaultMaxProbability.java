@@ -29,9 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -47,19 +45,8 @@ public class DefaultMaxProbability<T extends RealType<T>> extends
 		AbstractHaralickFeature<T> implements Ops.Haralick.MaxProbability {
 
 	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		final double nrGreyLevel = matrix.length;
-
-		double res = 0;
-		for (int i = 0; i < nrGreyLevel; i++) {
-			for (int j = 0; j < nrGreyLevel; j++) {
-				if (matrix[i][j] > res)
-					res = matrix[i][j];
-			}
-		}
-
-		output.set(res);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.MAX_PROBABILITY;
 	}
+
 }
@@ -29,12 +29,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocPXPlusY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -50,28 +45,9 @@ import org.scijava.plugin.Plugin;
 public class DefaultSumEntropy<T extends RealType<T>> extends
 		AbstractHaralickFeature<T> implements Ops.Haralick.SumEntropy {
 
-	// Avoid log 0
-	private static final double EPSILON = Double.MIN_NORMAL;
-	
-	private UnaryFunctionOp<double[][], double[]> coocPXPlusFunc;
-	
 	@Override
-	public void initialize() {
-		super.initialize();
-		coocPXPlusFunc = Functions.unary(ops(), CoocPXPlusY.class, double[].class, double[][].class);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.SUM_ENTROPY;
 	}
-	
-	@Override
-	public void compute(final IterableInterval<T> input, final DoubleType output) {
-		final double[][] matrix = getCooccurrenceMatrix(input);
-		final double[] pxplusy = coocPXPlusFunc.calculate(matrix);
-		final int nrGrayLevels = matrix.length;
-
-		double res = 0;
-		for (int i = 2; i <= 2 * nrGrayLevels; i++) {
-			res += pxplusy[i] * Math.log(pxplusy[i] + EPSILON);
-		}
 
-		output.set(-res);
-	}
 }
@@ -30,12 +30,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imagej.ops.features.haralick.helper.CoocPXPlusY;
-import net.imagej.ops.special.function.Functions;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -52,34 +47,9 @@ public class DefaultSumVariance<T extends RealType<T>> extends
 	AbstractHaralickFeature<T>implements Ops.Haralick.SumVariance
 {
 
-	private UnaryFunctionOp<double[][], double[]> coocPXPlusYFunc;
-	@SuppressWarnings("rawtypes")
-	private UnaryFunctionOp<IterableInterval<T>, RealType> sumEntropyFunc;
-
 	@Override
-	public void initialize() {
-		super.initialize();
-		coocPXPlusYFunc = Functions.unary(ops(), CoocPXPlusY.class, double[].class,
-			double[][].class);
-		sumEntropyFunc = Functions.unary(ops(), Ops.Haralick.SumEntropy.class, RealType.class, in(),
-			numGreyLevels, distance, orientation);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.SUM_VARIANCE;
 	}
 
-	@Override
-	public void compute(final IterableInterval<T> input,
-		final DoubleType output)
-	{
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		final double[] pxplusy = coocPXPlusYFunc.calculate(matrix);
-		final int nrGrayLevels = matrix.length;
-		final double sumEntropy = sumEntropyFunc.calculate(input).getRealDouble();
-
-		double res = 0;
-		for (int i = 2; i <= 2 * nrGrayLevels; i++) {
-			res += (i - sumEntropy) * (i - sumEntropy) * pxplusy[i];
-		}
-
-		output.set(res);
-	}
 }
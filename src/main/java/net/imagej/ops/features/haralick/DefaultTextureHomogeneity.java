@@ -30,9 +30,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -49,20 +47,8 @@ public class DefaultTextureHomogeneity<T extends RealType<T>> extends
 {
 
 	@Override
-	public void compute(final IterableInterval<T> input,
-		final DoubleType output)
-	{
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-		final double nrGreyLevel = matrix.length;
-
-		double res = 0;
-		for (int i = 0; i < nrGreyLevel; i++) {
-			for (int j = 0; j < nrGreyLevel; j++) {
-				res += matrix[i][j] / (1 + Math.abs(i - j));
-			}
-		}
-
-		output.set(res);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.TEXTURE_HOMOGENEITY;
 	}
+
 }
@@ -30,9 +30,7 @@
 package net.imagej.ops.features.haralick;
 
 import net.imagej.ops.Ops;
-import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.plugin.Plugin;
 
@@ -50,31 +48,8 @@ public class DefaultVariance<T extends RealType<T>> extends
 {
 
 	@Override
-	public void compute(final IterableInterval<T> input,
-		final DoubleType output)
-	{
-		final double[][] matrix = getCooccurrenceMatrix(input);
-
-
-		final int nrGreyLevel = matrix.length;
-
-
-		double mean =  0.0;
-		for (int i = 0; i < nrGreyLevel; i++) {
-			for (int j = 0; j < nrGreyLevel; j++) {
-				mean += matrix[i][j];
-			}
-		}
-		mean /= nrGreyLevel*nrGreyLevel;
-		
-		double result = 0.0;
-		for (int i = 0; i < nrGreyLevel; i++) {
-			for (int j = 0; j < nrGreyLevel; j++) {
-				result += (i - mean) * (i - mean) * matrix[i][j];
-			}
-		}
-
-		output.set(result);
+	protected HaralickFeatureType getFeatureType() {
+		return HaralickFeatureType.VARIANCE;
 	}
 
 }
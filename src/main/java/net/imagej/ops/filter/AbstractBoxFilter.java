@@ -0,0 +1,279 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.filter;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.special.computer.AbstractUnaryComputerOp;
+import net.imagej.ops.thread.chunker.Chunk;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.CursorBasedChunk;
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.outofbounds.OutOfBoundsBorderFactory;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+import org.scijava.plugin.Parameter;
+
+/**
+ * Abstract filter computing statistics over {@link RectangleShape}
+ * neighborhoods from box sums.
+ * <p>
+ * The sums (and, if needed, the sums of squares) of all neighborhoods are
+ * computed with one running-sum pass per dimension, so the cost per pixel does
+ * not depend on the size of the rectangle. The passes work on a {@code double}
+ * buffer covering the input expanded by the span of the rectangle, which is
+ * filled using the out-of-bounds strategy; hence, the results are the same as
+ * when iterating over each neighborhood, up to floating point rounding. To
+ * keep the rounding errors small, the values are shifted by their mean before
+ * they are summed up, and the running sums are compensated.
+ * </p>
+ *
+ * @param <T> input type
+ * @param <V> output type
+ */
+public abstract class AbstractBoxFilter<T extends RealType<T>, V extends RealType<V>>
+	extends
+	AbstractUnaryComputerOp<RandomAccessibleInterval<T>, IterableInterval<V>>
+	implements Contingent
+{
+
+	/** Largest buffer which can be allocated as one array. */
+	private static final long MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+	@Parameter
+	private Shape shape;
+
+	@Parameter(required = false)
+	private OutOfBoundsFactory<T, RandomAccessibleInterval<T>> outOfBoundsFactory =
+		new OutOfBoundsBorderFactory<>();
+
+	@Override
+	public boolean conforms() {
+		if (!(shape instanceof RectangleShape)) return false;
+		if (in() == null || !(out() instanceof RandomAccessibleInterval))
+			return false;
+		if (!Intervals.equalDimensions(in(), (RandomAccessibleInterval<?>) out()))
+			return false;
+
+		final int span = ((RectangleShape) shape).getSpan();
+		if (Intervals.numElements(Intervals.expand(in(), span)) > MAX_BUFFER_SIZE)
+			return false;
+
+		return Util.getTypeFromInterval(
+			(RandomAccessibleInterval<?>) in()) instanceof RealType &&
+			((IterableInterval<?>) out()).firstElement() instanceof RealType;
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<T> input,
+		final IterableInterval<V> output)
+	{
+		final RectangleShape rectangle = (RectangleShape) shape;
+		final int span = rectangle.getSpan();
+		final boolean skipCenter = rectangle.isSkippingCenter();
+		final int n = input.numDimensions();
+
+		final Interval expanded = Intervals.expand(input, span);
+		final double[] sums = new double[(int) Intervals.numElements(expanded)];
+		final double[] squares = needsSquares() ? new double[sums.length] : null;
+		final double reference = fill(input, expanded, sums, squares);
+		for (int d = 0; d < n; d++) {
+			boxSums(sums, expanded, d, span);
+			if (squares != null) boxSums(squares, expanded, d, span);
+		}
+
+		long count = 1;
+		for (int d = 0; d < n; d++) {
+			count *= 2 * span + 1;
+		}
+		if (skipCenter) count--;
+		final long neighbors = count;
+
+		@SuppressWarnings("unchecked")
+		final IterableInterval<V> out = Views.flatIterable(
+			(RandomAccessibleInterval<V>) output);
+		final IterableInterval<T> in = Views.flatIterable(input);
+		final long[] strides = strides(expanded);
+
+		ops().run(ChunkerOp.class, new CursorBasedChunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final Cursor<T> inCursor = in.localizingCursor();
+				final Cursor<V> outCursor = out.cursor();
+				for (long ctr = 0; ctr < numSteps; ctr++) {
+					final long steps = ctr == 0 ? startIndex + 1 : stepSize;
+					inCursor.jumpFwd(steps);
+					outCursor.jumpFwd(steps);
+
+					int index = 0;
+					for (int d = 0; d < n; d++) {
+						index += (inCursor.getLongPosition(d) - input.min(d) + span) *
+							strides[d];
+					}
+					double sum = sums[index];
+					double sumOfSquares = squares == null ? 0 : squares[index];
+					if (skipCenter) {
+						final double center = inCursor.get().getRealDouble() -
+							reference;
+						sum -= center;
+						sumOfSquares -= center * center;
+					}
+					outCursor.get().setReal(value(reference + sum / neighbors,
+						sumOfSquares - sum * sum / neighbors, neighbors));
+				}
+			}
+		}, in.size());
+	}
+
+	/**
+	 * Gets the shape (structuring element) used by this filter.
+	 *
+	 * @return the shape
+	 */
+	public Shape getShape() {
+		return shape;
+	}
+
+	/** Gets whether {@link #value} needs the sums of squares. */
+	protected abstract boolean needsSquares();
+
+	/**
+	 * Computes the filter value of one neighborhood.
+	 *
+	 * @param mean mean of the values in the neighborhood
+	 * @param squaredDeviations sum of the squared deviations of the values from
+	 *          their mean, if {@link #needsSquares()}
+	 * @param count number of values in the neighborhood
+	 */
+	protected abstract double value(double mean, double squaredDeviations,
+		long count);
+
+	// -- Helper methods --
+
+	/**
+	 * Copies the extended input within the given interval into the buffers,
+	 * shifted by the mean of the copied values.
+	 *
+	 * @return the mean, which the buffers are relative to
+	 */
+	private double fill(final RandomAccessibleInterval<T> input,
+		final Interval expanded, final double[] values, final double[] squares)
+	{
+		final Cursor<T> cursor = Views.flatIterable(Views.interval(Views.extend(
+			input, outOfBoundsFactory), new FinalInterval(expanded))).cursor();
+		double total = 0;
+		int i = 0;
+		while (cursor.hasNext()) {
+			final double value = cursor.next().getRealDouble();
+			values[i++] = value;
+			total += value;
+		}
+
+		final double reference = total / values.length;
+		for (i = 0; i < values.length; i++) {
+			values[i] -= reference;
+			if (squares != null) squares[i] = values[i] * values[i];
+		}
+		return reference;
+	}
+
+	/**
+	 * Replaces the values along the given dimension by their running sums over
+	 * windows of {@code 2 * span + 1} values. The values within {@code span} of
+	 * either end of each line are left undefined.
+	 */
+	private void boxSums(final double[] values, final Interval interval,
+		final int dim, final int span)
+	{
+		final long[] strides = strides(interval);
+		final int length = (int) interval.dimension(dim);
+		final int stride = (int) strides[dim];
+		final long numLines = values.length / length;
+
+		ops().run(ChunkerOp.class, new Chunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final double[] line = new double[length];
+				for (long i = 0; i < numSteps; i++) {
+					final long lineIndex = startIndex + i * stepSize;
+					// NB: Split the line index into the parts below and above dim.
+					final int base = (int) (lineIndex % stride + lineIndex / stride *
+						stride * length);
+					for (int k = 0; k < length; k++) {
+						line[k] = values[base + k * stride];
+					}
+					double sum = 0;
+					for (int k = 0; k < 2 * span + 1 && k < length; k++) {
+						sum += line[k];
+					}
+					if (span < length) values[base + span * stride] = sum;
+					// NB: Compensate the rounding errors of the running sum, so that
+					// they do not build up along the line.
+					double compensation = 0;
+					for (int k = span + 1; k < length - span; k++) {
+						final double delta = line[k + span] - line[k - span - 1] -
+							compensation;
+						final double next = sum + delta;
+						compensation = next - sum - delta;
+						sum = next;
+						values[base + k * stride] = sum;
+					}
+				}
+			}
+		}, numLines);
+	}
+
+	private static long[] strides(final Interval interval) {
+		final long[] strides = new long[interval.numDimensions()];
+		long stride = 1;
+		for (int d = 0; d < strides.length; d++) {
+			strides[d] = stride;
+			stride *= interval.dimension(d);
+		}
+		return strides;
+	}
+
+}
@@ -0,0 +1,305 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.filter;
+
+import java.util.Arrays;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.special.computer.AbstractUnaryComputerOp;
+import net.imagej.ops.thread.chunker.Chunk;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.outofbounds.OutOfBoundsBorderFactory;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+import org.scijava.plugin.Parameter;
+
+/**
+ * Abstract rank filter for {@link IntegerType}s of at most 16 bits and
+ * {@link RectangleShape}s, based on a sliding histogram (Huang et al.).
+ * <p>
+ * Each line along the first dimension is processed by adding the values of the
+ * column entering the rectangle and removing those of the column leaving it,
+ * so the cost per pixel grows with the size of one column rather than with the
+ * size of the whole neighborhood. The requested rank is tracked incrementally
+ * within the histogram. Lines are processed in parallel.
+ * </p>
+ * <p>
+ * For a neighborhood of {@code n} values, the result is the value at index
+ * {@link #rank(int)} of the sorted neighborhood, exactly as if it was selected
+ * from the gathered values.
+ * </p>
+ *
+ * @param <T> input type
+ * @param <V> output type
+ */
+public abstract class AbstractHistogramRankFilter<T extends IntegerType<T>, V extends RealType<V>>
+	extends
+	AbstractUnaryComputerOp<RandomAccessibleInterval<T>, IterableInterval<V>>
+	implements Contingent
+{
+
+	/** Largest number of distinct input values supported. */
+	private static final long MAX_BINS = 1 << 16;
+
+	@Parameter
+	private Shape shape;
+
+	@Parameter(required = false)
+	private OutOfBoundsFactory<T, RandomAccessibleInterval<T>> outOfBoundsFactory =
+		new OutOfBoundsBorderFactory<>();
+
+	@Override
+	public boolean conforms() {
+		if (!(shape instanceof RectangleShape)) return false;
+		final RectangleShape rectangle = (RectangleShape) shape;
+		if (rectangle.getSpan() == 0 && rectangle.isSkippingCenter()) return false;
+
+		if (in() == null || !(out() instanceof RandomAccessibleInterval))
+			return false;
+		if (!Intervals.equalDimensions(in(), (RandomAccessibleInterval<?>) out()))
+			return false;
+
+		final Object inType = Util.getTypeFromInterval(
+			(RandomAccessibleInterval<?>) in());
+		if (!(inType instanceof IntegerType)) return false;
+		final IntegerType<?> integerType = (IntegerType<?>) inType;
+		final double bins = integerType.getMaxValue() - integerType.getMinValue() +
+			1;
+		if (bins > MAX_BINS) return false;
+
+		return ((IterableInterval<?>) out()).firstElement() instanceof RealType;
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<T> input,
+		final IterableInterval<V> output)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<V> out =
+			(RandomAccessibleInterval<V>) output;
+		final RandomAccessible<T> extended = Views.extend(input,
+			outOfBoundsFactory);
+
+		final T type = Util.getTypeFromInterval(input);
+		final int minValue = (int) type.getMinValue();
+		final int bins = (int) (type.getMaxValue() - type.getMinValue() + 1);
+
+		final RectangleShape rectangle = (RectangleShape) shape;
+		final int span = rectangle.getSpan();
+		final boolean skipCenter = rectangle.isSkippingCenter();
+		final long[][] column = columnOffsets(input.numDimensions(), span);
+		final int count = column.length * (2 * span + 1) - (skipCenter ? 1 : 0);
+		final int rank = rank(count);
+
+		final long numLines = Intervals.numElements(input) / input.dimension(0);
+
+		ops().run(ChunkerOp.class, new Chunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final Histogram histogram = new Histogram(bins);
+				final RandomAccess<T> inAccess = extended.randomAccess();
+				final RandomAccess<V> outAccess = out.randomAccess();
+				final long[] position = new long[input.numDimensions()];
+				for (long i = 0; i < numSteps; i++) {
+					linePosition(input, startIndex + i * stepSize, position);
+					filterLine(input, out, inAccess, outAccess, position, column, span,
+						skipCenter, rank, minValue, histogram);
+				}
+			}
+		}, numLines);
+	}
+
+	/**
+	 * Gets the index within the sorted neighborhood of the value to select.
+	 *
+	 * @param count number of values in the neighborhood
+	 */
+	protected abstract int rank(int count);
+
+	// -- Helper methods --
+
+	/**
+	 * Filters the line along the first dimension through the given position
+	 * (whose first coordinate is ignored).
+	 */
+	private void filterLine(final RandomAccessibleInterval<T> input,
+		final RandomAccessibleInterval<V> output, final RandomAccess<T> inAccess,
+		final RandomAccess<V> outAccess, final long[] position,
+		final long[][] column, final int span, final boolean skipCenter,
+		final int rank, final int minValue, final Histogram histogram)
+	{
+		histogram.clear();
+		final long min = input.min(0);
+		final long max = input.max(0);
+		for (long x = min - span; x <= min + span; x++) {
+			addColumn(inAccess, position, x, column, minValue, histogram, 1);
+		}
+
+		for (int d = 1; d < position.length; d++) {
+			outAccess.setPosition(position[d] - input.min(d) + output.min(d), d);
+		}
+		for (long x = min; x <= max; x++) {
+			if (x > min) {
+				addColumn(inAccess, position, x - span - 1, column, minValue,
+					histogram, -1);
+				addColumn(inAccess, position, x + span, column, minValue, histogram,
+					1);
+			}
+
+			final int value;
+			if (skipCenter) {
+				inAccess.setPosition(position);
+				inAccess.setPosition(x, 0);
+				final int center = inAccess.get().getInteger() - minValue;
+				histogram.remove(center);
+				value = histogram.select(rank);
+				histogram.add(center);
+			}
+			else value = histogram.select(rank);
+
+			outAccess.setPosition(x - min + output.min(0), 0);
+			outAccess.get().setReal(value + minValue);
+		}
+	}
+
+	/** Adds (or removes) the values of one column of the rectangle. */
+	private void addColumn(final RandomAccess<T> inAccess, final long[] position,
+		final long x, final long[][] column, final int minValue,
+		final Histogram histogram, final int sign)
+	{
+		inAccess.setPosition(x, 0);
+		for (final long[] offset : column) {
+			for (int d = 1; d < offset.length; d++) {
+				inAccess.setPosition(position[d] + offset[d], d);
+			}
+			final int value = inAccess.get().getInteger() - minValue;
+			if (sign > 0) histogram.add(value);
+			else histogram.remove(value);
+		}
+	}
+
+	/**
+	 * Gets the offsets, in all but the first dimension, of the pixels within one
+	 * column of a rectangle with the given span.
+	 */
+	private static long[][] columnOffsets(final int numDimensions,
+		final int span)
+	{
+		final int width = 2 * span + 1;
+		int size = 1;
+		for (int d = 1; d < numDimensions; d++) {
+			size *= width;
+		}
+		final long[][] offsets = new long[size][numDimensions];
+		for (int i = 0; i < size; i++) {
+			int index = i;
+			for (int d = 1; d < numDimensions; d++) {
+				offsets[i][d] = index % width - span;
+				index /= width;
+			}
+		}
+		return offsets;
+	}
+
+	/** Sets the given position to the start of the line with the given index. */
+	private static void linePosition(final RandomAccessibleInterval<?> input,
+		final long lineIndex, final long[] position)
+	{
+		long index = lineIndex;
+		position[0] = input.min(0);
+		for (int d = 1; d < position.length; d++) {
+			final long dim = input.dimension(d);
+			position[d] = input.min(d) + index % dim;
+			index /= dim;
+		}
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Histogram which keeps track of the bin of the last selected rank, together
+	 * with the number of values below that bin.
+	 */
+	private static final class Histogram {
+
+		private final int[] bins;
+		private int current;
+		private int below;
+
+		public Histogram(final int size) {
+			bins = new int[size];
+		}
+
+		public void clear() {
+			Arrays.fill(bins, 0);
+			current = 0;
+			below = 0;
+		}
+
+		public void add(final int value) {
+			bins[value]++;
+			if (value < current) below++;
+		}
+
+		public void remove(final int value) {
+			bins[value]--;
+			if (value < current) below--;
+		}
+
+		/** Gets the bin containing the value of the given rank. */
+		public int select(final int rank) {
+			while (below > rank) {
+				current--;
+				below -= bins[current];
+			}
+			while (below + bins[current] <= rank) {
+				below += bins[current];
+				current++;
+			}
+			return current;
+		}
+	}
+
+}
@@ -117,6 +117,11 @@ public abstract class AbstractPadAndFFTFilter<I extends RealType<I>, O extends R
 	 */
 	private BinaryComputerOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<K>, RandomAccessibleInterval<O>> filter;
 
+	/**
+	 * Complex buffers the filter op was created for, if it can be reused
+	 */
+	private RandomAccessibleInterval<C> filterFFTInput, filterFFTKernel;
+
 	@Override
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void initialize() {
@@ -219,20 +224,47 @@ public abstract class AbstractPadAndFFTFilter<I extends RealType<I>, O extends R
 		RandomAccessibleInterval<K> paddedKernel = padKernelOp.calculate(kernel,
 			new FinalDimensions(paddedSize));
 
-		RandomAccessibleInterval<C> fftInput = createOp.calculate(
-			new FinalDimensions(paddedSize));
+		// reuse the buffer and kernel spectrum of the plan, if available
+		final FFTPlan<C> fftPlan = getFFTPlan();
+		RandomAccessibleInterval<C> fftInput = fftPlan == null ? null : fftPlan
+			.acquireBuffer(paddedSize, filterFFTInput);
+		if (fftInput == null) {
+			fftInput = createOp.calculate(new FinalDimensions(paddedSize));
+		}
 
-		RandomAccessibleInterval<C> fftKernel = createOp.calculate(
-			new FinalDimensions(paddedSize));
+		RandomAccessibleInterval<C> fftKernel = fftPlan == null ? null : fftPlan
+			.getKernelSpectrum(paddedSize, kernel);
+		final boolean performKernelFFT = fftKernel == null;
+		if (performKernelFFT) {
+			fftKernel = createOp.calculate(new FinalDimensions(paddedSize));
+		}
 
 		// TODO: in this case it is difficult to match the filter op in the
 		// 'initialize' as we don't know the size yet, thus we can't create
 		// memory
 		// for the FFTs
-		filter = createFilterComputer(paddedInput, paddedKernel, fftInput,
-			fftKernel, output);
+		// NB: The filter of the previous call is reused if it works on the same
+		// buffers, and the kernel spectrum is already in place.
+		if (filter == null || performKernelFFT || fftInput != filterFFTInput ||
+			fftKernel != filterFFTKernel)
+		{
+			filter = createFilterComputer(paddedInput, paddedKernel, fftInput,
+				fftKernel, performKernelFFT, output);
+			final boolean reusable = !performKernelFFT && isFilterReusable();
+			filterFFTInput = reusable ? fftInput : null;
+			filterFFTKernel = reusable ? fftKernel : null;
+		}
 
 		filter.compute(paddedInput, paddedKernel, output);
+
+		// NB: The filters only overwrite the input buffer, so the kernel buffer
+		// holds the kernel spectrum now.
+		if (fftPlan != null) {
+			if (performKernelFFT) {
+				fftPlan.setKernelSpectrum(paddedSize, kernel, fftKernel);
+			}
+			fftPlan.releaseBuffer(paddedSize, fftInput);
+		}
 	}
 
 	/**
@@ -243,6 +275,8 @@ public abstract class AbstractPadAndFFTFilter<I extends RealType<I>, O extends R
 	 * @param paddedKernel
 	 * @param fftImg
 	 * @param fftKernel
+	 * @param performKernelFFT false if fftKernel already holds the kernel
+	 *          spectrum
 	 * @param output
 	 */
 	abstract public
@@ -250,7 +284,7 @@ public abstract class AbstractPadAndFFTFilter<I extends RealType<I>, O extends R
 		createFilterComputer(RandomAccessibleInterval<I> paddedInput,
 			RandomAccessibleInterval<K> paddedKernel,
 			RandomAccessibleInterval<C> fftImg, RandomAccessibleInterval<C> fftKernel,
-			RandomAccessibleInterval<O> output);
+			boolean performKernelFFT, RandomAccessibleInterval<O> output);
 
 	protected long[] getBorderSize() {
 		return borderSize;
@@ -275,4 +309,27 @@ public abstract class AbstractPadAndFFTFilter<I extends RealType<I>, O extends R
 	protected Type<O> getOutType() {
 		return outType;
 	}
+
+	/**
+	 * Whether the filter computer can be reused for further inputs of the same
+	 * size, as long as it works on the same complex buffers. This is the case if
+	 * it does not depend on the input it was created for, and starts afresh for
+	 * every input.
+	 * 
+	 * @return false by default
+	 */
+	protected boolean isFilterReusable() {
+		return false;
+	}
+
+	/**
+	 * Gets the plan holding the kernel spectrum and complex buffers to reuse.
+	 * Subclasses declare it as their last optional parameter, so that it does
+	 * not change how the arguments of existing calls are matched.
+	 * 
+	 * @return the plan, or null to create them for each call
+	 */
+	protected FFTPlan<C> getFFTPlan() {
+		return null;
+	}
 }
@@ -0,0 +1,360 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.filter.fftSize.ComputeFFTMethodsSize;
+import net.imagej.ops.special.computer.AbstractBinaryComputerOp;
+import net.imagej.ops.special.computer.BinaryComputerOp;
+import net.imagej.ops.special.function.Functions;
+import net.imagej.ops.special.function.UnaryFunctionOp;
+import net.imagej.ops.thread.ThreadUtil;
+import net.imglib2.Cursor;
+import net.imglib2.Dimensions;
+import net.imglib2.FinalDimensions;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.Img;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.complex.ComplexFloatType;
+import net.imglib2.util.IntervalIndexer;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+import org.scijava.plugin.Parameter;
+import org.scijava.thread.ThreadService;
+
+/**
+ * Abstract class for FFT based filters which keep their memory use within a
+ * given budget by filtering the image tile by tile.
+ * <p>
+ * Each tile is extended by the size of the kernel on all sides, read through
+ * the out-of-bounds strategy of the input, filtered and cropped back into the
+ * output. The tile size is the largest one, in terms of
+ * {@link ComputeFFTMethodsSize fast FFT sizes}, for which the tiles processed
+ * in parallel fit into the budget. Since all tiles have the same size, the
+ * kernel spectrum is computed only once and shared through an {@link FFTPlan},
+ * which also pools the complex buffers. Each thread filters all of its tiles
+ * with a single {@link #createTileComputer tile computer} and output buffer,
+ * so that the filter can keep its buffers from one tile to the next. If even
+ * the smallest tiles do not fit into the budget when processed by all threads
+ * of the {@link ThreadService}, fewer tiles are processed at a time; if a
+ * single tile does not fit, an {@link IllegalArgumentException} is thrown.
+ * </p>
+ *
+ * @param <I>
+ * @param <O>
+ * @param <K>
+ */
+public abstract class AbstractTiledFFTFilter<I extends RealType<I> & NativeType<I>, O extends RealType<O> & NativeType<O>, K extends RealType<K> & NativeType<K>>
+	extends
+	AbstractBinaryComputerOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<K>, RandomAccessibleInterval<O>>
+	implements Contingent
+{
+
+	/** Bytes per value of the complex FFT buffers. */
+	protected static final int COMPLEX_BYTES = 8;
+
+	@Parameter
+	private ThreadService threads;
+
+	/**
+	 * Maximum number of bytes to use for the FFT buffers and tiles.
+	 */
+	@Parameter
+	private long maxBytes;
+
+	private UnaryFunctionOp<Dimensions, long[][]> fftSizeOp;
+
+	@Override
+	public void initialize() {
+		super.initialize();
+
+		fftSizeOp = Functions.unary(ops(), ComputeFFTMethodsSize.class,
+			long[][].class, Dimensions.class, true, true);
+	}
+
+	@Override
+	public boolean conforms() {
+		// same kernel sizes as the FFT filters which compute the tiles
+		return Intervals.numElements(in2()) > 9 && (out() == null || Intervals
+			.equalDimensions(in1(), out()));
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<I> input,
+		final RandomAccessibleInterval<K> kernel,
+		final RandomAccessibleInterval<O> output)
+	{
+		final int n = input.numDimensions();
+		final long[] margin = Intervals.dimensionsAsLongArray(kernel);
+		final Tiling tiling = tiling(input, kernel, output);
+		final long[] block = tiling.block;
+
+		final long[] numTiles = new long[n];
+		long totalTiles = 1;
+		for (int d = 0; d < n; d++) {
+			numTiles[d] = (input.dimension(d) + block[d] - 1) / block[d];
+			totalTiles *= numTiles[d];
+		}
+		final long tileCount = totalTiles;
+
+		final RandomAccessible<I> extended = Views.extend(input, getOBFInput());
+		final O outType = Util.getTypeFromInterval(output).createVariable();
+		final FFTPlan<ComplexFloatType> plan = getFFTPlan() != null ? getFFTPlan()
+			: new FFTPlan<>();
+		final AtomicLong nextTile = new AtomicLong();
+
+		final long[] extendedSize = new long[n];
+		for (int d = 0; d < n; d++) {
+			extendedSize[d] = block[d] + 2 * margin[d];
+		}
+
+		final int numWorkers = (int) Math.min(tileCount, tiling.concurrent);
+		final List<Future<?>> futures = new ArrayList<>(numWorkers);
+		for (int w = 0; w < numWorkers; w++) {
+			futures.add(threads.run(new Runnable() {
+
+				@Override
+				public void run() {
+					final long[] tilePosition = new long[n];
+					final long[] tileMin = new long[n];
+					final long[] tileMax = new long[n];
+					final long[] srcMin = new long[n];
+					final long[] srcMax = new long[n];
+					final long[] extendedMin = new long[n];
+					final long[] extendedMax = new long[n];
+					final Img<O> tileOut = ops().create().img(new FinalDimensions(
+						extendedSize), outType);
+					BinaryComputerOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<K>, RandomAccessibleInterval<O>> tileComputer =
+						null;
+
+					for (long t = nextTile.getAndIncrement(); t < tileCount; t = nextTile
+						.getAndIncrement())
+					{
+						IntervalIndexer.indexToPosition(t, numTiles, tilePosition);
+						for (int d = 0; d < n; d++) {
+							tileMin[d] = input.min(d) + tilePosition[d] * block[d];
+							tileMax[d] = Math.min(tileMin[d] + block[d] - 1, input.max(d));
+							// NB: Tiles at the upper border are shifted inwards, so that all
+							// tiles have the same size and share the kernel spectrum.
+							final long start = Math.min(tileMin[d], input.max(d) - block[d] +
+								1);
+							extendedMin[d] = start - margin[d];
+							extendedMax[d] = start + block[d] - 1 + margin[d];
+							srcMin[d] = tileMin[d] - extendedMin[d];
+							srcMax[d] = tileMax[d] - extendedMin[d];
+						}
+
+						final RandomAccessibleInterval<I> tileIn = Views.zeroMin(Views
+							.interval(extended, extendedMin, extendedMax));
+						if (tileComputer == null) {
+							tileComputer = createTileComputer(tileIn, kernel, tileOut, plan);
+						}
+						tileComputer.compute(tileIn, kernel, tileOut);
+
+						copy(Views.interval(tileOut, srcMin, srcMax), Views.interval(
+							output, tileMin, tileMax));
+					}
+				}
+			}));
+		}
+
+		for (final Future<?> future : futures) {
+			try {
+				future.get();
+			}
+			catch (final InterruptedException | ExecutionException exc) {
+				final Throwable cause = exc.getCause();
+				if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+				throw new RuntimeException(exc);
+			}
+		}
+	}
+
+	/**
+	 * Gets the out of bounds strategy for the extended area of the input, which
+	 * is read by the tiles at the border of the image.
+	 */
+	protected abstract OutOfBoundsFactory<I, RandomAccessibleInterval<I>>
+		getOBFInput();
+
+	/**
+	 * Creates the computer which filters the tiles of one thread. The tiles are
+	 * extended by the size of the kernel on all sides, and only the values of
+	 * the output away from this extension are used. All tiles have the same
+	 * size, so the computer can keep its buffers from one tile to the next.
+	 *
+	 * @param tileIn the extended first tile of the input
+	 * @param kernel the kernel
+	 * @param tileOut the output of the same size as the tiles, reused between
+	 *          tiles
+	 * @param plan plan shared by all tiles
+	 */
+	protected abstract
+		BinaryComputerOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<K>, RandomAccessibleInterval<O>>
+		createTileComputer(RandomAccessibleInterval<I> tileIn,
+			RandomAccessibleInterval<K> kernel, RandomAccessibleInterval<O> tileOut,
+			FFTPlan<ComplexFloatType> plan);
+
+	/**
+	 * Estimates the number of bytes needed by each
+	 * {@link #createTileComputer tile computer}, in addition to the shared
+	 * kernel spectrum.
+	 *
+	 * @param complexSize number of values of each complex FFT buffer
+	 * @param paddedSize number of values of the tile padded for the FFT
+	 * @param tileSize number of values of the extended tile
+	 * @param outBytes bytes per value of the output
+	 */
+	protected abstract long tileBytes(long complexSize, long paddedSize,
+		long tileSize, long outBytes);
+
+	/**
+	 * Gets the plan to share the kernel spectrum and complex buffers with
+	 * further calls.
+	 *
+	 * @return the plan, or null to use a new one for each call
+	 */
+	protected FFTPlan<ComplexFloatType> getFFTPlan() {
+		return null;
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Computes the size of the tiles, halving the largest dimension until the
+	 * tiles processed in parallel fit into the budget, then growing the tiles to
+	 * fill their fast FFT size.
+	 */
+	private Tiling tiling(final RandomAccessibleInterval<I> input,
+		final RandomAccessibleInterval<K> kernel,
+		final RandomAccessibleInterval<O> output)
+	{
+		final int n = input.numDimensions();
+		final long[] block = Intervals.dimensionsAsLongArray(input);
+		final long[] border = new long[n];
+		for (int d = 0; d < n; d++) {
+			// extension on both sides, plus the padding for the FFT
+			border[d] = 2 * kernel.dimension(d) + kernel.dimension(d) - 1;
+		}
+		final long outBytes = (Util.getTypeFromInterval(output)
+			.getBitsPerPixel() + 7) / 8;
+		final int parallelism = ThreadUtil.parallelism(threads);
+
+		long[][] sizes;
+		long concurrent;
+		while (true) {
+			sizes = fftSize(block, border);
+
+			long tiles = 1;
+			long complexSize = 1;
+			long paddedSize = 1;
+			long tileSize = 1;
+			for (int d = 0; d < n; d++) {
+				tiles *= (input.dimension(d) + block[d] - 1) / block[d];
+				complexSize *= sizes[1][d];
+				paddedSize *= sizes[0][d];
+				tileSize *= block[d] + 2 * kernel.dimension(d);
+			}
+			final long bytesPerTile = tileBytes(complexSize, paddedSize, tileSize,
+				outBytes);
+			final long kernelBytes = COMPLEX_BYTES * complexSize;
+			concurrent = Math.min(tiles, parallelism);
+			if (concurrent * bytesPerTile + kernelBytes <= maxBytes) break;
+
+			int largest = 0;
+			for (int d = 1; d < n; d++) {
+				if (block[d] > block[largest]) largest = d;
+			}
+			if (block[largest] == 1) {
+				// NB: The tiles cannot get any smaller, so process fewer at a time.
+				concurrent = (maxBytes - kernelBytes) / bytesPerTile;
+				if (concurrent < 1) {
+					throw new IllegalArgumentException("A single tile needs " +
+						(bytesPerTile + kernelBytes) +
+						" bytes, which exceeds the memory budget of " + maxBytes +
+						" bytes");
+				}
+				break;
+			}
+			block[largest] = (block[largest] + 1) / 2;
+		}
+
+		for (int d = 0; d < n; d++) {
+			block[d] = Math.min(input.dimension(d), sizes[0][d] - border[d]);
+		}
+		return new Tiling(block, concurrent);
+	}
+
+	private long[][] fftSize(final long[] block, final long[] border) {
+		final long[] padded = new long[block.length];
+		for (int d = 0; d < block.length; d++) {
+			padded[d] = block[d] + border[d];
+		}
+		return fftSizeOp.calculate(new FinalDimensions(padded));
+	}
+
+	private static <T extends RealType<T>> void copy(
+		final RandomAccessibleInterval<T> src,
+		final RandomAccessibleInterval<T> dest)
+	{
+		final Cursor<T> s = Views.flatIterable(src).cursor();
+		final Cursor<T> d = Views.flatIterable(dest).cursor();
+		while (d.hasNext()) {
+			d.next().set(s.next());
+		}
+	}
+
+	// -- Helper classes --
+
+	/** The size of the tiles and the number of tiles processed at a time. */
+	private static class Tiling {
+
+		private final long[] block;
+		private final long concurrent;
+
+		public Tiling(final long[] block, final long concurrent) {
+			this.block = block;
+			this.concurrent = concurrent;
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.filter;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.numeric.ComplexType;
+
+/**
+ * Reusable state of FFT filters which are applied with the same kernel to many
+ * images of the same (padded) size.
+ * <p>
+ * A plan holds the spectrum of one kernel for one padded size, along with a
+ * pool of complex buffers of that size. When a plan is passed to one of the
+ * {@link AbstractPadAndFFTFilter}s (e.g. the FFT-based convolve, correlate and
+ * Richardson-Lucy ops), the kernel is padded and transformed only by the first
+ * call, and the complex buffers are recycled instead of reallocated. A plan is
+ * thread safe, so it can be shared by filters running in parallel on
+ * different images. It is keyed by kernel identity: the kernel must not be
+ * modified while the plan is in use, or the plan must be {@link #clear()}ed.
+ * </p>
+ *
+ * @param <C> type of the complex values
+ */
+public class FFTPlan<C extends ComplexType<C>> {
+
+	private long[] paddedSize;
+
+	private Object kernel;
+
+	private RandomAccessibleInterval<C> kernelSpectrum;
+
+	private final Deque<RandomAccessibleInterval<C>> buffers = new ArrayDeque<>();
+
+	/**
+	 * Gets the spectrum of the given kernel for the given padded size.
+	 *
+	 * @return the spectrum, or null if it has not been computed for this kernel
+	 *         and size
+	 */
+	public synchronized RandomAccessibleInterval<C> getKernelSpectrum(
+		final long[] size, final Object k)
+	{
+		return k == kernel && Arrays.equals(size, paddedSize) ? kernelSpectrum
+			: null;
+	}
+
+	/**
+	 * Sets the spectrum of the given kernel for the given padded size. Buffers of
+	 * another size are dropped.
+	 */
+	public synchronized void setKernelSpectrum(final long[] size, final Object k,
+		final RandomAccessibleInterval<C> spectrum)
+	{
+		if (!Arrays.equals(size, paddedSize)) buffers.clear();
+		paddedSize = size.clone();
+		kernel = k;
+		kernelSpectrum = spectrum;
+	}
+
+	/**
+	 * Takes a complex buffer of the given padded size from the pool.
+	 *
+	 * @return the buffer, or null if none is available
+	 */
+	public synchronized RandomAccessibleInterval<C> acquireBuffer(
+		final long[] size)
+	{
+		return Arrays.equals(size, paddedSize) ? buffers.poll() : null;
+	}
+
+	/**
+	 * Takes a complex buffer of the given padded size from the pool, preferring
+	 * the given one. A filter which holds on to the buffer it used last can thus
+	 * be reused, as long as no other filter has taken the buffer in the
+	 * meantime.
+	 *
+	 * @param preferred the buffer to take if it is in the pool, or null
+	 * @return the buffer, or null if none is available
+	 */
+	public synchronized RandomAccessibleInterval<C> acquireBuffer(
+		final long[] size, final RandomAccessibleInterval<C> preferred)
+	{
+		if (!Arrays.equals(size, paddedSize)) return null;
+		for (final Iterator<RandomAccessibleInterval<C>> iter = buffers
+			.iterator(); iter.hasNext();)
+		{
+			if (iter.next() == preferred) {
+				iter.remove();
+				return preferred;
+			}
+		}
+		return buffers.poll();
+	}
+
+	/**
+	 * Returns a complex buffer of the given padded size to the pool, once it is
+	 * no longer needed.
+	 */
+	public synchronized void releaseBuffer(final long[] size,
+		final RandomAccessibleInterval<C> buffer)
+	{
+		if (Arrays.equals(size, paddedSize)) buffers.push(buffer);
+	}
+
+	/** Drops the kernel spectrum and all buffers. */
+	public synchronized void clear() {
+		paddedSize = null;
+		kernel = null;
+		kernelSpectrum = null;
+		buffers.clear();
+	}
+
+}
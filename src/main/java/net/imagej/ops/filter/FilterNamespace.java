@@ -292,6 +292,58 @@ public class FilterNamespace extends AbstractNamespace {
 		return result;
 	}
 
+	/**
+	 * Executes the "convolve" operation on the given arguments, reusing the kernel
+	 * spectrum and buffers of the given {@link FFTPlan}.
+	 */
+	@OpMethod(op = net.imagej.ops.filter.convolve.PadAndConvolveFFT.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>, C extends ComplexType<C>>
+		RandomAccessibleInterval<O> convolve(final RandomAccessibleInterval<O> out,final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel, final long[] borderSize,
+			final OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput,
+			final OutOfBoundsFactory<K, RandomAccessibleInterval<K>> obfKernel,
+			final Type<O> outType, final C fftType, final FFTPlan<C> fftPlan)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(Ops.Filter.Convolve.class, out, in,
+				kernel, borderSize, obfInput, obfKernel, outType, fftType, fftPlan);
+		return result;
+	}
+
+	/**
+	 * Executes the "convolve" operation on the given arguments, tile by tile so
+	 * that at most the given number of bytes is used.
+	 */
+	@OpMethod(op = net.imagej.ops.filter.convolve.TiledConvolveFFT.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+		RandomAccessibleInterval<O> convolve(final RandomAccessibleInterval<O> out,final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel, final long maxBytes)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(Ops.Filter.Convolve.class, out, in,
+				kernel, maxBytes);
+		return result;
+	}
+
+	/**
+	 * Executes the "convolve" operation on the given arguments, tile by tile so
+	 * that at most the given number of bytes is used.
+	 */
+	@OpMethod(op = net.imagej.ops.filter.convolve.TiledConvolveFFT.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+		RandomAccessibleInterval<O> convolve(final RandomAccessibleInterval<O> out,final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel, final long maxBytes,
+			final OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(Ops.Filter.Convolve.class, out, in,
+				kernel, maxBytes, obfInput);
+		return result;
+	}
+
 	/** Executes the "convolve" operation on the given arguments. */
 	@OpMethod(op = net.imagej.ops.filter.convolve.ConvolveNaiveC.class)
 	public <I extends RealType<I>, K extends RealType<K>, O extends RealType<O>>
@@ -462,6 +514,25 @@ public class FilterNamespace extends AbstractNamespace {
 		return result;
 	}
 
+	/**
+	 * Executes the "correlate" operation on the given arguments, reusing the kernel
+	 * spectrum and buffers of the given {@link FFTPlan}.
+	 */
+	@OpMethod(op = net.imagej.ops.filter.correlate.PadAndCorrelateFFT.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>, C extends ComplexType<C>>
+		RandomAccessibleInterval<O> correlate(final RandomAccessibleInterval<O> out,final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel, final long[] borderSize,
+			final OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput,
+			final OutOfBoundsFactory<K, RandomAccessibleInterval<K>> obfKernel,
+			final Type<O> outType, final C fftType, final FFTPlan<C> fftPlan)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(Ops.Filter.Correlate.class, out, in,
+				kernel, borderSize, obfInput, obfKernel, outType, fftType, fftPlan);
+		return result;
+	}
+
 
 
 	/** Executes the "correlate" operation on the given arguments. */
@@ -1044,7 +1115,8 @@ public class FilterNamespace extends AbstractNamespace {
 	// -- mean filter --
 
 	/** Executes the "mean" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.mean.DefaultMeanFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.mean.BoxMeanFilter.class,
+		net.imagej.ops.filter.mean.DefaultMeanFilter.class })
 	public <I extends ComplexType<I>, O extends ComplexType<O>>
 		IterableInterval<O> mean(final IterableInterval<O> out,
 			final RandomAccessibleInterval<I> in, final Shape shape)
@@ -1056,7 +1128,8 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "mean" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.mean.DefaultMeanFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.mean.BoxMeanFilter.class,
+		net.imagej.ops.filter.mean.DefaultMeanFilter.class })
 	public <I extends ComplexType<I>, O extends ComplexType<O>>
 		IterableInterval<O> mean(final IterableInterval<O> out,
 			final RandomAccessibleInterval<I> in, final Shape shape,
@@ -1071,7 +1144,8 @@ public class FilterNamespace extends AbstractNamespace {
 	// -- non-linear filters --
 
 	/** Executes the "max" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.max.DefaultMaxFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.max.HistogramMaxFilter.class,
+		net.imagej.ops.filter.max.DefaultMaxFilter.class })
 	public <T extends RealType<T>, V extends RealType<V>> IterableInterval<T> max(
 		final IterableInterval<T> out, final RandomAccessibleInterval<T> in,
 		final Shape shape)
@@ -1083,7 +1157,8 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "max" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.max.DefaultMaxFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.max.HistogramMaxFilter.class,
+		net.imagej.ops.filter.max.DefaultMaxFilter.class })
 	public <T extends RealType<T>> IterableInterval<T> max(
 		final IterableInterval<T> out, final RandomAccessibleInterval<T> in,
 		final Shape shape, final OutOfBoundsFactory<T, T> outOfBoundsFactory)
@@ -1095,7 +1170,8 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "median" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.median.DefaultMedianFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.median.HistogramMedianFilter.class,
+		net.imagej.ops.filter.median.DefaultMedianFilter.class })
 	public <T extends RealType<T>> IterableInterval<T> median(
 		final IterableInterval<T> out, final RandomAccessibleInterval<T> in,
 		final Shape shape)
@@ -1107,7 +1183,8 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "median" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.median.DefaultMedianFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.median.HistogramMedianFilter.class,
+		net.imagej.ops.filter.median.DefaultMedianFilter.class })
 	public <T extends RealType<T>> IterableInterval<T> median(
 		final IterableInterval<T> out, final RandomAccessibleInterval<T> in,
 		final Shape shape, final OutOfBoundsFactory<T, T> outOfBoundsFactory)
@@ -1119,7 +1196,8 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "min" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.min.DefaultMinFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.min.HistogramMinFilter.class,
+		net.imagej.ops.filter.min.DefaultMinFilter.class })
 	public <T extends RealType<T>> IterableInterval<T> min(
 		final IterableInterval<T> out, final RandomAccessibleInterval<T> in,
 		final Shape shape)
@@ -1131,7 +1209,8 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "min" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.min.DefaultMinFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.min.HistogramMinFilter.class,
+		net.imagej.ops.filter.min.DefaultMinFilter.class })
 	public <T extends RealType<T>> IterableInterval<T> min(
 		final IterableInterval<T> out, final RandomAccessibleInterval<T> in,
 		final Shape shape, final OutOfBoundsFactory<T, T> outOfBoundsFactory)
@@ -1395,7 +1474,8 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "variance" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.variance.DefaultVarianceFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.variance.BoxVarianceFilter.class,
+		net.imagej.ops.filter.variance.DefaultVarianceFilter.class })
 	public <T extends RealType<T>> IterableInterval<T> variance(
 		final IterableInterval<T> out, final RandomAccessibleInterval<T> in,
 		final Shape shape)
@@ -1407,7 +1487,8 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "variance" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.variance.DefaultVarianceFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.variance.BoxVarianceFilter.class,
+		net.imagej.ops.filter.variance.DefaultVarianceFilter.class })
 	public <T extends RealType<T>> IterableInterval<T> variance(
 		final IterableInterval<T> out, final RandomAccessibleInterval<T> in,
 		final Shape shape, final OutOfBoundsFactory<T, T> outOfBoundsFactory)
@@ -32,6 +32,7 @@ package net.imagej.ops.filter.convolve;
 import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
 import net.imagej.ops.filter.AbstractPadAndFFTFilter;
+import net.imagej.ops.filter.FFTPlan;
 import net.imagej.ops.special.computer.BinaryComputerOp;
 import net.imagej.ops.special.computer.Computers;
 import net.imglib2.RandomAccessibleInterval;
@@ -42,6 +43,7 @@ import net.imglib2.type.numeric.RealType;
 import net.imglib2.util.Intervals;
 import net.imglib2.util.Util;
 
+import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 
 /**
@@ -58,6 +60,12 @@ public class PadAndConvolveFFT<I extends RealType<I> & NativeType<I>, O extends
 	extends AbstractPadAndFFTFilter<I, O, K, C> implements Ops.Filter.Convolve, Contingent
 {
 
+	/**
+	 * Plan holding the kernel spectrum and complex buffers to reuse.
+	 */
+	@Parameter(required = false)
+	private FFTPlan<C> fftPlan;
+
 	@Override
 	public void initialize() {
 
@@ -81,10 +89,20 @@ public class PadAndConvolveFFT<I extends RealType<I> & NativeType<I>, O extends
 		createFilterComputer(RandomAccessibleInterval<I> paddedInput,
 			RandomAccessibleInterval<K> paddedKernel,
 			RandomAccessibleInterval<C> fftImg, RandomAccessibleInterval<C> fftKernel,
-			RandomAccessibleInterval<O> output)
+			boolean performKernelFFT, RandomAccessibleInterval<O> output)
 	{
 		return Computers.binary(ops(), ConvolveFFTC.class, output, paddedInput,
-			paddedKernel, fftImg, fftKernel);
+			paddedKernel, fftImg, fftKernel, true, performKernelFFT);
+	}
+
+	@Override
+	protected boolean isFilterReusable() {
+		return true;
+	}
+
+	@Override
+	protected FFTPlan<C> getFFTPlan() {
+		return fftPlan;
 	}
 
 	@Override
@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.filter.convolve;
+
+import net.imagej.ops.Ops;
+import net.imagej.ops.filter.AbstractTiledFFTFilter;
+import net.imagej.ops.filter.FFTPlan;
+import net.imagej.ops.special.computer.BinaryComputerOp;
+import net.imagej.ops.special.computer.Computers;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.outofbounds.OutOfBoundsConstantValueFactory;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.complex.ComplexFloatType;
+import net.imglib2.util.Util;
+
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Convolve op for (@link RandomAccessibleInterval) which keeps the memory used
+ * for the FFTs within a given budget by convolving the image tile by tile
+ * (overlap-save) with {@link PadAndConvolveFFT}. The results are the same as
+ * those of {@link PadAndConvolveFFT} on the whole image, up to floating point
+ * rounding.
+ *
+ * @param <I>
+ * @param <O>
+ * @param <K>
+ */
+@Plugin(type = Ops.Filter.Convolve.class)
+public class TiledConvolveFFT<I extends RealType<I> & NativeType<I>, O extends RealType<O> & NativeType<O>, K extends RealType<K> & NativeType<K>>
+	extends AbstractTiledFFTFilter<I, O, K> implements Ops.Filter.Convolve
+{
+
+	/**
+	 * Defines the out of bounds strategy for the extended area of the input.
+	 * Defaults to zero padding, as for {@link PadAndConvolveFFT}.
+	 */
+	@Parameter(required = false)
+	private OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput;
+
+	@Override
+	public void initialize() {
+		super.initialize();
+
+		if (obfInput == null) {
+			obfInput = new OutOfBoundsConstantValueFactory<>(Util
+				.getTypeFromInterval(in()).createVariable());
+		}
+	}
+
+	@Override
+	protected OutOfBoundsFactory<I, RandomAccessibleInterval<I>> getOBFInput() {
+		return obfInput;
+	}
+
+	@Override
+	protected
+		BinaryComputerOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<K>, RandomAccessibleInterval<O>>
+		createTileComputer(final RandomAccessibleInterval<I> tileIn,
+			final RandomAccessibleInterval<K> kernel,
+			final RandomAccessibleInterval<O> tileOut,
+			final FFTPlan<ComplexFloatType> plan)
+	{
+		return Computers.binary(ops(), PadAndConvolveFFT.class, tileOut, tileIn,
+			kernel, null, null, null, null, null, plan);
+	}
+
+	@Override
+	protected long tileBytes(final long complexSize, final long paddedSize,
+		final long tileSize, final long outBytes)
+	{
+		// an input spectrum and an output tile
+		return COMPLEX_BYTES * complexSize + outBytes * tileSize;
+	}
+
+}
@@ -32,6 +32,7 @@ package net.imagej.ops.filter.correlate;
 import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
 import net.imagej.ops.filter.AbstractPadAndFFTFilter;
+import net.imagej.ops.filter.FFTPlan;
 import net.imagej.ops.special.computer.BinaryComputerOp;
 import net.imagej.ops.special.computer.Computers;
 import net.imglib2.RandomAccessibleInterval;
@@ -43,6 +44,7 @@ import net.imglib2.type.numeric.RealType;
 import net.imglib2.util.Intervals;
 
 import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 
 /**
@@ -60,6 +62,12 @@ public class PadAndCorrelateFFT<I extends RealType<I> & NativeType<I>, O extends
 	Ops.Filter.Correlate
 {
 
+	/**
+	 * Plan holding the kernel spectrum and complex buffers to reuse.
+	 */
+	@Parameter(required = false)
+	private FFTPlan<C> fftPlan;
+
 	@Override
 	public void initialize() {
 
@@ -82,10 +90,15 @@ public class PadAndCorrelateFFT<I extends RealType<I> & NativeType<I>, O extends
 		createFilterComputer(RandomAccessibleInterval<I> paddedInput,
 			RandomAccessibleInterval<K> paddedKernel,
 			RandomAccessibleInterval<C> fftImg, RandomAccessibleInterval<C> fftKernel,
-			RandomAccessibleInterval<O> output)
+			boolean performKernelFFT, RandomAccessibleInterval<O> output)
 	{
 		return Computers.binary(ops(), CorrelateFFTC.class, output,
-			paddedInput, paddedKernel, fftImg, fftKernel);
+			paddedInput, paddedKernel, fftImg, fftKernel, true, performKernelFFT);
+	}
+
+	@Override
+	protected FFTPlan<C> getFFTPlan() {
+		return fftPlan;
 	}
 
 	@Override
@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.filter.variance;
+
+import net.imagej.ops.Ops;
+import net.imagej.ops.filter.AbstractBoxFilter;
+import net.imglib2.type.numeric.RealType;
+
+import org.scijava.plugin.Plugin;
+
+/**
+ * {@link VarianceFilterOp} for real types and rectangular neighborhoods,
+ * computing the sample variances from box sums of the values and their
+ * squares, relative to the mean of the image. Where it applies, it is
+ * preferred over {@link DefaultVarianceFilter}.
+ *
+ * @param <T> input type
+ * @param <V> output type
+ */
+@Plugin(type = Ops.Filter.Variance.class)
+public class BoxVarianceFilter<T extends RealType<T>, V extends RealType<V>>
+	extends AbstractBoxFilter<T, V> implements VarianceFilterOp<T, V>
+{
+
+	@Override
+	protected boolean needsSquares() {
+		return true;
+	}
+
+	@Override
+	protected double value(final double mean, final double squaredDeviations,
+		final long count)
+	{
+		// NB: Same as IterableVariance, which is undefined for fewer than two
+		// values.
+		if (count < 2) return Double.NaN;
+		// NB: Rounding errors must not make the variance of a constant
+		// neighborhood negative.
+		return Math.max(0, squaredDeviations / (count - 1));
+	}
+
+}
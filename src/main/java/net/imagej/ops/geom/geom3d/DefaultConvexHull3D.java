@@ -29,8 +29,11 @@
 
 package net.imagej.ops.geom.geom3d;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -44,6 +47,8 @@ import net.imagej.ops.geom.geom3d.mesh.Horizon;
 import net.imagej.ops.geom.geom3d.mesh.TriangularFacet;
 import net.imagej.ops.geom.geom3d.mesh.Vertex;
 import net.imagej.ops.special.function.AbstractUnaryFunctionOp;
+import net.imagej.ops.thread.chunker.Chunk;
+import net.imagej.ops.thread.chunker.ChunkerOp;
 import net.imglib2.util.Pair;
 import net.imglib2.util.ValuePair;
 
@@ -58,6 +63,11 @@ import org.scijava.plugin.Plugin;
  * (http://dpd.cs.princeton.edu/Papers/BarberDobkinHuhdanpaa.pdf). The
  * computation of the initial simplex is inspired by John Lloyd's quickhull
  * implementation (http://www.cs.ubc.ca/~lloyd/java/quickhull3d.html).
+ * <p>
+ * The points are partitioned between the new facets in parallel. Shape
+ * descriptors which need the hull of the same mesh can share one computation
+ * by running in a {@link net.imagej.ops.cached.CachedOpEnvironment}.
+ * </p>
  * 
  * @author Tim-Oliver Buchholz (University of Konstanz)
  */
@@ -88,11 +98,15 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 			vertices.add(vertex);
 		}
 		List<TriangularFacet> facets = new ArrayList<>();
-		List<TriangularFacet> facetsWithPointInFront = new ArrayList<>();
-		epsilon = computeHull(vertices, facets, facetsWithPointInFront);
+		Set<TriangularFacet> removedFacets = Collections.newSetFromMap(
+			new IdentityHashMap<>());
+		FacetQueue facetsWithPointInFront = new FacetQueue();
+		epsilon = computeHull(vertices, facets, removedFacets,
+			facetsWithPointInFront);
 
 		final Map<Vertex, Long> vertexIndices = new HashMap<>();
 		for (final TriangularFacet f : facets) {
+			if (removedFacets.contains(f)) continue;
 			final Vertex v0 = f.getP0();
 			final Vertex v1 = f.getP1();
 			final Vertex v2 = f.getP2();
@@ -108,6 +122,7 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 			final double nz = normal.getZ();
 			output.triangles().add(vIndex0, vIndex1, vIndex2, nx, ny, nz);
 		}
+
 		return output;
 	}
 
@@ -118,13 +133,14 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 	 */
 	private double computeHull(final Set<Vertex> vertices,
 		final List<TriangularFacet> facets,
-		final List<TriangularFacet> facetsWithPointInFront)
+		final Set<TriangularFacet> removedFacets,
+		final FacetQueue facetsWithPointInFront)
 	{
 		final double eps = createSimplex(vertices, facets,
 			facetsWithPointInFront);
 		while (!facetsWithPointInFront.isEmpty()) {
-			replaceFacet(eps, vertices, facets, facetsWithPointInFront,
-				facetsWithPointInFront.remove(0));
+			replaceFacet(eps, vertices, facets, removedFacets,
+				facetsWithPointInFront, facetsWithPointInFront.poll());
 		}
 
 		return eps;
@@ -138,11 +154,11 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 	 */
 	private void replaceFacet(final double eps, final Set<Vertex> vertices,
 		final List<TriangularFacet> facets,
-		final List<TriangularFacet> facetsPointInFront,
-		final TriangularFacet facet)
+		final Set<TriangularFacet> removedFacets,
+		final FacetQueue facetsPointInFront, final TriangularFacet facet)
 	{
 		final Vertex v = facet.getMaximumDistanceVertex();
-		final Horizon horizon = computeHorizon(eps, vertices, facets,
+		final Horizon horizon = computeHorizon(eps, vertices, removedFacets,
 			facetsPointInFront, facet, v);
 		assignPointsToFacets(eps, vertices, createFacets(horizon, v), facets,
 			facetsPointInFront);
@@ -232,8 +248,8 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 	 * @return facet containing all facets which are in front of vTop
 	 */
 	private Horizon computeHorizon(final double eps,
-		final Set<Vertex> vertices, final List<TriangularFacet> facets,
-		final List<TriangularFacet> facetsWithPointInFront,
+		final Set<Vertex> vertices, final Set<TriangularFacet> removedFacets,
+		final FacetQueue facetsWithPointInFront,
 		final TriangularFacet frontFacet, final Vertex vTop)
 	{
 		// Points which are in front have to be reassigned after all new facets
@@ -241,7 +257,7 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 		vertices.addAll(frontFacet.getVerticesInFront());
 
 		// frontFacet is not a result facet. Remove it from result list.
-		facets.remove(frontFacet);
+		removedFacets.add(frontFacet);
 
 		Horizon h = new Horizon(frontFacet);
 		TriangularFacet merge = nextFacetToMerge(eps, h, vTop);
@@ -250,7 +266,7 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 			vertices.addAll(merge.getVerticesInFront());
 			// This face has some points in front and therefore is not a result
 			// face.
-			facets.remove(merge);
+			removedFacets.add(merge);
 			// After this step this facet is merged with another facet.
 			facetsWithPointInFront.remove(merge);
 
@@ -349,33 +365,53 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 	private void assignPointsToFacets(final double eps,
 		final Set<Vertex> vertices, final List<TriangularFacet> newFacets,
 		final List<TriangularFacet> facets,
-		final List<TriangularFacet> facetsWithPointInFront)
+		final FacetQueue facetsWithPointInFront)
 	{
-		Iterator<Vertex> vertexIt = vertices.iterator();
-		while (vertexIt.hasNext()) {
-			Vertex v = vertexIt.next();
-
-			Iterator<TriangularFacet> facetIt = newFacets.iterator();
-			TriangularFacet maxFacet = null;
-			double maxdis = eps;
-
-			while (facetIt.hasNext()) {
-				TriangularFacet f = facetIt.next();
-				double distanceToPlane = f.distanceToPlane(v);
-				// point is assigned to the facet with maximum distance
-				if (distanceToPlane > maxdis) {
-					maxdis = distanceToPlane;
-					maxFacet = f;
+		final Vertex[] points = vertices.toArray(new Vertex[vertices.size()]);
+		final TriangularFacet[] candidates = newFacets.toArray(
+			new TriangularFacet[newFacets.size()]);
+		for (final TriangularFacet f : candidates) {
+			// NB: Compute the planes before they are accessed concurrently.
+			f.getPlaneOffset();
+		}
+
+		// find the facet with maximum distance of each point in parallel
+		final int[] maxFacets = new int[points.length];
+		final double[] maxDistances = new double[points.length];
+		ops().run(ChunkerOp.class, new Chunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				int i = (int) startIndex;
+				for (long s = 0; s < numSteps; s++, i += stepSize) {
+					int maxFacet = -1;
+					double maxdis = eps;
+					for (int f = 0; f < candidates.length; f++) {
+						final double distanceToPlane = candidates[f].distanceToPlane(
+							points[i]);
+						// point is assigned to the facet with maximum distance
+						if (distanceToPlane > maxdis) {
+							maxdis = distanceToPlane;
+							maxFacet = f;
+						}
+					}
+					maxFacets[i] = maxFacet;
+					maxDistances[i] = maxdis;
 				}
 			}
+		}, points.length);
 
-			// If maxFacet == null this vertex is behind all facets and
+		// assign the points in their original order, so that the result does not
+		// depend on the parallelization
+		for (int i = 0; i < points.length; i++) {
+			// If there is no facet this vertex is behind all facets and
 			// therefore on the inside of the convex hull.
-			if (maxFacet != null) {
-				maxFacet.setVertexInFront(v, maxdis);
-				if (!facetsWithPointInFront.contains(maxFacet)) {
-					facetsWithPointInFront.add(maxFacet);
-				}
+			if (maxFacets[i] >= 0) {
+				final TriangularFacet maxFacet = candidates[maxFacets[i]];
+				maxFacet.setVertexInFront(points[i], maxDistances[i]);
+				facetsWithPointInFront.add(maxFacet);
 			}
 		}
 
@@ -393,7 +429,7 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 	 */
 	private double createSimplex(final Set<Vertex> vertices,
 		final List<TriangularFacet> facets,
-		final List<TriangularFacet> facetsWithPointInFront)
+		final FacetQueue facetsWithPointInFront)
 	{
 
 		final Pair<Double, Vertex[]> minMax = computeMinMax(vertices);
@@ -608,4 +644,39 @@ public class DefaultConvexHull3D extends AbstractUnaryFunctionOp<Mesh, Mesh>
 		return new ValuePair<>(eps, minMax);
 	}
 
+	// -- Helper classes --
+
+	/**
+	 * First-in, first-out queue of the facets with points in front, with
+	 * constant time membership tests and removals.
+	 */
+	private static final class FacetQueue {
+
+		private final ArrayDeque<TriangularFacet> order = new ArrayDeque<>();
+
+		private final Set<TriangularFacet> members = Collections.newSetFromMap(
+			new IdentityHashMap<>());
+
+		/** Appends the facet, unless it is queued already. */
+		public void add(final TriangularFacet f) {
+			if (members.add(f)) order.add(f);
+		}
+
+		public void remove(final TriangularFacet f) {
+			members.remove(f);
+		}
+
+		public boolean isEmpty() {
+			return members.isEmpty();
+		}
+
+		/** Removes and returns the facet which has been queued first. */
+		public TriangularFacet poll() {
+			while (true) {
+				final TriangularFacet f = order.poll();
+				if (f == null || members.remove(f)) return f;
+			}
+		}
+	}
+
 }
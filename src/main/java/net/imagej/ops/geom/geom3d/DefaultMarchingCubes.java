@@ -29,30 +29,43 @@
 
 package net.imagej.ops.geom.geom3d;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import net.imagej.mesh.Mesh;
 import net.imagej.mesh.naive.NaiveDoubleMesh;
 import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
+import net.imagej.ops.geom.geom3d.mesh.BitTypeVertexInterpolator;
 import net.imagej.ops.geom.geom3d.mesh.DefaultVertexInterpolator;
 import net.imagej.ops.geom.geom3d.mesh.VertexInterpolator;
 import net.imagej.ops.special.function.AbstractUnaryFunctionOp;
-import net.imglib2.Cursor;
-import net.imglib2.FinalInterval;
+import net.imagej.ops.thread.ThreadUtil;
+import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.type.BooleanType;
-import net.imglib2.type.logic.BoolType;
-import net.imglib2.view.ExtendedRandomAccessibleInterval;
-import net.imglib2.view.Views;
+import net.imglib2.util.Intervals;
 
 import org.apache.commons.math3.util.MathArrays;
 import org.scijava.ItemIO;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.thread.ThreadService;
+import org.scijava.util.DoubleArray;
+import org.scijava.util.IntArray;
 
 /**
  * This is a marching cubes implementation. It is inspired by Paul Bourke's
  * (http://paulbourke.net/geometry/polygonise/) implementation. Especially the
  * lookup tables are from his implementation.
+ * <p>
+ * The volume is split into slabs of layers of cubes, which are marched in
+ * parallel. Vertices are shared between the triangles of adjacent cubes, and
+ * the triangles are emitted in the same order as by a sequential scan.
+ * </p>
  * 
  * @author Tim-Oliver Buchholz (University of Konstanz)
  * @param <T> BooleanType
@@ -63,6 +76,9 @@ public class DefaultMarchingCubes<T extends BooleanType<T>> extends
 	Ops.Geometric.MarchingCubes, Contingent
 {
 
+	/** Number of slabs per thread. */
+	private static final int SLABS_PER_THREAD = 4;
+
 	@Parameter(type = ItemIO.INPUT, required = false)
 	private double isolevel = 1;
 
@@ -70,121 +86,82 @@ public class DefaultMarchingCubes<T extends BooleanType<T>> extends
 	private VertexInterpolator interpolatorClass =
 		new DefaultVertexInterpolator();
 
-	@SuppressWarnings({ "unchecked" })
+	@Parameter
+	private ThreadService ts;
+
 	@Override
 	public Mesh calculate(final RandomAccessibleInterval<T> input) {
-		Mesh output = new NaiveDoubleMesh();
-		ExtendedRandomAccessibleInterval<T, RandomAccessibleInterval<T>> extended =
-			Views.extendValue(input, (T) new BoolType(false));
-		Cursor<T> c = Views.interval(extended, new FinalInterval(new long[] { input
-			.min(0) - 1, input.min(1) - 1, input.min(2) - 1 }, new long[] { input.max(
-				0) + 1, input.max(1) + 1, input.max(2) + 1 })).localizingCursor();
-
-		while (c.hasNext()) {
-			c.next();
-
-			int cursorX = c.getIntPosition(0);
-			int cursorY = c.getIntPosition(1);
-			int cursorZ = c.getIntPosition(2);
-			Cursor<T> cu = getCube(extended, cursorX, cursorY, cursorZ);
-			int i = 0;
-			double[] vertex_values = new double[8];
-			while (cu.hasNext()) {
-				vertex_values[i++] = (cu.next().get()) ? 1 : 0;
+		// NB: The cubes extend one pixel beyond the input on each side, so the
+		// corner grid extends one more pixel beyond the last cube.
+		final long[] min = Intervals.minAsLongArray(input);
+		final int nx = (int) input.dimension(0) + 3;
+		final int ny = (int) input.dimension(1) + 3;
+		final int numLayers = (int) input.dimension(2) + 2;
+
+		final int numSlabs = ThreadUtil.numTasks(ts, numLayers,
+			SLABS_PER_THREAD);
+		final List<Slab> slabs = new ArrayList<>(numSlabs);
+		final List<Future<?>> futures = new ArrayList<>(numSlabs);
+		for (int s = 0; s < numSlabs; s++) {
+			final Slab slab = new Slab(input, min, nx, ny, numLayers * s / numSlabs,
+				numLayers * (s + 1) / numSlabs);
+			slabs.add(slab);
+			futures.add(ts.run(slab));
+		}
+
+		try {
+			for (final Future<?> future : futures) {
+				future.get();
 			}
-			// 6------7
-			// /| /|
-			// 2-----3 |
-			// | 4---|-5
-			// |/ |/
-			// 0-----1
-			vertex_values = mapFlatIterableToLookUpCube(vertex_values);
-			// 4------5
-			// /| /|
-			// 7-----6 |
-			// | 0---|-1
-			// |/ |/
-			// 3-----2
-			int cubeindex = getCubeIndex(vertex_values);
-
-			if (EDGE_TABLE[cubeindex] != 0) {
-				int[] p0 = new int[] { 0 + cursorX, 0 + cursorY, 1 + cursorZ };
-				int[] p1 = new int[] { 1 + cursorX, 0 + cursorY, 1 + cursorZ };
-				int[] p2 = new int[] { 1 + cursorX, 0 + cursorY, 0 + cursorZ };
-				int[] p3 = new int[] { 0 + cursorX, 0 + cursorY, 0 + cursorZ };
-				int[] p4 = new int[] { 0 + cursorX, 1 + cursorY, 1 + cursorZ };
-				int[] p5 = new int[] { 1 + cursorX, 1 + cursorY, 1 + cursorZ };
-				int[] p6 = new int[] { 1 + cursorX, 1 + cursorY, 0 + cursorZ };
-				int[] p7 = new int[] { 0 + cursorX, 1 + cursorY, 0 + cursorZ };
-
-				double[][] vertlist = new double[12][];
-
-				/* Find the vertices where the surface intersects the cube */
-				if (0 != (EDGE_TABLE[cubeindex] & 1)) {
-					vertlist[0] = interpolatePoint(p0, p1, vertex_values[0],
-						vertex_values[1]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 2)) {
-					vertlist[1] = interpolatePoint(p1, p2, vertex_values[1],
-						vertex_values[2]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 4)) {
-					vertlist[2] = interpolatePoint(p2, p3, vertex_values[2],
-						vertex_values[3]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 8)) {
-					vertlist[3] = interpolatePoint(p3, p0, vertex_values[3],
-						vertex_values[0]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 16)) {
-					vertlist[4] = interpolatePoint(p4, p5, vertex_values[4],
-						vertex_values[5]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 32)) {
-					vertlist[5] = interpolatePoint(p5, p6, vertex_values[5],
-						vertex_values[6]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 64)) {
-					vertlist[6] = interpolatePoint(p6, p7, vertex_values[6],
-						vertex_values[7]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 128)) {
-					vertlist[7] = interpolatePoint(p7, p4, vertex_values[7],
-						vertex_values[4]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 256)) {
-					vertlist[8] = interpolatePoint(p0, p4, vertex_values[0],
-						vertex_values[4]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 512)) {
-					vertlist[9] = interpolatePoint(p1, p5, vertex_values[1],
-						vertex_values[5]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 1024)) {
-					vertlist[10] = interpolatePoint(p2, p6, vertex_values[2],
-						vertex_values[6]);
-				}
-				if (0 != (EDGE_TABLE[cubeindex] & 2048)) {
-					vertlist[11] = interpolatePoint(p3, p7, vertex_values[3],
-						vertex_values[7]);
-				}
+		}
+		catch (final InterruptedException | ExecutionException exc) {
+			final Throwable cause = exc.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new RuntimeException(exc);
+		}
 
-				/* Create the triangle */
-				for (i = 0; TRIANGLE_TABLE[cubeindex][i] != -1; i += 3) {
-					final double v0x = vertlist[TRIANGLE_TABLE[cubeindex][i + 2]][0];
-					final double v0y = vertlist[TRIANGLE_TABLE[cubeindex][i + 2]][1];
-					final double v0z = vertlist[TRIANGLE_TABLE[cubeindex][i + 2]][2];
-					final double v1x = vertlist[TRIANGLE_TABLE[cubeindex][i + 1]][0];
-					final double v1y = vertlist[TRIANGLE_TABLE[cubeindex][i + 1]][1];
-					final double v1z = vertlist[TRIANGLE_TABLE[cubeindex][i + 1]][2];
-					final double v2x = vertlist[TRIANGLE_TABLE[cubeindex][i]][0];
-					final double v2y = vertlist[TRIANGLE_TABLE[cubeindex][i]][1];
-					final double v2z = vertlist[TRIANGLE_TABLE[cubeindex][i]][2];
-					if (positiveArea(v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z)) {
-						output.triangles().add(v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z);
-					}
+		return merge(slabs, nx * ny * 4);
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Appends the vertices and triangles of the slabs to a new mesh, in slab
+	 * order. Vertices on the plane between two slabs are added only once.
+	 */
+	private Mesh merge(final List<Slab> slabs, final int planeSize) {
+		final Mesh output = new NaiveDoubleMesh();
+
+		// mesh indices of the vertices on the top plane of the previous slab
+		final long[] previousTop = new long[planeSize];
+		Arrays.fill(previousTop, -1);
+
+		for (final Slab slab : slabs) {
+			final DoubleArray coords = slab.coords;
+			final long[] indices = new long[coords.size() / 3];
+			Arrays.fill(indices, -1);
+			for (int i = 0; i < slab.bottom.size(); i += 2) {
+				indices[slab.bottom.getValue(i + 1)] = previousTop[slab.bottom
+					.getValue(i)];
+			}
+			for (int v = 0; v < indices.length; v++) {
+				if (indices[v] < 0) {
+					indices[v] = output.vertices().add(coords.getValue(3 * v), coords
+						.getValue(3 * v + 1), coords.getValue(3 * v + 2));
 				}
 			}
+
+			Arrays.fill(previousTop, -1);
+			for (int i = 0; i < slab.top.size(); i += 2) {
+				previousTop[slab.top.getValue(i)] = indices[slab.top.getValue(i + 1)];
+			}
+
+			final IntArray triangles = slab.triangles;
+			for (int i = 0; i < triangles.size(); i += 3) {
+				output.triangles().add(indices[triangles.getValue(i)],
+					indices[triangles.getValue(i + 1)], indices[triangles.getValue(i +
+						2)]);
+			}
 		}
 		return output;
 	}
@@ -208,50 +185,260 @@ public class DefaultMarchingCubes<T extends BooleanType<T>> extends
 		return cpx != 0 || cpy != 0 || cpz != 0;
 	}
 
-	private double[] interpolatePoint(int[] p0, int[] p1, double v0, double v1) {
-		interpolatorClass.setPoint1(p0);
-		interpolatorClass.setPoint2(p1);
-		interpolatorClass.setValue1(v0);
-		interpolatorClass.setValue2(v1);
-		interpolatorClass.setIsoLevel(isolevel);
-		interpolatorClass.run();
-
-		return interpolatorClass.getOutput();
+	/**
+	 * Interpolates the point where the surface intersects the edge from
+	 * {@code p0} to {@code p1}. The default interpolators are evaluated in
+	 * place, others are shared between the slabs and therefore synchronized.
+	 */
+	private void interpolatePoint(final long[] p0, final long[] p1,
+		final double v0, final double v1, final double[] point)
+	{
+		if (interpolatorClass.getClass() == DefaultVertexInterpolator.class) {
+			for (int i = 0; i < 3; i++) {
+				point[i] = DefaultVertexInterpolator.interpolate(p0[i], p1[i], v0, v1,
+					isolevel);
+			}
+		}
+		else if (interpolatorClass.getClass() == BitTypeVertexInterpolator.class) {
+			for (int i = 0; i < 3; i++) {
+				point[i] = (p0[i] + p1[i]) / 2.0;
+			}
+		}
+		else {
+			synchronized (interpolatorClass) {
+				interpolatorClass.setPoint1(new int[] { (int) p0[0], (int) p0[1],
+					(int) p0[2] });
+				interpolatorClass.setPoint2(new int[] { (int) p1[0], (int) p1[1],
+					(int) p1[2] });
+				interpolatorClass.setValue1(v0);
+				interpolatorClass.setValue2(v1);
+				interpolatorClass.setIsoLevel(isolevel);
+				interpolatorClass.run();
+				System.arraycopy(interpolatorClass.getOutput(), 0, point, 0, 3);
+			}
+		}
 	}
 
-	private int getCubeIndex(final double[] vertex_values) {
-		int cubeindex = 0;
-		for (int i = 0; i < 8; i++) {
-			if (vertex_values[i] < isolevel) {
-				cubeindex |= (int) Math.pow(2, i);
+	// -- Helper classes --
+
+	/**
+	 * Marches the cubes of a range of layers, scanning layer by layer. Each
+	 * vertex is computed once and identified by the edge it lies on, or by the
+	 * corner it coincides with. The indices of the vertices on the two corner
+	 * planes of the current layer are cached in primitive arrays, which are
+	 * indexed by {@code ((y * nx + x) * 4 + k)} where {@code k} is the axis of
+	 * the edge starting at the corner {@code (x, y)} or 3 for the corner itself.
+	 */
+	private class Slab implements Runnable {
+
+		private final RandomAccessibleInterval<T> input;
+		private final long[] min;
+		private final int nx;
+		private final int ny;
+		private final int startLayer;
+		private final int endLayer;
+
+		/** Coordinates of the vertices of this slab. */
+		private final DoubleArray coords = new DoubleArray();
+
+		/** Slab vertex indices of the triangles. */
+		private final IntArray triangles = new IntArray();
+
+		/** Pairs of plane cache index and vertex index on the bottom plane. */
+		private final IntArray bottom = new IntArray();
+
+		/** Pairs of plane cache index and vertex index on the top plane. */
+		private final IntArray top = new IntArray();
+
+		private boolean[] lowerValues;
+		private boolean[] upperValues;
+		private int[] lowerCache;
+		private int[] upperCache;
+
+		private final int[] vertices = new int[12];
+		private final long[] p0 = new long[3];
+		private final long[] p1 = new long[3];
+		private final double[] point = new double[3];
+
+		public Slab(final RandomAccessibleInterval<T> input, final long[] min,
+			final int nx, final int ny, final int startLayer, final int endLayer)
+		{
+			this.input = input;
+			this.min = min;
+			this.nx = nx;
+			this.ny = ny;
+			this.startLayer = startLayer;
+			this.endLayer = endLayer;
+		}
+
+		@Override
+		public void run() {
+			final RandomAccess<T> ra = input.randomAccess();
+			lowerValues = new boolean[nx * ny];
+			upperValues = new boolean[nx * ny];
+			lowerCache = new int[nx * ny * 4];
+			upperCache = new int[nx * ny * 4];
+
+			Arrays.fill(lowerCache, -1);
+			readPlane(ra, startLayer, lowerValues);
+			for (int z = startLayer; z < endLayer; z++) {
+				readPlane(ra, z + 1, upperValues);
+				Arrays.fill(upperCache, -1);
+
+				for (int y = 0; y < ny - 1; y++) {
+					for (int x = 0; x < nx - 1; x++) {
+						march(x, y, z);
+					}
+				}
+
+				if (z == startLayer) collect(lowerCache, bottom);
+
+				final boolean[] values = lowerValues;
+				lowerValues = upperValues;
+				upperValues = values;
+				final int[] cache = lowerCache;
+				lowerCache = upperCache;
+				upperCache = cache;
 			}
+			collect(lowerCache, top);
 		}
-		return cubeindex;
-	}
 
-	private double[] mapFlatIterableToLookUpCube(final double[] vertex_values) {
-		double[] vv = new double[8];
-		vv[0] = vertex_values[4];
-		vv[1] = vertex_values[5];
-		vv[2] = vertex_values[1];
-		vv[3] = vertex_values[0];
-		vv[4] = vertex_values[6];
-		vv[5] = vertex_values[7];
-		vv[6] = vertex_values[3];
-		vv[7] = vertex_values[2];
-		
-		return vv;
-	}
+		/** Reads the values of a corner plane, which are false outside the input. */
+		private void readPlane(final RandomAccess<T> ra, final int z,
+			final boolean[] values)
+		{
+			Arrays.fill(values, false);
+			if (z < 1 || z > input.dimension(2)) return;
+			ra.setPosition(min[2] - 1 + z, 2);
+			for (int y = 1; y <= input.dimension(1); y++) {
+				ra.setPosition(min[1] - 1 + y, 1);
+				ra.setPosition(min[0], 0);
+				for (int x = 1; x <= input.dimension(0); x++) {
+					values[y * nx + x] = ra.get().get();
+					ra.fwd(0);
+				}
+			}
+		}
 
-	private Cursor<T> getCube(
-		final ExtendedRandomAccessibleInterval<T, RandomAccessibleInterval<T>> extended,
-		final int cursorX, final int cursorY, final int cursorZ)
-	{
-		return Views.flatIterable(Views.interval(extended, new FinalInterval(
-			new long[] { cursorX, cursorY, cursorZ }, new long[] { cursorX + 1,
-				cursorY + 1, cursorZ + 1 }))).cursor();
+		/** Collects the vertices which lie in a corner plane. */
+		private void collect(final int[] cache, final IntArray pairs) {
+			for (int i = 0; i < cache.length; i++) {
+				if (cache[i] >= 0 && i % 4 != 2) {
+					pairs.addValue(i);
+					pairs.addValue(cache[i]);
+				}
+			}
+		}
+
+		private boolean value(final int x, final int y, final int dz) {
+			return (dz == 0 ? lowerValues : upperValues)[y * nx + x];
+		}
+
+		private void march(final int x, final int y, final int z) {
+			int cubeindex = 0;
+			for (int i = 0; i < 8; i++) {
+				final int[] c = CORNERS[i];
+				final double v = value(x + c[0], y + c[1], c[2]) ? 1 : 0;
+				if (v < isolevel) cubeindex |= 1 << i;
+			}
+
+			final int edges = EDGE_TABLE[cubeindex];
+			if (edges == 0) return;
+
+			/* Find the vertices where the surface intersects the cube */
+			for (int e = 0; e < 12; e++) {
+				if (0 != (edges & (1 << e))) vertices[e] = vertex(x, y, z, EDGES[e]);
+			}
+
+			/* Create the triangle */
+			final int[] triangleTable = TRIANGLE_TABLE[cubeindex];
+			for (int i = 0; triangleTable[i] != -1; i += 3) {
+				final int v0 = vertices[triangleTable[i + 2]];
+				final int v1 = vertices[triangleTable[i + 1]];
+				final int v2 = vertices[triangleTable[i]];
+				if (positiveArea(coords.getValue(3 * v0), coords.getValue(3 * v0 + 1),
+					coords.getValue(3 * v0 + 2), coords.getValue(3 * v1), coords
+						.getValue(3 * v1 + 1), coords.getValue(3 * v1 + 2), coords
+							.getValue(3 * v2), coords.getValue(3 * v2 + 1), coords
+								.getValue(3 * v2 + 2)))
+				{
+					triangles.addValue(v0);
+					triangles.addValue(v1);
+					triangles.addValue(v2);
+				}
+			}
+		}
+
+		/**
+		 * Gets the index of the vertex on the given edge of the cube, computing
+		 * it if it is not cached yet.
+		 */
+		private int vertex(final int x, final int y, final int z,
+			final int[] edge)
+		{
+			final int x0 = x + edge[0];
+			final int y0 = y + edge[1];
+			final int dz0 = edge[2];
+			final int axis = edge[3];
+			final int[] cache0 = dz0 == 0 ? lowerCache : upperCache;
+			final int key = (y0 * nx + x0) * 4 + axis;
+			if (cache0[key] >= 0) return cache0[key];
+
+			final int x1 = axis == 0 ? x0 + 1 : x0;
+			final int y1 = axis == 1 ? y0 + 1 : y0;
+			final int dz1 = axis == 2 ? 1 : dz0;
+			p0[0] = min[0] - 1 + x0;
+			p0[1] = min[1] - 1 + y0;
+			p0[2] = min[2] - 1 + z + dz0;
+			p1[0] = min[0] - 1 + x1;
+			p1[1] = min[1] - 1 + y1;
+			p1[2] = min[2] - 1 + z + dz1;
+			interpolatePoint(p0, p1, value(x0, y0, dz0) ? 1 : 0, value(x1, y1,
+				dz1) ? 1 : 0, point);
+
+			// vertices on a corner are shared by all edges of the corner
+			int[] cornerCache = null;
+			int cornerKey = -1;
+			if (point[0] == p0[0] && point[1] == p0[1] && point[2] == p0[2]) {
+				cornerCache = cache0;
+				cornerKey = (y0 * nx + x0) * 4 + 3;
+			}
+			else if (point[0] == p1[0] && point[1] == p1[1] && point[2] == p1[2]) {
+				cornerCache = dz1 == 0 ? lowerCache : upperCache;
+				cornerKey = (y1 * nx + x1) * 4 + 3;
+			}
+			if (cornerCache != null && cornerCache[cornerKey] >= 0) {
+				cache0[key] = cornerCache[cornerKey];
+				return cache0[key];
+			}
+
+			final int index = coords.size() / 3;
+			coords.addValue(point[0]);
+			coords.addValue(point[1]);
+			coords.addValue(point[2]);
+			cache0[key] = index;
+			if (cornerCache != null) cornerCache[cornerKey] = index;
+			return index;
+		}
 	}
 
+	// Corners of the lookup cube, relative to the cube position:
+	// 4------5
+	// /| /|
+	// 7-----6 |
+	// | 0---|-1
+	// |/ |/
+	// 3-----2
+	private static final int[][] CORNERS = { { 0, 0, 1 }, { 1, 0, 1 }, { 1, 0,
+		0 }, { 0, 0, 0 }, { 0, 1, 1 }, { 1, 1, 1 }, { 1, 1, 0 }, { 0, 1, 0 } };
+
+	// Edges of the lookup cube, as the position of their lower corner relative
+	// to the cube position and their axis
+	private static final int[][] EDGES = { { 0, 0, 1, 0 }, { 1, 0, 0, 2 }, { 0, 0,
+		0, 0 }, { 0, 0, 0, 2 }, { 0, 1, 1, 0 }, { 1, 1, 0, 2 }, { 0, 1, 0, 0 }, { 0,
+			1, 0, 2 }, { 0, 0, 1, 1 }, { 1, 0, 1, 1 }, { 1, 0, 0, 1 }, { 0, 0, 0,
+				1 } };
+
 	// For any edge, if one vertex is inside of the surface and the other is
 	// outside of the surface
 	// then the edge intersects the surface
@@ -51,26 +51,29 @@ public class DefaultVertexInterpolator extends AbstractVertexInterpolator
 	@Override
 	public void run() {
 		output = new double[3];
+		for (int i = 0; i < 3; i++) {
+			output[i] = interpolate(p1[i], p2[i], p1Value, p2Value, isolevel);
+		}
+	}
 
+	/**
+	 * Interpolates one coordinate of the position where the isosurface cuts the
+	 * edge between two vertices.
+	 */
+	public static double interpolate(final double p1, final double p2,
+		final double p1Value, final double p2Value, final double isolevel)
+	{
 		if (Math.abs(isolevel - p1Value) < 0.00001) {
-			for (int i = 0; i < 3; i++) {
-				output[i] = p1[i];
-			}
-		} else if (Math.abs(isolevel - p2Value) < 0.00001) {
-			for (int i = 0; i < 3; i++) {
-				output[i] = p2[i];
-			}
-		} else if (Math.abs(p1Value - p2Value) < 0.00001) {
-			for (int i = 0; i < 3; i++) {
-				output[i] = p1[i];
-			}
-		} else {
-			double mu = (isolevel - p1Value) / (p2Value - p1Value);
-
-			output[0] = p1[0] + mu * (p2[0] - p1[0]);
-			output[1] = p1[1] + mu * (p2[1] - p1[1]);
-			output[2] = p1[2] + mu * (p2[2] - p1[2]);
+			return p1;
+		}
+		else if (Math.abs(isolevel - p2Value) < 0.00001) {
+			return p2;
+		}
+		else if (Math.abs(p1Value - p2Value) < 0.00001) {
+			return p1;
 		}
+		double mu = (isolevel - p1Value) / (p2Value - p1Value);
+		return p1 + mu * (p2 - p1);
 	}
 
 	@Override
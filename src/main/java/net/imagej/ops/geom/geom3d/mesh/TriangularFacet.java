@@ -56,6 +56,16 @@ public class TriangularFacet extends UpdateablePointSet<TriangularFacet> impleme
 	 */
 	private Vector3D normal = null;
 
+	/**
+	 * The normalized normal of this facet.
+	 */
+	private Vector3D unitNormal = null;
+
+	/**
+	 * The offset of the plane of this facet.
+	 */
+	private double planeOffset;
+
 	/**
 	 * The area of this facet.
 	 */
@@ -161,7 +171,19 @@ public class TriangularFacet extends UpdateablePointSet<TriangularFacet> impleme
 	 * @return the offset
 	 */
 	public double getPlaneOffset() {
-		return getNormal().normalize().dotProduct(getCentroid());
+		if (unitNormal == null) {
+			computePlane();
+		}
+		return planeOffset;
+	}
+
+	/**
+	 * Compute the normalized normal and the offset of the plane of this facet.
+	 */
+	private void computePlane() {
+		final Vector3D n = getNormal().normalize();
+		planeOffset = n.dotProduct(getCentroid());
+		unitNormal = n;
 	}
 
 	/**
@@ -170,7 +192,8 @@ public class TriangularFacet extends UpdateablePointSet<TriangularFacet> impleme
 	 * @return the distance
 	 */
 	public double distanceToPlane(final Vector3D p) {
-		return getNormal().normalize().dotProduct(p) - getPlaneOffset();
+		final double offset = getPlaneOffset();
+		return unitNormal.dotProduct(p) - offset;
 	}
 
 	/** 
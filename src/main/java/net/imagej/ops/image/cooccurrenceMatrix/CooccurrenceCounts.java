@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.image.cooccurrenceMatrix;
+
+/**
+ * Integer pair counts of a cooccurrence matrix, as accumulated by the
+ * {@link CooccurrenceEngine}. The counts are normalized to probabilities only
+ * on request.
+ */
+public final class CooccurrenceCounts {
+
+	private final int nrGreyLevels;
+
+	private final long[] counts;
+
+	private final long nrPairs;
+
+	CooccurrenceCounts(final int nrGreyLevels, final long[] counts,
+		final long nrPairs)
+	{
+		this.nrGreyLevels = nrGreyLevels;
+		this.counts = counts;
+		this.nrPairs = nrPairs;
+	}
+
+	public int getNrGreyLevels() {
+		return nrGreyLevels;
+	}
+
+	/** @return the total number of counted pixel pairs */
+	public long getNrPairs() {
+		return nrPairs;
+	}
+
+	/**
+	 * @return how often a pixel of the first grey level was paired with a pixel
+	 *         of the second
+	 */
+	public long getCount(final int first, final int second) {
+		return counts[first * nrGreyLevels + second];
+	}
+
+	/**
+	 * @return the fraction of all pairs with the given grey levels, or 0 if no
+	 *         pair was counted
+	 */
+	public double getProbability(final int first, final int second) {
+		return nrPairs > 0 ? getCount(first, second) * (1.0 / nrPairs) : 0;
+	}
+
+	/**
+	 * Creates the normalized cooccurrence matrix, as returned by
+	 * {@link CooccurrenceMatrix2D} and {@link CooccurrenceMatrix3D}.
+	 */
+	public double[][] toMatrix() {
+		final double[][] matrix = new double[nrGreyLevels][nrGreyLevels];
+		final double divisor = nrPairs > 0 ? 1.0 / nrPairs : 1.0;
+		for (int row = 0; row < nrGreyLevels; row++) {
+			final int offset = row * nrGreyLevels;
+			for (int col = 0; col < nrGreyLevels; col++) {
+				matrix[row][col] = counts[offset + col] * divisor;
+			}
+		}
+		return matrix;
+	}
+
+}
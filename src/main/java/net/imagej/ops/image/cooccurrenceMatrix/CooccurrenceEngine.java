@@ -0,0 +1,257 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.image.cooccurrenceMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.DoubleToIntFunction;
+
+import net.imagej.ops.thread.ThreadUtil;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+import net.imglib2.type.numeric.RealType;
+
+import org.scijava.thread.ThreadService;
+
+/**
+ * Accumulates the cooccurrence counts of an n-dimensional
+ * {@link IterableInterval} for several orientations and distances at once.
+ * <p>
+ * The input is iterated a single time to quantize its values into a compact
+ * mask spanning its bounding box, which also records which pixels belong to
+ * it. Pairs are then only formed from the iterated pixels, so sparse regions
+ * cost time in proportion to their size rather than to their bounding box.
+ * The pixels are split into contiguous bands which are counted in parallel
+ * and summed up afterwards.
+ * </p>
+ */
+public final class CooccurrenceEngine {
+
+	/** Minimum number of pixels worth a task of its own. */
+	private static final int MIN_PIXELS_PER_TASK = 1 << 14;
+
+	/** Marks bounding box pixels which are not part of the input. */
+	private static final short NOT_IN_MASK = -1;
+
+	private final int nrGreyLevels;
+
+	private final int numDimensions;
+
+	/** Pixel offset of the second pixel of a pair, per matrix and dimension. */
+	private final int[][] offsets;
+
+	/**
+	 * Creates an engine for one matrix per combination of orientation and
+	 * distance, in orientation-major order.
+	 */
+	public CooccurrenceEngine(final int nrGreyLevels,
+		final MatrixOrientation[] orientations, final int... distances)
+	{
+		if (nrGreyLevels < 1 || nrGreyLevels > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Unsupported number of grey levels: " +
+				nrGreyLevels);
+		}
+		if (orientations.length == 0 || distances.length == 0) {
+			throw new IllegalArgumentException(
+				"At least one orientation and distance is required");
+		}
+		this.nrGreyLevels = nrGreyLevels;
+		numDimensions = orientations[0].numDims();
+		offsets = new int[orientations.length * distances.length][numDimensions];
+		for (int o = 0; o < orientations.length; o++) {
+			if (orientations[o].numDims() != numDimensions) {
+				throw new IllegalArgumentException(
+					"All orientations must have the same dimensionality");
+			}
+			for (int i = 0; i < distances.length; i++) {
+				for (int d = 0; d < numDimensions; d++) {
+					offsets[o * distances.length + i][d] = orientations[o]
+						.getValueAtDim(d) * distances[i];
+				}
+			}
+		}
+	}
+
+	/** @return the number of matrices accumulated per input */
+	public int numMatrices() {
+		return offsets.length;
+	}
+
+	/**
+	 * Counts the pixel pairs of the input.
+	 * 
+	 * @param input the pixels to pair
+	 * @param quantizer maps a pixel value to its grey level, which must lie in
+	 *          [0, nrGreyLevels)
+	 * @param ts used to count in parallel, or {@code null} to count on the
+	 *          calling thread
+	 * @return one {@link CooccurrenceCounts} per orientation and distance
+	 */
+	public <T extends RealType<T>> CooccurrenceCounts[] count(
+		final IterableInterval<T> input, final DoubleToIntFunction quantizer,
+		final ThreadService ts)
+	{
+		if (input.numDimensions() != numDimensions) {
+			throw new IllegalArgumentException("Expected a " + numDimensions +
+				"-dimensional input");
+		}
+
+		// quantize into the mask, remembering the iterated pixels
+		final long[] dims = new long[numDimensions];
+		input.dimensions(dims);
+		final int[] strides = new int[numDimensions];
+		long boxSize = 1;
+		for (int d = 0; d < numDimensions; d++) {
+			strides[d] = (int) boxSize;
+			boxSize *= dims[d];
+			if (boxSize > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException(
+					"Bounding box of the input is too large");
+			}
+		}
+		final short[] mask = new short[(int) boxSize];
+		Arrays.fill(mask, NOT_IN_MASK);
+		final int[] pixels = new int[(int) input.size()];
+
+		final long[] min = new long[numDimensions];
+		input.min(min);
+		final Cursor<T> cursor = input.localizingCursor();
+		int numPixels = 0;
+		while (cursor.hasNext()) {
+			cursor.fwd();
+			int index = 0;
+			for (int d = 0; d < numDimensions; d++) {
+				index += (int) (cursor.getLongPosition(d) - min[d]) * strides[d];
+			}
+			mask[index] = (short) quantizer.applyAsInt(cursor.get().getRealDouble());
+			pixels[numPixels++] = index;
+		}
+
+		// count the pairs in parallel bands of pixels
+		final int numTasks = ts == null ? 1 : ThreadUtil.numTasks(ts, numPixels /
+			MIN_PIXELS_PER_TASK, 1);
+		final long[][][] counts = new long[numTasks][][];
+		final long[][] nrPairs = new long[numTasks][];
+		if (numTasks == 1) {
+			counts[0] = newCounts();
+			nrPairs[0] = new long[offsets.length];
+			countPairs(mask, dims, strides, pixels, 0, numPixels, counts[0],
+				nrPairs[0]);
+		}
+		else {
+			final List<Future<?>> futures = new ArrayList<>(numTasks);
+			for (int t = 0; t < numTasks; t++) {
+				final int task = t;
+				final int start = (int) ((long) numPixels * t / numTasks);
+				final int end = (int) ((long) numPixels * (t + 1) / numTasks);
+				futures.add(ts.run(() -> {
+					counts[task] = newCounts();
+					nrPairs[task] = new long[offsets.length];
+					countPairs(mask, dims, strides, pixels, start, end, counts[task],
+						nrPairs[task]);
+				}));
+			}
+			try {
+				for (final Future<?> future : futures) {
+					future.get();
+				}
+			}
+			catch (final InterruptedException | ExecutionException exc) {
+				final Throwable cause = exc.getCause();
+				if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+				throw new RuntimeException(exc);
+			}
+		}
+
+		// sum up the bands
+		final CooccurrenceCounts[] result = new CooccurrenceCounts[offsets.length];
+		for (int m = 0; m < offsets.length; m++) {
+			final long[] sum = counts[0][m];
+			long pairs = nrPairs[0][m];
+			for (int t = 1; t < numTasks; t++) {
+				final long[] band = counts[t][m];
+				for (int i = 0; i < sum.length; i++) {
+					sum[i] += band[i];
+				}
+				pairs += nrPairs[t][m];
+			}
+			result[m] = new CooccurrenceCounts(nrGreyLevels, sum, pairs);
+		}
+		return result;
+	}
+
+	// -- Helper methods --
+
+	private long[][] newCounts() {
+		return new long[offsets.length][nrGreyLevels * nrGreyLevels];
+	}
+
+	private void countPairs(final short[] mask, final long[] dims,
+		final int[] strides, final int[] pixels, final int start, final int end,
+		final long[][] counts, final long[] nrPairs)
+	{
+		// flat index offset of the second pixel of each pair
+		final int[] indexOffsets = new int[offsets.length];
+		for (int m = 0; m < offsets.length; m++) {
+			for (int d = 0; d < numDimensions; d++) {
+				indexOffsets[m] += offsets[m][d] * strides[d];
+			}
+		}
+
+		final long[] position = new long[numDimensions];
+		for (int p = start; p < end; p++) {
+			final int index = pixels[p];
+			int rest = index;
+			for (int d = numDimensions - 1; d >= 0; d--) {
+				position[d] = rest / strides[d];
+				rest -= position[d] * strides[d];
+			}
+			final int row = mask[index] * nrGreyLevels;
+
+			for (int m = 0; m < offsets.length; m++) {
+				// second pixel in bounding box and mask
+				boolean inside = true;
+				for (int d = 0; d < numDimensions && inside; d++) {
+					final long pos = position[d] + offsets[m][d];
+					inside = pos >= 0 && pos < dims[d];
+				}
+				if (!inside) continue;
+				final short second = mask[index + indexOffsets[m]];
+				if (second == NOT_IN_MASK) continue;
+				counts[m][row + second]++;
+				nrPairs[m]++;
+			}
+		}
+	}
+
+}
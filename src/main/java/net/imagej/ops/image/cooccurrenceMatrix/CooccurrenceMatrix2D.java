@@ -28,21 +28,19 @@
  */
 package net.imagej.ops.image.cooccurrenceMatrix;
 
-import java.util.Arrays;
-
 import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
 import net.imagej.ops.Ops.Stats.MinMax;
 import net.imagej.ops.special.function.AbstractUnaryFunctionOp;
 import net.imagej.ops.special.function.Functions;
 import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.Cursor;
 import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
 import net.imglib2.util.Pair;
 
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.thread.ThreadService;
 
 /**
  * Calculates coocccurrence matrix from an 2D-{@link IterableInterval}.
@@ -65,6 +63,9 @@ public class CooccurrenceMatrix2D<T extends RealType<T>> extends
 	@Parameter(label = "Matrix Orientation")
 	private MatrixOrientation orientation;
 
+	@Parameter
+	private ThreadService ts;
+
 	private UnaryFunctionOp<IterableInterval<T>, Pair<T, T>> minmax;
 
 	@SuppressWarnings({ "unchecked", "rawtypes" })
@@ -76,70 +77,18 @@ public class CooccurrenceMatrix2D<T extends RealType<T>> extends
 
 	@Override
 	public double[][] calculate(final IterableInterval<T> input) {
-
-		final double[][] output = new double[nrGreyLevels][nrGreyLevels];
-
-		final Cursor<? extends RealType<?>> cursor = input.localizingCursor();
-
 		final Pair<T, T> minMax = minmax.calculate(input);
-		
+
 		final double localMin = minMax.getA().getRealDouble();
 		final double localMax = minMax.getB().getRealDouble();
-
-		final int[][] pixels = new int[(int) input.dimension(1)][(int) input
-				.dimension(0)];
-
-		for (int i = 0; i < pixels.length; i++) {
-			Arrays.fill(pixels[i], Integer.MAX_VALUE);
-		}
-
-		final int minimumX = (int) input.min(0);
-		final int minimumY = (int) input.min(1);
 		final double diff = localMax - localMin;
-		while (cursor.hasNext()) {
-			cursor.fwd();
-			final int bin = (int) (((cursor.get().getRealDouble() - localMin) / diff) *
-				(nrGreyLevels));
-			pixels[cursor.getIntPosition(1) - minimumY][cursor.getIntPosition(0) -
-				minimumX] = bin < nrGreyLevels - 1 ? bin : nrGreyLevels - 1;
-		}
-
-		int nrPairs = 0;
-
-		final int orientationAtX = orientation.getValueAtDim(0) * distance;
-		final int orientationAtY = orientation.getValueAtDim(1) * distance;
-		for (int y = 0; y < pixels.length; y++) {
-			for (int x = 0; x < pixels[y].length; x++) {
-				// ignore pixels not in mask
-				if (pixels[y][x] == Integer.MAX_VALUE) {
-					continue;
-				}
-
-				// // get second pixel
-				final int sx =  x + orientationAtX;
-				final int sy =  y + orientationAtY;
-
-				// second pixel in interval and mask
-				if (sx >= 0 && sy >= 0 && sy < pixels.length
-						&& sx < pixels[sy].length
-						&& pixels[sy][sx] != Integer.MAX_VALUE) {
-					output[pixels[y][x]][pixels[sy][sx]]++;
-					nrPairs++;
-				}
-
-			}
-		}
 
-		if (nrPairs > 0) {
-			double divisor = 1.0 / nrPairs;
-			for (int row = 0; row < output.length; row++) {
-				for (int col = 0; col < output[row].length; col++) {
-					output[row][col] *= divisor;
-				}
-			}
-		}
-		
-		return output;
+		final CooccurrenceEngine engine = new CooccurrenceEngine(nrGreyLevels,
+			new MatrixOrientation[] { orientation }, distance);
+		return engine.count(input, value -> {
+			final int bin = (int) (((value - localMin) / diff) * (nrGreyLevels));
+			return bin < nrGreyLevels - 1 ? bin : nrGreyLevels - 1;
+		}, ts)[0].toMatrix();
 	}
 
 	@Override
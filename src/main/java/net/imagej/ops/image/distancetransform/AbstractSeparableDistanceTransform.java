@@ -0,0 +1,275 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.image.distancetransform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.Ops;
+import net.imagej.ops.create.img.CreateImgFromDimsAndType;
+import net.imagej.ops.special.function.Functions;
+import net.imagej.ops.special.function.UnaryFunctionOp;
+import net.imagej.ops.special.hybrid.AbstractUnaryHybridCF;
+import net.imagej.ops.thread.ThreadUtil;
+import net.imglib2.FinalInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.BooleanType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.IntervalIndexer;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+import org.scijava.plugin.Parameter;
+import org.scijava.thread.ThreadService;
+
+/**
+ * Abstract superclass of separable Euclidean distance transforms of n-d
+ * images, i.e. for every foreground pixel its distance to the nearest
+ * background pixel.
+ * <p>
+ * The squared distances are computed with one pass of the lower envelope of
+ * parabolas along each axis (Felzenszwalb and Huttenlocher, "Distance
+ * Transforms of Sampled Functions", 2012) and stored in the output in between,
+ * so apart from one line buffer per task no additional memory is needed. The
+ * lines of each pass are split into a few contiguous batches which are
+ * processed in parallel. Distances are computed in {@code double} precision,
+ * so there is no limit on the size of the image. Pixels of an image without
+ * any background get the length of the (calibrated) image diagonal.
+ * </p>
+ */
+public abstract class AbstractSeparableDistanceTransform<B extends BooleanType<B>, T extends RealType<T>>
+	extends
+	AbstractUnaryHybridCF<RandomAccessibleInterval<B>, RandomAccessibleInterval<T>>
+	implements Ops.Image.DistanceTransform, Contingent
+{
+
+	/** Number of batches of lines per thread. */
+	private static final int BATCHES_PER_THREAD = 4;
+
+	@Parameter
+	private ThreadService ts;
+
+	@SuppressWarnings("rawtypes")
+	private UnaryFunctionOp<FinalInterval, RandomAccessibleInterval> createOp;
+
+	@Override
+	public boolean conforms() {
+		// NB: The output needs to hold the intermediate squared distances.
+		if (out() == null) return true;
+		final T type = Util.getTypeFromInterval(out());
+		return type instanceof FloatType || type instanceof DoubleType;
+	}
+
+	@Override
+	public void initialize() {
+		createOp = Functions.unary(ops(), CreateImgFromDimsAndType.class,
+			RandomAccessibleInterval.class, new FinalInterval(in()), new FloatType());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public RandomAccessibleInterval<T> createOutput(
+		final RandomAccessibleInterval<B> in)
+	{
+		return createOp.calculate(new FinalInterval(in));
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<B> in,
+		final RandomAccessibleInterval<T> out)
+	{
+		final RandomAccessibleInterval<B> input = Views.zeroMin(in);
+		final RandomAccessibleInterval<T> output = Views.zeroMin(out);
+		final int numDimensions = in.numDimensions();
+
+		// distance of pixels without any background
+		double diagonal = 0;
+		for (int d = 0; d < numDimensions; d++) {
+			final double length = calibration(d) * in.dimension(d);
+			diagonal += length * length;
+		}
+		final double maxDistance = Math.sqrt(diagonal);
+
+		for (int d = 0; d < numDimensions; d++) {
+			transform(input, output, d, d == numDimensions - 1, maxDistance);
+		}
+	}
+
+	/** Gets the pixel spacing along the given dimension. */
+	protected abstract double calibration(int d);
+
+	// -- Helper methods --
+
+	/**
+	 * Transforms all lines along the given dimension, in parallel batches. The
+	 * first pass reads the input, all others the squared distances of the
+	 * previous pass from the output. The last pass writes the distances.
+	 */
+	private void transform(final RandomAccessibleInterval<B> in,
+		final RandomAccessibleInterval<T> out, final int d, final boolean last,
+		final double maxDistance)
+	{
+		final long[] lineDims = new long[in.numDimensions()];
+		in.dimensions(lineDims);
+		lineDims[d] = 1;
+		long numLines = 1;
+		for (final long dim : lineDims) {
+			numLines *= dim;
+		}
+		final int numBatches = ThreadUtil.numTasks(ts, numLines,
+			BATCHES_PER_THREAD);
+
+		final List<Future<?>> futures = new ArrayList<>(numBatches);
+		for (int i = 0; i < numBatches; i++) {
+			final long start = numLines * i / numBatches;
+			final long end = numLines * (i + 1) / numBatches;
+			futures.add(ts.run(() -> transformLines(in, out, d, last, maxDistance,
+				lineDims, start, end)));
+		}
+
+		try {
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (final InterruptedException | ExecutionException exc) {
+			final Throwable cause = exc.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new RuntimeException(exc);
+		}
+	}
+
+	private void transformLines(final RandomAccessibleInterval<B> in,
+		final RandomAccessibleInterval<T> out, final int d, final boolean last,
+		final double maxDistance, final long[] lineDims, final long start,
+		final long end)
+	{
+		final int length = (int) in.dimension(d);
+		final double spacing = calibration(d);
+		final double[] f = new double[length];
+		final double[] distances = new double[length];
+		final int[] vertices = new int[length];
+		final double[] boundaries = new double[length + 1];
+
+		final RandomAccess<B> raIn = d == 0 ? in.randomAccess() : null;
+		final RandomAccess<T> raOut = out.randomAccess();
+		final long[] position = new long[in.numDimensions()];
+
+		for (long line = start; line < end; line++) {
+			IntervalIndexer.indexToPosition(line, lineDims, position);
+			if (raIn != null) {
+				raIn.setPosition(position);
+				for (int i = 0; i < length; i++) {
+					f[i] = raIn.get().get() ? Double.POSITIVE_INFINITY : 0;
+					raIn.fwd(d);
+				}
+			}
+			else {
+				raOut.setPosition(position);
+				for (int i = 0; i < length; i++) {
+					f[i] = raOut.get().getRealDouble();
+					raOut.fwd(d);
+				}
+			}
+
+			lowerEnvelope(f, length, spacing, distances, vertices, boundaries);
+
+			raOut.setPosition(position);
+			for (int i = 0; i < length; i++) {
+				final double value = distances[i];
+				if (!last) raOut.get().setReal(value);
+				else if (value == Double.POSITIVE_INFINITY) raOut.get().setReal(
+					maxDistance);
+				else raOut.get().setReal(Math.sqrt(value));
+				raOut.fwd(d);
+			}
+		}
+	}
+
+	/**
+	 * Computes {@code min_p (spacing * (q - p))^2 + f[p]} for every {@code q} of
+	 * a line, using the lower envelope of the parabolas rooted at the finite
+	 * values of {@code f}.
+	 */
+	private static void lowerEnvelope(final double[] f, final int length,
+		final double spacing, final double[] distances, final int[] vertices,
+		final double[] boundaries)
+	{
+		int k = -1;
+		for (int q = 0; q < length; q++) {
+			if (f[q] == Double.POSITIVE_INFINITY) continue;
+			final double xq = spacing * q;
+			while (k >= 0) {
+				final double xp = spacing * vertices[k];
+				final double s = (f[q] + xq * xq - (f[vertices[k]] + xp * xp)) / (2 *
+					(xq - xp));
+				if (s > boundaries[k]) {
+					k++;
+					vertices[k] = q;
+					boundaries[k] = s;
+					break;
+				}
+				k--;
+			}
+			if (k < 0) {
+				k = 0;
+				vertices[0] = q;
+				boundaries[0] = Double.NEGATIVE_INFINITY;
+			}
+		}
+
+		if (k < 0) {
+			// no finite values on this line
+			for (int q = 0; q < length; q++) {
+				distances[q] = Double.POSITIVE_INFINITY;
+			}
+			return;
+		}
+
+		boundaries[k + 1] = Double.POSITIVE_INFINITY;
+		int j = 0;
+		for (int q = 0; q < length; q++) {
+			final double xq = spacing * q;
+			while (boundaries[j + 1] < xq) {
+				j++;
+			}
+			final double dx = spacing * (q - vertices[j]);
+			distances[q] = dx * dx + f[vertices[j]];
+		}
+	}
+
+}
@@ -28,15 +28,8 @@
  */
 package net.imagej.ops.image.watershed;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
 import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
@@ -44,33 +37,20 @@ import net.imagej.ops.create.imgLabeling.CreateImgLabelingFromInterval;
 import net.imagej.ops.special.function.Functions;
 import net.imagej.ops.special.function.UnaryFunctionOp;
 import net.imagej.ops.special.hybrid.AbstractUnaryHybridCF;
-import net.imglib2.Cursor;
 import net.imglib2.Interval;
-import net.imglib2.IterableInterval;
-import net.imglib2.Point;
-import net.imglib2.RandomAccess;
-import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
-import net.imglib2.algorithm.neighborhood.DiamondShape;
-import net.imglib2.algorithm.neighborhood.Neighborhood;
-import net.imglib2.algorithm.neighborhood.RectangleShape;
-import net.imglib2.algorithm.neighborhood.Shape;
-import net.imglib2.outofbounds.OutOfBounds;
-import net.imglib2.roi.IterableRegion;
-import net.imglib2.roi.Regions;
 import net.imglib2.roi.labeling.ImgLabeling;
+import net.imglib2.roi.labeling.LabelingMapping;
 import net.imglib2.roi.labeling.LabelingType;
 import net.imglib2.type.BooleanType;
-import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.RealType;
 import net.imglib2.type.numeric.integer.IntType;
-import net.imglib2.util.IntervalIndexer;
 import net.imglib2.util.Intervals;
-import net.imglib2.view.ExtendedRandomAccessibleInterval;
 import net.imglib2.view.Views;
 
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.util.IntArray;
 
 /**
  * The Watershed algorithm segments and labels a grayscale image analogous to a
@@ -93,6 +73,11 @@ import org.scijava.plugin.Plugin;
  * <p>
  * Output is a labeling of the different catchment basins.
  * </p>
+ * <p>
+ * The flooding works on primitive label and level buffers with a
+ * hierarchical queue over the ranks of the input values, and the result is
+ * written to the output labeling in a single pass at the end.
+ * </p>
  * 
  * @param <T> element type of input
  * @param <B> element type of mask
@@ -131,205 +116,169 @@ public class WatershedSeeded<T extends RealType<T>, B extends BooleanType<B>>
 	/** Default label for in out of bounds, must be lower than WSHED */
 	private static final int OUTSIDE = -4;
 
-	/** Used by {@link WatershedSeeded.WatershedVoxel} */
-	private static final AtomicLong seq = new AtomicLong();
+	/** Marks a voxel whose label was cleared, must be lower than WSHED */
+	private static final int NONE = -5;
+
+	/** Marks seed label sets which are empty */
+	private static final int NO_SEED = Integer.MIN_VALUE;
+
+	/** Marks seed label sets with more than one label */
+	private static final int MULTIPLE_SEEDS = Integer.MIN_VALUE + 1;
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void compute(final RandomAccessibleInterval<T> in, final ImgLabeling<Integer, IntType> out) {
-		// extend border to be able to do a quick check, if a voxel is inside
-		final LabelingType<Integer> oustide = out.firstElement().copy();
-		oustide.clear();
-		oustide.add(OUTSIDE);
-		final ExtendedRandomAccessibleInterval<LabelingType<Integer>, ImgLabeling<Integer, IntType>> outExt = Views
-				.extendValue(out, oustide);
-		final OutOfBounds<LabelingType<Integer>> raOut = outExt.randomAccess();
-
-		// if no mask provided, set the mask to the whole image
-		if (mask == null) {
-			mask = (RandomAccessibleInterval<B>) ops().create().img(in, new BitType());
-			for (B b : Views.flatIterable(mask)) {
-				b.set(true);
+		/*
+		 * All state lives in primitive buffers over the image padded by one voxel
+		 * on each side, so that neighbors can be addressed by fixed index offsets
+		 * and the border is recognized by its label.
+		 */
+		final int numDims = in.numDimensions();
+		final long[] dims = Intervals.dimensionsAsLongArray(in);
+		final int[] strides = new int[numDims];
+		long size = 1;
+		for (int d = 0; d < numDims; d++) {
+			strides[d] = (int) size;
+			size *= dims[d] + 2;
+			if (size > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Image is too large: " +
+					Intervals.numElements(in) + " voxels");
 			}
 		}
-
-		// initialize output labels
-		final Cursor<B> maskCursor = Views.flatIterable(mask).cursor();
-		while (maskCursor.hasNext()) {
-			maskCursor.fwd();
-			if (maskCursor.get().get()) {
-				raOut.setPosition(maskCursor);
-				raOut.get().clear();
-				raOut.get().add(INIT);
+		final int[] labels = new int[(int) size];
+		final int[] levels = new int[(int) size];
+		Arrays.fill(labels, OUTSIDE);
+
+		// rank the values, so that they can be used as queue levels
+		final double[] sorted = new double[(int) Intervals.numElements(in)];
+		int i = 0;
+		for (final T t : Views.flatIterable(in)) {
+			sorted[i++] = t.getRealDouble();
+		}
+		Arrays.sort(sorted);
+		int numLevels = 0;
+		for (i = 0; i < sorted.length; i++) {
+			if (i == 0 || Double.compare(sorted[i], sorted[numLevels - 1]) != 0) {
+				sorted[numLevels++] = sorted[i];
 			}
 		}
-
-		// RandomAccess for Mask, Seeds and Neighborhoods
-		final RandomAccess<B> raMask = mask.randomAccess();
-		final RandomAccess<LabelingType<Integer>> raSeeds = seeds.randomAccess();
-		final Shape shape;
-		if (useEightConnectivity) {
-			shape = new RectangleShape(1, true);
-		} else {
-			shape = new DiamondShape(1);
+		final PaddedIndex index = new PaddedIndex(dims, strides);
+		for (final T t : Views.flatIterable(in)) {
+			levels[index.get()] = Arrays.binarySearch(sorted, 0, numLevels, t
+				.getRealDouble());
+			index.fwd();
 		}
-		final RandomAccessible<Neighborhood<T>> neighborhoods = shape.neighborhoodsRandomAccessible(in);
-		final RandomAccess<Neighborhood<T>> raNeigh = neighborhoods.randomAccess();
-
-		/*
-		 * Carry over the seeding points to the new label and adds them to a
-		 * voxel priority queue
-		 */
-		final PriorityQueue<WatershedVoxel> pq = new PriorityQueue<>();
 
-		// Only iterate seeds that are not excluded by the mask
-		final IterableRegion<B> maskRegions = Regions.iterable(mask);
-		final IterableInterval<LabelingType<Integer>> seedsMasked = Regions.sample(maskRegions, seeds);
-		final Cursor<LabelingType<Integer>> cursorSeeds = seedsMasked.localizingCursor();
+		// initialize the labels inside the mask
+		index.reset();
+		if (mask == null) {
+			for (long v = 0; v < sorted.length; v++) {
+				labels[index.get()] = INIT;
+				index.fwd();
+			}
+		}
+		else {
+			for (final B b : Views.flatIterable(mask)) {
+				if (b.get()) labels[index.get()] = INIT;
+				index.fwd();
+			}
+		}
 
-		while (cursorSeeds.hasNext()) {
-			final Set<Integer> l = cursorSeeds.next();
-			if (l.isEmpty()) {
+		// carry over the seed labels, unless excluded by the mask
+		final int[] seedLabels = seedLabels();
+		final IntArray seedIndices = new IntArray();
+		index.reset();
+		for (final IntType seed : Views.flatIterable(seeds.getIndexImg())) {
+			final int label = seedLabels[seed.get()];
+			final int v = index.get();
+			index.fwd();
+			if (label == NO_SEED || labels[v] == OUTSIDE) {
 				continue;
 			}
-			if (l.size() > 1) {
+			if (label == MULTIPLE_SEEDS) {
 				throw new IllegalArgumentException("Seeds must have exactly one label!");
 			}
-			final Integer label = l.iterator().next();
 			if (label < 0) {
 				throw new IllegalArgumentException("Seeds must have positive integers as labels!");
 			}
-			raNeigh.setPosition(cursorSeeds);
-
-			final Cursor<T> neighborhood = raNeigh.get().cursor();
-
-			// Add unlabeled neighbors to priority queue
-			while (neighborhood.hasNext()) {
-				neighborhood.fwd();
-				raSeeds.setPosition(neighborhood);
-				raMask.setPosition(neighborhood);
-				raOut.setPosition(neighborhood);
-				final Integer labelNeigh = raOut.get().iterator().next();
-				if (labelNeigh != INQUEUE && labelNeigh != OUTSIDE && !raOut.isOutOfBounds() && raMask.get().get() 
-						&& raSeeds.get().isEmpty()) {
-					raOut.setPosition(neighborhood);
-					pq.add(new WatershedVoxel(IntervalIndexer.positionToIndex(neighborhood, in), neighborhood.get().getRealDouble()));
-					raOut.get().clear();
-					raOut.get().add(INQUEUE);
+			labels[v] = label;
+			seedIndices.addValue(v);
+		}
+
+		// add unlabeled neighbors of the seeds to the queue
+		final int[] offsets = neighborOffsets(strides);
+		final HierarchicalQueue queue = new HierarchicalQueue(numLevels, labels.length);
+		for (i = 0; i < seedIndices.size(); i++) {
+			final int v = seedIndices.getValue(i);
+			for (final int offset : offsets) {
+				final int neighbor = v + offset;
+				if (labels[neighbor] == INIT) {
+					labels[neighbor] = INQUEUE;
+					queue.add(neighbor, levels[neighbor]);
 				}
 			}
-
-			// Overwrite label in output with the seed label
-			raOut.setPosition(cursorSeeds);
-			raOut.get().clear();
-			raOut.get().add(label);
 		}
 
 		/*
-		 * Pop the head of the priority queue, label and push all unlabeled
-		 * neighbored pixels.
+		 * Pop the head of the queue, label and push all unlabeled neighbored
+		 * voxels.
 		 */
-
-		// list to store neighbor labels
-		final ArrayList<Integer> neighborLabels = new ArrayList<>();
-		// list to store neighbor voxels
-		final ArrayList<WatershedVoxel> neighborVoxels = new ArrayList<>();
-
-		// iterate the queue
-		final Point pos = new Point(in.numDimensions());
-		while (!pq.isEmpty()) {
-			IntervalIndexer.indexToPosition(pq.poll().getPos(), out, pos);
-
-			// reset list of neighbor labels
-			neighborLabels.clear();
-
-			// reset list of neighbor voxels
-			neighborVoxels.clear();
-
-			// iterate the neighborhood of the pixel
-			raNeigh.setPosition(pos);
-			final Cursor<T> neighborhood = raNeigh.get().cursor();
-			while (neighborhood.hasNext()) {
-				neighborhood.fwd();
-				// Unlabeled neighbors go into the queue if they are not there
-				// yet
-				raOut.setPosition(neighborhood);
-				raMask.setPosition(raOut);
-				if (!raOut.get().isEmpty()) {
-					final Integer label = raOut.get().iterator().next();
-					if (label == INIT && raMask.get().get()) {
-						neighborVoxels.add(new WatershedVoxel(IntervalIndexer.positionToIndex(neighborhood, out),
-							neighborhood.get().getRealDouble()));
-					} else {
-						if (label > WSHED && (!drawWatersheds || !neighborLabels.contains(label))) {
-							// store labels of neighbors in a list
-							neighborLabels.add(label);
-						}
-					}
+		final int[] neighborLabels = new int[offsets.length];
+		final int[] neighborVoxels = new int[offsets.length];
+		while (!queue.isEmpty()) {
+			final int v = queue.poll();
+
+			int numLabels = 0;
+			int numVoxels = 0;
+			for (final int offset : offsets) {
+				final int neighbor = v + offset;
+				final int label = labels[neighbor];
+				if (label == INIT) {
+					neighborVoxels[numVoxels++] = neighbor;
+				}
+				else if (label > WSHED && (!drawWatersheds || !contains(
+					neighborLabels, numLabels, label)))
+				{
+					// store labels of neighbors
+					neighborLabels[numLabels++] = label;
 				}
-
 			}
 
+			final boolean labeled;
 			if (drawWatersheds) {
-				// if the neighbors of the extracted voxel that have already
-				// been labeled
-				// all have the same label, then the voxel is labeled with their
-				// label.
-				raOut.setPosition(pos);
-				raOut.get().clear();
-				if (neighborLabels.size() == 1) {
-					raOut.get().add(neighborLabels.get(0));
-					// now that we know the voxel is labeled, add neighbors to
-					// list
-					for (final WatershedVoxel v : neighborVoxels) {
-						IntervalIndexer.indexToPosition(v.getPos(), out, raOut);
-						raOut.get().clear();
-						raOut.get().add(INQUEUE);
-						pq.add(v);
-					}
-				} else if (neighborLabels.size() > 1)
-					raOut.get().add(WSHED);
-			} else {
-				if (neighborLabels.size() > 0) {
-					raOut.setPosition(pos);
-					raOut.get().clear();
-
+				// if the neighbors of the extracted voxel that have already been
+				// labeled all have the same label, then the voxel is labeled with
+				// their label.
+				labeled = numLabels == 1;
+				labels[v] = numLabels == 1 ? neighborLabels[0] : numLabels > 1 ? WSHED
+					: NONE;
+			}
+			else {
+				labeled = numLabels > 0;
+				if (labeled) {
 					// take the label which most of the neighbors have
-					if (neighborLabels.size() > 2) {
-						final Map<Integer, Long> countLabels = neighborLabels.stream()
-								.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
-						final Integer keyMax = Collections
-								.max(countLabels.entrySet(), Comparator.comparingLong(Map.Entry::getValue)).getKey();
-						raOut.get().add(keyMax);
-					} else {
-						raOut.get().add(neighborLabels.get(0));
-					}
-					// now that we know the voxel is labeled, add neighbors to
-					// list
-					for (final WatershedVoxel v : neighborVoxels) {
-						IntervalIndexer.indexToPosition(v.getPos(), out, raOut);
-						raOut.get().clear();
-						raOut.get().add(INQUEUE);
-						pq.add(v);
-					}
+					labels[v] = numLabels > 2 ? majority(neighborLabels, numLabels)
+						: neighborLabels[0];
 				}
 			}
-		}
 
-		/*
-		 * Merge already present labels before calculation of watershed
-		 */
-		if (out() != null) {
-			final Cursor<LabelingType<Integer>> cursor = out().cursor();
-			while (cursor.hasNext()) {
-				cursor.fwd();
-				raOut.setPosition(cursor);
-				final List<Integer> labels = new ArrayList<>();
-				cursor.get().iterator().forEachRemaining(labels::add);
-				raOut.get().addAll(labels);
+			// now that we know the voxel is labeled, add neighbors to the queue
+			if (labeled) {
+				for (int n = 0; n < numVoxels; n++) {
+					labels[neighborVoxels[n]] = INQUEUE;
+					queue.add(neighborVoxels[n], levels[neighborVoxels[n]]);
+				}
 			}
 		}
 
+		// write the labels inside the mask to the output
+		index.reset();
+		for (final LabelingType<Integer> labeling : Views.flatIterable(out)) {
+			final int label = labels[index.get()];
+			index.fwd();
+			if (label == OUTSIDE) continue;
+			labeling.clear();
+			if (label != NONE) labeling.add(label);
+		}
 	}
 
 	@Override
@@ -353,40 +302,162 @@ public class WatershedSeeded<T extends RealType<T>, B extends BooleanType<B>>
 		createOp = Functions.unary(ops(), CreateImgLabelingFromInterval.class, ImgLabeling.class, in());
 	}
 
+	// -- Helper methods --
+
 	/**
-	 * Used to store the voxels in the priority queue. "Lower" voxels will be
-	 * given out first. If two voxels have the same value, the one which joined
-	 * the queue earlier will be given out.
+	 * Gets the seed label of each index of the seed labeling, or one of the
+	 * markers for empty and ambiguous label sets.
 	 */
-	class WatershedVoxel implements Comparable<WatershedVoxel> {
+	private int[] seedLabels() {
+		final LabelingMapping<Integer> mapping = seeds.getMapping();
+		final int[] seedLabels = new int[mapping.numSets()];
+		for (int i = 0; i < seedLabels.length; i++) {
+			final Set<Integer> set = mapping.labelsAtIndex(i);
+			seedLabels[i] = set.isEmpty() ? NO_SEED : set.size() > 1
+				? MULTIPLE_SEEDS : set.iterator().next();
+		}
+		return seedLabels;
+	}
+
+	/**
+	 * Gets the index offsets of the neighbors in the padded buffers, in the
+	 * order of a flat iteration over the neighborhood.
+	 */
+	private int[] neighborOffsets(final int[] strides) {
+		final int numDims = strides.length;
+		final IntArray offsets = new IntArray();
+		final int[] delta = new int[numDims];
+		Arrays.fill(delta, -1);
+		while (delta[numDims - 1] <= 1) {
+			int offset = 0;
+			int distance = 0;
+			for (int d = 0; d < numDims; d++) {
+				offset += delta[d] * strides[d];
+				distance += Math.abs(delta[d]);
+			}
+			if (distance > 0 && (useEightConnectivity || distance == 1)) {
+				offsets.addValue(offset);
+			}
+			for (int d = 0; d < numDims; d++) {
+				if (++delta[d] <= 1 || d == numDims - 1) break;
+				delta[d] = -1;
+			}
+		}
+		return offsets.copyArray();
+	}
+
+	private static boolean contains(final int[] values, final int size,
+		final int value)
+	{
+		for (int i = 0; i < size; i++) {
+			if (values[i] == value) return true;
+		}
+		return false;
+	}
+
+	/** Gets the most frequent value, preferring the lower one on ties. */
+	private static int majority(final int[] values, final int size) {
+		int best = values[0];
+		int bestCount = 0;
+		for (int i = 0; i < size; i++) {
+			int count = 0;
+			for (int j = 0; j < size; j++) {
+				if (values[j] == values[i]) count++;
+			}
+			if (count > bestCount || count == bestCount && values[i] < best) {
+				best = values[i];
+				bestCount = count;
+			}
+		}
+		return best;
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Walks the buffer indices of the image voxels in flat iteration order,
+	 * skipping the padding.
+	 */
+	private static final class PaddedIndex {
+
+		private final long[] dims;
+		private final int[] strides;
+		private final long[] position;
+		private int index;
+
+		public PaddedIndex(final long[] dims, final int[] strides) {
+			this.dims = dims;
+			this.strides = strides;
+			position = new long[dims.length];
+			reset();
+		}
 
-		private final long pos;
-		private final double value;
-		private final long seqNum;
+		public void reset() {
+			Arrays.fill(position, 0);
+			index = 0;
+			for (final int stride : strides) {
+				index += stride;
+			}
+		}
 
-		public WatershedVoxel(final long pos, final double value) {
-			this.pos = pos;
-			this.value = value;
-			seqNum = seq.getAndIncrement();
+		public int get() {
+			return index;
 		}
 
-		public long getPos() {
-			return pos;
+		public void fwd() {
+			index++;
+			position[0]++;
+			for (int d = 0; d < dims.length - 1 && position[d] == dims[d]; d++) {
+				position[d] = 0;
+				position[d + 1]++;
+				index += 2 * strides[d];
+			}
 		}
+	}
 
-		public double getValue() {
-			return value;
+	/**
+	 * Hierarchical queue with one FIFO per level, linked through a shared array
+	 * of successors. Lower levels are given out first, and voxels of the same
+	 * level in the order in which they joined the queue. Each voxel can only be
+	 * in the queue once.
+	 */
+	private static final class HierarchicalQueue {
+
+		private final int[] heads;
+		private final int[] tails;
+		private final int[] next;
+		private int level;
+		private int size;
+
+		public HierarchicalQueue(final int numLevels, final int numVoxels) {
+			heads = new int[numLevels];
+			tails = new int[numLevels];
+			next = new int[numVoxels];
+			Arrays.fill(heads, -1);
 		}
 
-		@Override
-		public int compareTo(WatershedVoxel o) {
-			int res = Double.compare(value, o.value);
-			if (res == 0)
-				res = (seqNum < o.seqNum ? -1 : 1);
+		public boolean isEmpty() {
+			return size == 0;
+		}
 
-			return res;
+		public void add(final int voxel, final int voxelLevel) {
+			next[voxel] = -1;
+			if (heads[voxelLevel] < 0) heads[voxelLevel] = voxel;
+			else next[tails[voxelLevel]] = voxel;
+			tails[voxelLevel] = voxel;
+			if (size == 0 || voxelLevel < level) level = voxelLevel;
+			size++;
 		}
 
+		public int poll() {
+			while (heads[level] < 0) {
+				level++;
+			}
+			final int voxel = heads[level];
+			heads[level] = next[voxel];
+			size--;
+			return voxel;
+		}
 	}
 
 }
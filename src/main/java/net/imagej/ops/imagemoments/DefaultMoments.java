@@ -0,0 +1,209 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.imagemoments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.Ops;
+import net.imagej.ops.special.function.AbstractUnaryFunctionOp;
+import net.imagej.ops.thread.ThreadUtil;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+import net.imglib2.type.numeric.RealType;
+
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+import org.scijava.thread.ThreadService;
+
+/**
+ * Computes all {@link Moments2D} of an {@link IterableInterval} at once. A
+ * first pass accumulates the raw moments up to order three, and a second pass
+ * the central moments around the centroid found by the first. Central moments
+ * are not expanded from the raw moments, which cancels badly far from the
+ * origin.
+ * <p>
+ * Each moment is accumulated like its standalone implementation used to, so
+ * the values are identical to the ones of the individual image moment ops,
+ * which are now views on this op. Optionally, both passes are split into
+ * chunks summed in parallel, in which case the values may differ in the last
+ * digits.
+ * </p>
+ */
+@Plugin(type = Ops.ImageMoments.Moments.class,
+	label = "Image Moments: All Moments")
+public class DefaultMoments<I extends RealType<I>> extends
+	AbstractUnaryFunctionOp<IterableInterval<I>, Moments2D> implements
+	Ops.ImageMoments.Moments, Contingent
+{
+
+	@Parameter
+	private ThreadService threads;
+
+	@Parameter(required = false)
+	private boolean parallel;
+
+	@Override
+	public Moments2D calculate(final IterableInterval<I> input) {
+		final double[] sums = sum(input, DefaultMoments::rawSums);
+		final double moment00 = sums[0];
+		final double moment01 = sums[1];
+		final double moment10 = sums[2];
+		final double moment11 = sums[3];
+
+		final double[][] raw = new double[Moments2D.MAX_ORDER + 1][];
+		raw[0] = new double[] { moment00, moment01, sums[4], sums[8] };
+		raw[1] = new double[] { moment10, moment11, sums[6] };
+		raw[2] = new double[] { sums[5], sums[7] };
+		raw[3] = new double[] { sums[9] };
+
+		final double centerX = moment10 / moment00;
+		final double centerY = moment01 / moment00;
+		final double[] centralSums = sum(input, (cursor, count) -> centralSums(
+			cursor, count, centerX, centerY));
+
+		final double[][] central = new double[Moments2D.MAX_ORDER + 1][];
+		central[0] = new double[] { moment00, 0d, centralSums[1], centralSums[5] };
+		central[1] = new double[] { 0d, moment11 - (centerX * moment01),
+			centralSums[3] };
+		central[2] = new double[] { centralSums[0], centralSums[2] };
+		central[3] = new double[] { centralSums[4] };
+
+		return new Moments2D(raw, central);
+	}
+
+	@Override
+	public boolean conforms() {
+		return 2 == in().numDimensions();
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Accumulates m00, m01, m10, m11, m02, m20, m12, m21, m03 and m30.
+	 */
+	private static <I extends RealType<I>> double[] rawSums(
+		final Cursor<I> cursor, final long count)
+	{
+		final double[] sums = new double[10];
+		for (long i = 0; i < count; i++) {
+			cursor.fwd();
+			final double x = cursor.getDoublePosition(0);
+			final double y = cursor.getDoublePosition(1);
+			final double val = cursor.get().getRealDouble();
+
+			sums[0] += val;
+			sums[1] += y * val;
+			sums[2] += x * val;
+			sums[3] += x * y * val;
+			sums[4] += y * y * val;
+			sums[5] += x * x * val;
+			sums[6] += x * y * y * val;
+			sums[7] += x * x * y * val;
+			sums[8] += y * y * y * val;
+			sums[9] += x * x * x * val;
+		}
+		return sums;
+	}
+
+	/**
+	 * Accumulates the central moments 20, 02, 21, 12, 30 and 03.
+	 */
+	private static <I extends RealType<I>> double[] centralSums(
+		final Cursor<I> cursor, final long count, final double centerX,
+		final double centerY)
+	{
+		final double[] sums = new double[6];
+		for (long i = 0; i < count; i++) {
+			cursor.fwd();
+			final double x = cursor.getDoublePosition(0) - centerX;
+			final double y = cursor.getDoublePosition(1) - centerY;
+			final double val = cursor.get().getRealDouble();
+
+			sums[0] += val * x * x;
+			sums[1] += val * y * y;
+			sums[2] += val * x * x * y;
+			sums[3] += val * x * y * y;
+			sums[4] += val * x * x * x;
+			sums[5] += val * y * y * y;
+		}
+		return sums;
+	}
+
+	private double[] sum(final IterableInterval<I> input, final Pass<I> pass) {
+		final long size = input.size();
+		if (!parallel) return pass.sum(input.localizingCursor(), size);
+
+		final int numChunks = ThreadUtil.numTasks(threads, size, 1);
+		final List<Future<double[]>> futures = new ArrayList<>(numChunks);
+		for (int c = 0; c < numChunks; c++) {
+			final long start = size * c / numChunks;
+			final long end = size * (c + 1) / numChunks;
+			futures.add(threads.run(() -> {
+				final Cursor<I> cursor = input.localizingCursor();
+				cursor.jumpFwd(start);
+				return pass.sum(cursor, end - start);
+			}));
+		}
+
+		// NB: Partial sums are added in chunk order, for reproducibility.
+		double[] sums = null;
+		try {
+			for (final Future<double[]> future : futures) {
+				final double[] partial = future.get();
+				if (sums == null) {
+					sums = partial;
+					continue;
+				}
+				for (int k = 0; k < sums.length; k++) {
+					sums[k] += partial[k];
+				}
+			}
+		}
+		catch (final InterruptedException | ExecutionException exc) {
+			final Throwable cause = exc.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new RuntimeException(exc);
+		}
+		return sums;
+	}
+
+	// -- Helper classes --
+
+	/** One pass over a chunk of the pixels. */
+	private interface Pass<I extends RealType<I>> {
+
+		double[] sum(Cursor<I> cursor, long count);
+	}
+
+}
@@ -396,6 +396,26 @@ public class ImageMomentsNamespace extends AbstractNamespace {
 		return result;
 	}
 
+	@OpMethod(op = net.imagej.ops.imagemoments.DefaultMoments.class)
+	public <I extends RealType<I>> Moments2D moments(
+		final IterableInterval<I> in)
+	{
+		final Moments2D result =
+			(Moments2D) ops().run(net.imagej.ops.Ops.ImageMoments.Moments.class,
+				in);
+		return result;
+	}
+
+	@OpMethod(op = net.imagej.ops.imagemoments.DefaultMoments.class)
+	public <I extends RealType<I>> Moments2D moments(
+		final IterableInterval<I> in, final boolean parallel)
+	{
+		final Moments2D result =
+			(Moments2D) ops().run(net.imagej.ops.Ops.ImageMoments.Moments.class,
+				in, parallel);
+		return result;
+	}
+
 	@OpMethod(
 		op = net.imagej.ops.imagemoments.normalizedcentralmoments.DefaultNormalizedCentralMoment02.class)
 	public
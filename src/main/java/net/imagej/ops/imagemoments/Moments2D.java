@@ -0,0 +1,120 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.imagemoments;
+
+/**
+ * The raw and central moments up to order three of a 2D image, as computed by
+ * {@link DefaultMoments}, and the normalized central and Hu moments derived
+ * from them.
+ */
+public class Moments2D {
+
+	/** Highest order of the moments. */
+	public static final int MAX_ORDER = 3;
+
+	private final double[][] raw;
+
+	private final double[][] central;
+
+	Moments2D(final double[][] raw, final double[][] central) {
+		this.raw = raw;
+		this.central = central;
+	}
+
+	/**
+	 * @return the raw moment of order p in x and q in y
+	 */
+	public double raw(final int p, final int q) {
+		checkOrder(p, q);
+		return raw[p][q];
+	}
+
+	/**
+	 * @return the central moment of order p in x and q in y
+	 */
+	public double central(final int p, final int q) {
+		checkOrder(p, q);
+		return central[p][q];
+	}
+
+	/**
+	 * @return the normalized central moment of order p in x and q in y
+	 */
+	public double normalizedCentral(final int p, final int q) {
+		return central(p, q) / Math.pow(central(0, 0), 1 + ((p + q) / 2.0));
+	}
+
+	/**
+	 * @param n the number of the Hu moment, from 1 to 7
+	 * @return the n-th Hu moment
+	 */
+	public double hu(final int n) {
+		final double n02 = normalizedCentral(0, 2);
+		final double n03 = normalizedCentral(0, 3);
+		final double n11 = normalizedCentral(1, 1);
+		final double n12 = normalizedCentral(1, 2);
+		final double n20 = normalizedCentral(2, 0);
+		final double n21 = normalizedCentral(2, 1);
+		final double n30 = normalizedCentral(3, 0);
+
+		switch (n) {
+			case 1:
+				return n20 + n02;
+			case 2:
+				return Math.pow(n20 - n02, 2) + 4 * (Math.pow(n11, 2));
+			case 3:
+				return Math.pow(n30 - 3 * n12, 2) + Math.pow(3 * n21 - n03, 2);
+			case 4:
+				return Math.pow(n30 + n12, 2) + Math.pow(n21 + n03, 2);
+			case 5:
+				return (n30 - 3 * n12) * (n30 + n12) * (Math.pow(n30 + n12, 2) - 3 *
+					Math.pow(n21 + n03, 2)) + (3 * n21 - n03) * (n21 + n03) * (3 * Math
+						.pow(n30 + n12, 2) - Math.pow(n21 + n03, 2));
+			case 6:
+				return (n20 - n02) * (Math.pow(n30 + n12, 2) - Math.pow(n21 + n03, 2)) +
+					4 * n11 * (n30 + n12) * (n21 + n03);
+			case 7:
+				return (3 * n21 - n03) * (n30 + n12) * (Math.pow(n30 + n12, 2) - 3 *
+					Math.pow(n21 + n03, 2)) - (n30 - 3 * n12) * (n21 + n03) * (3 * Math
+						.pow(n30 + n12, 2) - Math.pow(n21 + n03, 2));
+			default:
+				throw new IllegalArgumentException("No Hu moment " + n);
+		}
+	}
+
+	// -- Helper methods --
+
+	private void checkOrder(final int p, final int q) {
+		if (p < 0 || q < 0 || p + q > MAX_ORDER) {
+			throw new IllegalArgumentException("No moment of order " + p + ", " + q);
+		}
+	}
+
+}
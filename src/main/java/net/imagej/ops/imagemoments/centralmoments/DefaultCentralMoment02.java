@@ -31,11 +31,8 @@ package net.imagej.ops.imagemoments.centralmoments;
 
 import net.imagej.ops.Op;
 import net.imagej.ops.Ops;
-import net.imagej.ops.imagemoments.AbstractImageMomentOp;
-import net.imagej.ops.special.chain.RTs;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.Cursor;
-import net.imglib2.IterableInterval;
+import net.imagej.ops.imagemoments.AbstractMomentsViewOp;
+import net.imagej.ops.imagemoments.Moments2D;
 import net.imglib2.type.numeric.RealType;
 
 import org.scijava.plugin.Plugin;
@@ -50,39 +47,11 @@ import org.scijava.plugin.Plugin;
  */
 @Plugin(type = Ops.ImageMoments.CentralMoment02.class, label = "Image Moment: CentralMoment02")
 public class DefaultCentralMoment02<I extends RealType<I>, O extends RealType<O>>
-	extends AbstractImageMomentOp<I, O> implements Ops.ImageMoments.CentralMoment02
+	extends AbstractMomentsViewOp<I, O> implements Ops.ImageMoments.CentralMoment02
 {
 
-	// Required
-	private UnaryFunctionOp<IterableInterval<I>, O> moment00Func;
-	
-	private UnaryFunctionOp<IterableInterval<I>, O> moment01Func;
-
-	@Override
-	public void initialize() {
-		moment00Func = RTs.function(ops(), Ops.ImageMoments.Moment00.class, in());
-		moment01Func = RTs.function(ops(), Ops.ImageMoments.Moment01.class, in());
-	}
-
 	@Override
-	public void compute(final IterableInterval<I> input, final O output) {
-		
-		final double moment00 = moment00Func.calculate(input).getRealDouble();
-		final double moment01 = moment01Func.calculate(input).getRealDouble();
-		
-		final double centerY = moment01 / moment00;
-
-		double centralmoment02 = 0;
-
-		final Cursor<I> it = input.localizingCursor();
-		while (it.hasNext()) {
-			it.fwd();
-			final double y = it.getDoublePosition(1) - centerY;
-			final double val = it.get().getRealDouble();
-
-			centralmoment02 += val * y * y;
-		}
-
-		output.setReal(centralmoment02);
+	protected double getMoment(final Moments2D moments) {
+		return moments.central(0, 2);
 	}
 }
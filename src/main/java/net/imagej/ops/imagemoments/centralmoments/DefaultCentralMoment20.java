@@ -31,11 +31,8 @@ package net.imagej.ops.imagemoments.centralmoments;
 
 import net.imagej.ops.Op;
 import net.imagej.ops.Ops;
-import net.imagej.ops.imagemoments.AbstractImageMomentOp;
-import net.imagej.ops.special.chain.RTs;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.Cursor;
-import net.imglib2.IterableInterval;
+import net.imagej.ops.imagemoments.AbstractMomentsViewOp;
+import net.imagej.ops.imagemoments.Moments2D;
 import net.imglib2.type.numeric.RealType;
 
 import org.scijava.plugin.Plugin;
@@ -50,37 +47,11 @@ import org.scijava.plugin.Plugin;
  */
 @Plugin(type = Ops.ImageMoments.CentralMoment20.class, label = "Image Moment: CentralMoment20")
 public class DefaultCentralMoment20<I extends RealType<I>, O extends RealType<O>>
-	extends AbstractImageMomentOp<I, O> implements Ops.ImageMoments.CentralMoment20
+	extends AbstractMomentsViewOp<I, O> implements Ops.ImageMoments.CentralMoment20
 {
 
-	private UnaryFunctionOp<IterableInterval<I>, O> moment00Func;
-
-	private UnaryFunctionOp<IterableInterval<I>, O> moment10Func;
-
-	@Override
-	public void initialize() {
-		moment00Func = RTs.function(ops(), Ops.ImageMoments.Moment00.class, in());
-		moment10Func = RTs.function(ops(), Ops.ImageMoments.Moment10.class, in());
-	}
-
 	@Override
-	public void compute(final IterableInterval<I> input, final O output) {
-		final double moment00 = moment00Func.calculate(input).getRealDouble();
-		final double moment10 = moment10Func.calculate(input).getRealDouble();
-
-		final double centerX = moment10 / moment00;
-
-		double centralmoment20 = 0;
-
-		final Cursor<I> it = input.localizingCursor();
-		while (it.hasNext()) {
-			it.fwd();
-			final double x = it.getDoublePosition(0) - centerX;
-			final double val = it.get().getRealDouble();
-
-			centralmoment20 += val * x * x;
-		}
-
-		output.setReal(centralmoment20);
+	protected double getMoment(final Moments2D moments) {
+		return moments.central(2, 0);
 	}
 }
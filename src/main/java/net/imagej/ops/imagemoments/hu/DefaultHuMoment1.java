@@ -31,10 +31,8 @@ package net.imagej.ops.imagemoments.hu;
 
 import net.imagej.ops.Op;
 import net.imagej.ops.Ops;
-import net.imagej.ops.imagemoments.AbstractImageMomentOp;
-import net.imagej.ops.special.chain.RTs;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
+import net.imagej.ops.imagemoments.AbstractMomentsViewOp;
+import net.imagej.ops.imagemoments.Moments2D;
 import net.imglib2.type.numeric.RealType;
 
 import org.scijava.plugin.Plugin;
@@ -49,26 +47,11 @@ import org.scijava.plugin.Plugin;
  */
 @Plugin(type = Ops.ImageMoments.HuMoment1.class, label = "Image Moment: HuMoment1")
 public class DefaultHuMoment1<I extends RealType<I>, O extends RealType<O>>
-	extends AbstractImageMomentOp<I, O> implements Ops.ImageMoments.HuMoment1
+	extends AbstractMomentsViewOp<I, O> implements Ops.ImageMoments.HuMoment1
 {
 
-	private UnaryFunctionOp<IterableInterval<I>, O> normalizedCentralMoment20Func;
-
-	private UnaryFunctionOp<IterableInterval<I>, O> normalizedCentralMoment02Func;
-
-	@Override
-	public void initialize() {
-		normalizedCentralMoment20Func =
-			RTs.function(ops(), Ops.ImageMoments.NormalizedCentralMoment20.class, in());
-		normalizedCentralMoment02Func =
-			RTs.function(ops(), Ops.ImageMoments.NormalizedCentralMoment02.class, in());
-	}
-
 	@Override
-	public void compute(final IterableInterval<I> input, final O output) {
-		double n20 = normalizedCentralMoment20Func.calculate(input).getRealDouble();
-		double n02 = normalizedCentralMoment02Func.calculate(input).getRealDouble();
-
-		output.setReal(n20 + n02);
+	protected double getMoment(final Moments2D moments) {
+		return moments.hu(1);
 	}
 }
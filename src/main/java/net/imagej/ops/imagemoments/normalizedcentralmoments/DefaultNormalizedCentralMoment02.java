@@ -31,10 +31,8 @@ package net.imagej.ops.imagemoments.normalizedcentralmoments;
 
 import net.imagej.ops.Op;
 import net.imagej.ops.Ops;
-import net.imagej.ops.imagemoments.AbstractImageMomentOp;
-import net.imagej.ops.special.chain.RTs;
-import net.imagej.ops.special.function.UnaryFunctionOp;
-import net.imglib2.IterableInterval;
+import net.imagej.ops.imagemoments.AbstractMomentsViewOp;
+import net.imagej.ops.imagemoments.Moments2D;
 import net.imglib2.type.numeric.RealType;
 
 import org.scijava.plugin.Plugin;
@@ -50,25 +48,11 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = Ops.ImageMoments.NormalizedCentralMoment02.class,
 	label = "Image Moment: NormalizedCentralMoment02")
 public class DefaultNormalizedCentralMoment02<I extends RealType<I>, O extends RealType<O>>
-	extends AbstractImageMomentOp<I, O> implements Ops.ImageMoments.NormalizedCentralMoment02
+	extends AbstractMomentsViewOp<I, O> implements Ops.ImageMoments.NormalizedCentralMoment02
 {
 
-	private UnaryFunctionOp<IterableInterval<I>, O> centralMoment00Func;
-
-	private UnaryFunctionOp<IterableInterval<I>, O> centralMoment02Func;
-
-	@Override
-	public void initialize() {
-		centralMoment00Func = RTs.function(ops(), Ops.ImageMoments.CentralMoment00.class, in());
-		centralMoment02Func = RTs.function(ops(), Ops.ImageMoments.CentralMoment02.class, in());
-	}
-
 	@Override
-	public void compute(final IterableInterval<I> input, final O output) {
-		double centralMoment00 = centralMoment00Func.calculate(input).getRealDouble();
-		double centralMoment02 = centralMoment02Func.calculate(input).getRealDouble();
-
-		output.setReal(centralMoment02 /
-			Math.pow(centralMoment00, 1 + ((0 + 2) / 2.0)));
+	protected double getMoment(final Moments2D moments) {
+		return moments.normalizedCentral(0, 2);
 	}
 }
@@ -55,7 +55,23 @@ public class LabelingNamespace extends AbstractNamespace {
 
 	// -- CCA --
 
-	@OpMethod(op = net.imagej.ops.labeling.cca.DefaultCCA.class)
+	@OpMethod(op = net.imagej.ops.labeling.cca.TiledCCA.class)
+	public <T extends IntegerType<T>, L, I extends IntegerType<I>>
+		ImgLabeling<L, I> cca(final ImgLabeling<L, I> out,
+			final RandomAccessibleInterval<T> in, final StructuringElement element,
+			final Iterator<L> labelGenerator,
+			final net.imagej.ops.labeling.cca.ComponentStatistics statistics)
+	{
+		@SuppressWarnings("unchecked")
+		final ImgLabeling<L, I> result =
+			(ImgLabeling<L, I>) ops().run(
+				net.imagej.ops.Ops.Labeling.CCA.class, out, in, element,
+				labelGenerator, statistics);
+		return result;
+	}
+
+	@OpMethod(ops = { net.imagej.ops.labeling.cca.DefaultCCA.class,
+		net.imagej.ops.labeling.cca.TiledCCA.class })
 	public <T extends IntegerType<T>, L, I extends IntegerType<I>>
 		ImgLabeling<L, I> cca(final ImgLabeling<L, I> out,
 			final RandomAccessibleInterval<T> in, final StructuringElement element,
@@ -69,7 +85,8 @@ public class LabelingNamespace extends AbstractNamespace {
 		return result;
 	}
 
-	@OpMethod(op = net.imagej.ops.labeling.cca.DefaultCCA.class)
+	@OpMethod(ops = { net.imagej.ops.labeling.cca.DefaultCCA.class,
+		net.imagej.ops.labeling.cca.TiledCCA.class })
 	public <T extends IntegerType<T>, L, I extends IntegerType<I>>
 		ImgLabeling<L, I> cca(final ImgLabeling<L, I> out,
 			final RandomAccessibleInterval<T> in, final StructuringElement element)
@@ -81,7 +98,8 @@ public class LabelingNamespace extends AbstractNamespace {
 		return result;
 	}
 
-	@OpMethod(op = net.imagej.ops.labeling.cca.DefaultCCA.class)
+	@OpMethod(ops = { net.imagej.ops.labeling.cca.DefaultCCA.class,
+		net.imagej.ops.labeling.cca.TiledCCA.class })
 	public <T extends IntegerType<T>, L, I extends IntegerType<I>>
 		ImgLabeling<L, I> cca(final RandomAccessibleInterval<T> in,
 			final StructuringElement element)
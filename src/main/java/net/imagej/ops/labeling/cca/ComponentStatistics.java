@@ -0,0 +1,80 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.labeling.cca;
+
+/**
+ * Size and bounding box of each connected component, as computed alongside the
+ * labeling by {@link TiledCCA}. Component {@code c} is the one which received
+ * the {@code c}-th label, i.e. index {@code c + 1} of the labeling's index
+ * image. Components are numbered in the flat iteration order of their first
+ * pixel.
+ */
+public class ComponentStatistics {
+
+	private int numDimensions;
+
+	private int numComponents;
+
+	private long[] sizes = new long[0];
+
+	private long[] min = new long[0];
+
+	private long[] max = new long[0];
+
+	public int numComponents() {
+		return numComponents;
+	}
+
+	/** @return the number of pixels of the component */
+	public long size(final int component) {
+		return sizes[component];
+	}
+
+	/** @return the minimum of the component's bounding box in dimension d */
+	public long min(final int component, final int d) {
+		return min[component * numDimensions + d];
+	}
+
+	/** @return the maximum of the component's bounding box in dimension d */
+	public long max(final int component, final int d) {
+		return max[component * numDimensions + d];
+	}
+
+	void set(final int numDimensions, final long[] sizes, final long[] min,
+		final long[] max)
+	{
+		this.numDimensions = numDimensions;
+		this.numComponents = sizes.length;
+		this.sizes = sizes;
+		this.min = min;
+		this.max = max;
+	}
+
+}
@@ -0,0 +1,511 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.labeling.cca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.Ops;
+import net.imagej.ops.special.function.Functions;
+import net.imagej.ops.special.function.UnaryFunctionOp;
+import net.imagej.ops.special.hybrid.AbstractUnaryHybridCF;
+import net.imagej.ops.thread.ThreadUtil;
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.labeling.ConnectedComponents.StructuringElement;
+import net.imglib2.roi.labeling.ImgLabeling;
+import net.imglib2.roi.labeling.LabelingMapping;
+import net.imglib2.roi.labeling.LabelingMapping.SerialisationAccess;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+import org.scijava.thread.ThreadService;
+import org.scijava.util.IntArray;
+
+/**
+ * Connected component analysis which labels slabs of the image in parallel.
+ * <p>
+ * Each pixel is a node of a union-find forest stored in a primitive int
+ * array. Roots are always linked to the root with the lower index by
+ * compare-and-set, so the forest can be updated without locks, and the root of
+ * each component ends up being its first pixel in flat iteration order. The
+ * slabs along the last dimension are first labeled independently and then
+ * merged across their borders. A final pass numbers the components in the
+ * order of their first pixel, writes the index image of the labeling and
+ * collects the {@link ComponentStatistics}, if requested.
+ * </p>
+ * <p>
+ * Pixels with a nonzero value are foreground. Component {@code c} gets the
+ * {@code c}-th label of the label generator, or the integer {@code c} if none
+ * is given.
+ * </p>
+ */
+@Plugin(type = Ops.Labeling.CCA.class, priority = Priority.HIGH)
+public class TiledCCA<T extends IntegerType<T>, L, I extends IntegerType<I>>
+	extends
+	AbstractUnaryHybridCF<RandomAccessibleInterval<T>, ImgLabeling<L, I>>
+	implements Contingent, Ops.Labeling.CCA
+{
+
+	/** Number of slabs per thread. */
+	private static final int SLABS_PER_THREAD = 4;
+
+	/** Parent of background pixels in the union-find forest. */
+	private static final int BACKGROUND = -1;
+
+	@Parameter
+	private ThreadService threads;
+
+	@Parameter
+	private StructuringElement se;
+
+	@Parameter(required = false)
+	private Iterator<L> labelGenerator;
+
+	@Parameter(required = false)
+	private ComponentStatistics statistics;
+
+	private UnaryFunctionOp<Interval, ImgLabeling<L, I>> imgLabelingCreator;
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Override
+	public void initialize() {
+		imgLabelingCreator = (UnaryFunctionOp) Functions.unary(ops(),
+			Ops.Create.ImgLabeling.class, ImgLabeling.class, in());
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<T> input,
+		final ImgLabeling<L, I> output)
+	{
+		final int numDimensions = input.numDimensions();
+		final long[] dims = Intervals.dimensionsAsLongArray(input);
+		final int[] strides = new int[numDimensions];
+		long size = 1;
+		for (int d = 0; d < numDimensions; d++) {
+			strides[d] = (int) size;
+			size *= dims[d];
+		}
+
+		// split along the last dimension
+		final long slabDim = dims[numDimensions - 1];
+		final int numSlabs = ThreadUtil.numTasks(threads, slabDim,
+			SLABS_PER_THREAD);
+		final long[] slabStarts = new long[numSlabs + 1];
+		for (int s = 0; s <= numSlabs; s++) {
+			slabStarts[s] = slabDim * s / numSlabs;
+		}
+
+		final Forest forest = new Forest((int) size, dims, strides,
+			backwardNeighbors(numDimensions));
+		final RandomAccessibleInterval<T> in = Views.zeroMin(input);
+
+		// label each slab on its own, then merge across slab borders
+		run(numSlabs, s -> forest.labelSlab(slab(in, dims, slabStarts[s],
+			slabStarts[s + 1]), slabStarts[s]));
+		run(numSlabs - 1, s -> forest.mergeBorder(slabStarts[s + 1]));
+
+		// number the components in the order of their roots
+		final IntArray[] roots = new IntArray[numSlabs];
+		run(numSlabs, s -> roots[s] = forest.flatten(slabStarts[s],
+			slabStarts[s + 1]));
+		final int[] firstComponent = new int[numSlabs];
+		int numComponents = 0;
+		for (int s = 0; s < numSlabs; s++) {
+			firstComponent[s] = numComponents;
+			numComponents += roots[s].size();
+		}
+		run(numSlabs, s -> forest.number(roots[s], firstComponent[s]));
+
+		// write the index image and collect the statistics in one pass
+		final Statistics stats = statistics == null ? null : new Statistics(
+			numComponents, numDimensions);
+		final RandomAccessibleInterval<I> indexImg = Views.zeroMin(output
+			.getIndexImg());
+		run(numSlabs, s -> forest.write(slab(indexImg, dims, slabStarts[s],
+			slabStarts[s + 1]), slabStarts[s], stats));
+
+		// one label per component
+		final List<Set<L>> labelSets = new ArrayList<>(numComponents + 1);
+		labelSets.add(new HashSet<>());
+		for (int c = 0; c < numComponents; c++) {
+			labelSets.add(new HashSet<>(Collections.singleton(nextLabel(c))));
+		}
+		new MappingAccess<>(output.getMapping()).setLabelSets(labelSets);
+
+		if (statistics != null) {
+			stats.copyTo(statistics, Intervals.minAsLongArray(input));
+		}
+	}
+
+	@Override
+	public ImgLabeling<L, I> createOutput(
+		final RandomAccessibleInterval<T> input)
+	{
+		return imgLabelingCreator.calculate(input);
+	}
+
+	@Override
+	public boolean conforms() {
+		// NB: The union-find forest is indexed by int, larger images are left to
+		// the other implementations.
+		if (Intervals.numElements(in()) > Integer.MAX_VALUE) return false;
+		if (out() == null) return true;
+		return Intervals.equalDimensions(in(), out());
+	}
+
+	// -- Helper methods --
+
+	@SuppressWarnings("unchecked")
+	private L nextLabel(final int component) {
+		return labelGenerator == null ? (L) Integer.valueOf(component)
+			: labelGenerator.next();
+	}
+
+	/**
+	 * Gets the neighbor steps which lead to pixels visited earlier in flat
+	 * iteration order, i.e. those whose last nonzero step is negative.
+	 */
+	private int[][] backwardNeighbors(final int numDimensions) {
+		final List<int[]> neighbors = new ArrayList<>();
+		final int[] delta = new int[numDimensions];
+		while (true) {
+			// advance to the next step in {-1, 0, 1}^n
+			int d = 0;
+			while (d < numDimensions && delta[d] == 1) {
+				delta[d++] = -1;
+			}
+			if (d == numDimensions) break;
+			delta[d]++;
+
+			int distance = 0;
+			int lastNonZero = 0;
+			for (int k = 0; k < numDimensions; k++) {
+				distance += Math.abs(delta[k]);
+				if (delta[k] != 0) lastNonZero = delta[k];
+			}
+			if (lastNonZero < 0 && (se == StructuringElement.EIGHT_CONNECTED ||
+				distance == 1))
+			{
+				neighbors.add(delta.clone());
+			}
+		}
+		return neighbors.toArray(new int[neighbors.size()][]);
+	}
+
+	private static <V> Cursor<V> slab(final RandomAccessibleInterval<V> image,
+		final long[] dims, final long start, final long end)
+	{
+		final long[] min = new long[dims.length];
+		final long[] max = new long[dims.length];
+		for (int d = 0; d < dims.length; d++) {
+			max[d] = dims[d] - 1;
+		}
+		min[dims.length - 1] = start;
+		max[dims.length - 1] = end - 1;
+		return Views.flatIterable(Views.interval(image, new FinalInterval(min,
+			max))).cursor();
+	}
+
+	private void run(final int numTasks, final IntConsumer task) {
+		final List<Future<?>> futures = new ArrayList<>(numTasks);
+		for (int t = 0; t < numTasks; t++) {
+			final int index = t;
+			futures.add(threads.run(() -> task.accept(index)));
+		}
+		try {
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (final InterruptedException | ExecutionException exc) {
+			final Throwable cause = exc.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new RuntimeException(exc);
+		}
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Lock-free union-find forest over all pixels. A foreground pixel points to
+	 * its parent, which always has a lower index, and a background pixel to
+	 * {@link #BACKGROUND}. Once numbered, roots hold their encoded component.
+	 */
+	private static final class Forest {
+
+		private final AtomicIntegerArray parents;
+		private final long[] dims;
+		private final int[] strides;
+		private final int[][] neighbors;
+		private final int[] neighborOffsets;
+
+		public Forest(final int size, final long[] dims, final int[] strides,
+			final int[][] neighbors)
+		{
+			parents = new AtomicIntegerArray(size);
+			this.dims = dims;
+			this.strides = strides;
+			this.neighbors = neighbors;
+			neighborOffsets = new int[neighbors.length];
+			for (int n = 0; n < neighbors.length; n++) {
+				for (int d = 0; d < dims.length; d++) {
+					neighborOffsets[n] += neighbors[n][d] * strides[d];
+				}
+			}
+		}
+
+		/** Unites each foreground pixel of a slab with its earlier neighbors. */
+		public <T extends IntegerType<T>> void labelSlab(final Cursor<T> cursor,
+			final long start)
+		{
+			final int last = dims.length - 1;
+			final long[] position = new long[dims.length];
+			position[last] = start;
+			int p = (int) (start * strides[last]);
+			while (cursor.hasNext()) {
+				if (cursor.next().getIntegerLong() != 0) {
+					parents.set(p, p);
+					for (int n = 0; n < neighbors.length; n++) {
+						if (inside(position, neighbors[n], start)) {
+							final int q = p + neighborOffsets[n];
+							if (parents.get(q) != BACKGROUND) union(p, q);
+						}
+					}
+				}
+				else {
+					parents.set(p, BACKGROUND);
+				}
+				p++;
+				fwd(position);
+			}
+		}
+
+		/**
+		 * Unites the foreground pixels of the first plane of a slab with their
+		 * neighbors in the last plane of the previous slab.
+		 */
+		public void mergeBorder(final long plane) {
+			final int last = dims.length - 1;
+			final long[] position = new long[dims.length];
+			position[last] = plane;
+			final int start = (int) (plane * strides[last]);
+			final int end = start + strides[last];
+			for (int p = start; p < end; p++) {
+				if (parents.get(p) != BACKGROUND) {
+					for (int n = 0; n < neighbors.length; n++) {
+						if (neighbors[n][last] < 0 && inside(position, neighbors[n], 0)) {
+							final int q = p + neighborOffsets[n];
+							if (parents.get(q) != BACKGROUND) union(p, q);
+						}
+					}
+				}
+				fwd(position);
+			}
+		}
+
+		/**
+		 * Points every foreground pixel of the slab directly to its root.
+		 * 
+		 * @return the roots within the slab, in ascending order
+		 */
+		public IntArray flatten(final long start, final long end) {
+			final int last = dims.length - 1;
+			final IntArray roots = new IntArray();
+			final int to = (int) (end * strides[last]);
+			for (int p = (int) (start * strides[last]); p < to; p++) {
+				if (parents.get(p) == BACKGROUND) continue;
+				final int root = find(p);
+				if (root == p) roots.addValue(p);
+				else parents.set(p, root);
+			}
+			return roots;
+		}
+
+		/** Stores the component numbers in the given roots. */
+		public void number(final IntArray roots, final int firstComponent) {
+			for (int i = 0; i < roots.size(); i++) {
+				parents.set(roots.getValue(i), BACKGROUND - 1 - (firstComponent + i));
+			}
+		}
+
+		/**
+		 * Writes the component indices of a slab, which are the component
+		 * numbers plus one, and zero for the background.
+		 */
+		public <I extends IntegerType<I>> void write(final Cursor<I> cursor,
+			final long start, final Statistics stats)
+		{
+			final int last = dims.length - 1;
+			final long[] position = new long[dims.length];
+			position[last] = start;
+			int p = (int) (start * strides[last]);
+			while (cursor.hasNext()) {
+				int parent = parents.get(p);
+				if (parent >= 0) parent = parents.get(parent);
+				final int component = BACKGROUND - 1 - parent;
+				cursor.next().setInteger(component + 1);
+				if (stats != null && component >= 0) stats.add(component, position);
+				p++;
+				fwd(position);
+			}
+		}
+
+		private boolean inside(final long[] position, final int[] delta,
+			final long minLast)
+		{
+			final int last = dims.length - 1;
+			for (int d = 0; d < dims.length; d++) {
+				final long pos = position[d] + delta[d];
+				if (pos < (d == last ? minLast : 0) || pos >= dims[d]) return false;
+			}
+			return true;
+		}
+
+		private void fwd(final long[] position) {
+			position[0]++;
+			for (int d = 0; d < dims.length - 1 && position[d] == dims[d]; d++) {
+				position[d] = 0;
+				position[d + 1]++;
+			}
+		}
+
+		private int find(int x) {
+			while (true) {
+				final int parent = parents.get(x);
+				if (parent == x) return x;
+				final int grandParent = parents.get(parent);
+				// path halving
+				if (grandParent != parent) parents.compareAndSet(x, parent,
+					grandParent);
+				x = grandParent;
+			}
+		}
+
+		private void union(int a, int b) {
+			while (true) {
+				a = find(a);
+				b = find(b);
+				if (a == b) return;
+				if (a < b) {
+					final int tmp = a;
+					a = b;
+					b = tmp;
+				}
+				// only a root may be linked, to the lower root
+				if (parents.compareAndSet(a, a, b)) return;
+			}
+		}
+	}
+
+	/** Access to the label sets of a {@link LabelingMapping}. */
+	private static final class MappingAccess<L> extends SerialisationAccess<L> {
+
+		public MappingAccess(final LabelingMapping<L> mapping) {
+			super(mapping);
+		}
+
+		@Override
+		protected void setLabelSets(final List<Set<L>> labelSets) {
+			super.setLabelSets(labelSets);
+		}
+	}
+
+	/** Thread-safe accumulator of the {@link ComponentStatistics}. */
+	private static final class Statistics {
+
+		private final int numDimensions;
+		private final AtomicLongArray sizes;
+		private final AtomicLongArray min;
+		private final AtomicLongArray max;
+
+		public Statistics(final int numComponents, final int numDimensions) {
+			this.numDimensions = numDimensions;
+			sizes = new AtomicLongArray(numComponents);
+			min = new AtomicLongArray(numComponents * numDimensions);
+			max = new AtomicLongArray(numComponents * numDimensions);
+			for (int i = 0; i < min.length(); i++) {
+				min.set(i, Long.MAX_VALUE);
+				max.set(i, Long.MIN_VALUE);
+			}
+		}
+
+		public void add(final int component, final long[] position) {
+			sizes.incrementAndGet(component);
+			final int offset = component * numDimensions;
+			for (int d = 0; d < numDimensions; d++) {
+				long current;
+				while (position[d] < (current = min.get(offset + d)) && !min
+					.compareAndSet(offset + d, current, position[d]))
+				{
+					// retry
+				}
+				while (position[d] > (current = max.get(offset + d)) && !max
+					.compareAndSet(offset + d, current, position[d]))
+				{
+					// retry
+				}
+			}
+		}
+
+		public void copyTo(final ComponentStatistics statistics,
+			final long[] origin)
+		{
+			final long[] sizeArray = new long[sizes.length()];
+			for (int c = 0; c < sizeArray.length; c++) {
+				sizeArray[c] = sizes.get(c);
+			}
+			final long[] minArray = new long[min.length()];
+			final long[] maxArray = new long[max.length()];
+			for (int i = 0; i < minArray.length; i++) {
+				minArray[i] = min.get(i) + origin[i % numDimensions];
+				maxArray[i] = max.get(i) + origin[i % numDimensions];
+			}
+			statistics.set(numDimensions, sizeArray, minArray, maxArray);
+		}
+	}
+
+}
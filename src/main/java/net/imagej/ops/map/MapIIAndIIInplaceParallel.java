@@ -67,8 +67,8 @@ public class MapIIAndIIInplaceParallel<EA> extends
 			public void execute(final long startIndex, final long stepSize,
 				final long numSteps)
 			{
-				Maps.inplace(arg, in, (BinaryInplace1Op<EA, EA, EA>) getOp(),
-					startIndex, stepSize, numSteps);
+				Maps.inplace(arg, in, (BinaryInplace1Op<EA, EA, EA>) getOp()
+					.getIndependentInstance(), startIndex, stepSize, numSteps);
 			}
 		}, arg.size());
 	}
@@ -83,7 +83,8 @@ public class MapIIAndIIInplaceParallel<EA> extends
 			public void execute(final long startIndex, final long stepSize,
 				final long numSteps)
 			{
-				Maps.inplace(in, arg, getOp(), startIndex, stepSize, numSteps);
+				Maps.inplace(in, arg, getOp().getIndependentInstance(), startIndex,
+					stepSize, numSteps);
 			}
 		}, in.size());
 	}
@@ -57,7 +57,8 @@ public class MapIIInplaceParallel<A> extends
 			public void execute(final long startIndex, final long stepSize,
 				final long numSteps)
 			{
-				Maps.inplace(arg, getOp(), startIndex, stepSize, numSteps);
+				Maps.inplace(arg, getOp().getIndependentInstance(), startIndex,
+					stepSize, numSteps);
 			}
 		}, arg.size());
 	}
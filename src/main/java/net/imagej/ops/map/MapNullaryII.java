@@ -30,6 +30,7 @@
 package net.imagej.ops.map;
 
 import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
 import net.imagej.ops.thread.chunker.ChunkerOp;
 import net.imagej.ops.thread.chunker.CursorBasedChunk;
 import net.imglib2.IterableInterval;
@@ -46,7 +47,7 @@ import org.scijava.plugin.Plugin;
  */
 @Plugin(type = Ops.Map.class, priority = Priority.LOW + 1)
 public class MapNullaryII<O> extends
-	AbstractMapNullaryComputer<O, IterableInterval<O>>
+	AbstractMapNullaryComputer<O, IterableInterval<O>> implements Parallel
 {
 
 	@Override
@@ -57,7 +58,8 @@ public class MapNullaryII<O> extends
 			public void execute(final long startIndex, final long stepSize,
 				final long numSteps)
 			{
-				Maps.map(output, getOp(), startIndex, stepSize, numSteps);
+				Maps.map(output, getOp().getIndependentInstance(), startIndex,
+					stepSize, numSteps);
 			}
 		}, output.size());
 	}
@@ -0,0 +1,364 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.morphology;
+
+import java.util.List;
+
+import net.imagej.ops.OpEnvironment;
+import net.imagej.ops.thread.chunker.Chunk;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.FlatIterationOrder;
+import net.imglib2.Interval;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccessible;
+import net.imglib2.algorithm.neighborhood.HorizontalLineShape;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+/**
+ * Dilation and erosion with boxes, i.e. {@link RectangleShape}s,
+ * {@link HorizontalLineShape}s and sequences of them.
+ * <p>
+ * A box is separable, so it is processed as one line after the other in each
+ * dimension. Each line is processed with the van Herk/Gil-Werman algorithm,
+ * which needs about three comparisons per pixel regardless of the radius.
+ * The lines of each dimension are processed in parallel, in place in a single
+ * buffer of the padded source. Pixels are buffered as floats if the type fits,
+ * and as doubles otherwise, so only types whose values are exactly represented
+ * by a double are supported.
+ * </p>
+ */
+public final class BoxMorphologies {
+
+	private BoxMorphologies() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	/**
+	 * Gets the radii of the box equivalent to a {@link Shape}.
+	 * 
+	 * @param shape the structuring element
+	 * @param target the interval to be computed
+	 * @param type the pixel type
+	 * @return the radius in each dimension, or {@code null} if the shape is not
+	 *         a box or the computation is not supported
+	 */
+	public static long[] radii(final Shape shape, final Interval target,
+		final RealType<?> type)
+	{
+		final long[] radii = new long[target.numDimensions()];
+		return addRadii(shape, radii) && isSupported(target, radii, type) ? radii
+			: null;
+	}
+
+	/**
+	 * Gets the radii of the box equivalent to a sequence of {@link Shape}s. The
+	 * result of a sequence of dilations (erosions) with boxes, when all
+	 * intermediate results are kept in full, is that of a single dilation
+	 * (erosion) with the sum of the boxes.
+	 * 
+	 * @param shapes the structuring elements
+	 * @param target the interval to be computed
+	 * @param type the pixel type
+	 * @return the radius in each dimension, or {@code null} if any of the shapes
+	 *         is not a box or the computation is not supported
+	 */
+	public static long[] radii(final List<Shape> shapes, final Interval target,
+		final RealType<?> type)
+	{
+		final long[] radii = new long[target.numDimensions()];
+		for (final Shape shape : shapes) {
+			if (!addRadii(shape, radii)) return null;
+		}
+		return isSupported(target, radii, type) ? radii : null;
+	}
+
+	/**
+	 * Computes the dilation of a source with a box.
+	 * 
+	 * @param ops the environment running the {@link ChunkerOp}
+	 * @param source the source, extended as needed
+	 * @param radii the radius of the box in each dimension
+	 * @param output the output, which also defines the interval to compute
+	 */
+	public static <T extends RealType<T>> void dilate(final OpEnvironment ops,
+		final RandomAccessible<T> source, final long[] radii,
+		final IterableInterval<T> output)
+	{
+		process(ops, source, radii, output, true);
+	}
+
+	/**
+	 * Computes the erosion of a source with a box.
+	 * 
+	 * @param ops the environment running the {@link ChunkerOp}
+	 * @param source the source, extended as needed
+	 * @param radii the radius of the box in each dimension
+	 * @param output the output, which also defines the interval to compute
+	 */
+	public static <T extends RealType<T>> void erode(final OpEnvironment ops,
+		final RandomAccessible<T> source, final long[] radii,
+		final IterableInterval<T> output)
+	{
+		process(ops, source, radii, output, false);
+	}
+
+	// -- Helper methods --
+
+	private static boolean addRadii(final Shape shape, final long[] radii) {
+		if (shape instanceof RectangleShape) {
+			final RectangleShape rectangle = (RectangleShape) shape;
+			if (rectangle.isSkippingCenter()) return false;
+			for (int d = 0; d < radii.length; d++) {
+				radii[d] += rectangle.getSpan();
+			}
+			return true;
+		}
+		if (shape instanceof HorizontalLineShape) {
+			final HorizontalLineShape line = (HorizontalLineShape) shape;
+			final int d = line.getLineDimension();
+			if (line.isSkippingCenter() || d >= radii.length) return false;
+			radii[d] += line.getSpan();
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean isSupported(final Interval target,
+		final long[] radii, final RealType<?> type)
+	{
+		// doubles hold integers of up to 53 bits exactly
+		if (type instanceof IntegerType && type.getBitsPerPixel() > 32) {
+			return false;
+		}
+		double size = 1;
+		for (int d = 0; d < radii.length; d++) {
+			size *= target.dimension(d) + 2 * radii[d];
+		}
+		return size < Integer.MAX_VALUE;
+	}
+
+	private static <T extends RealType<T>> void process(final OpEnvironment ops,
+		final RandomAccessible<T> source, final long[] radii,
+		final IterableInterval<T> output, final boolean max)
+	{
+		final int numDims = output.numDimensions();
+		final long[] min = new long[numDims];
+		final long[] dims = new long[numDims];
+		final long[] padMin = new long[numDims];
+		final long[] padMax = new long[numDims];
+		for (int d = 0; d < numDims; d++) {
+			min[d] = output.min(d);
+			dims[d] = output.dimension(d) + 2 * radii[d];
+			padMin[d] = min[d] - radii[d];
+			padMax[d] = output.max(d) + radii[d];
+		}
+
+		final Interval padded = new FinalInterval(padMin, padMax);
+		final int size = (int) Intervals.numElements(padded);
+		final Buffer buffer = fitsFloat(output.firstElement()) ? new FloatBuffer(
+			size) : new DoubleBuffer(size);
+		int index = 0;
+		for (final T t : Views.flatIterable(Views.interval(source, padded))) {
+			buffer.set(index++, t.getRealDouble());
+		}
+
+		// the strides stay those of the padded source; each pass shrinks the
+		// valid part of the buffer to the output in one dimension
+		final int[] strides = new int[numDims];
+		int stride = 1;
+		for (int d = 0; d < numDims; d++) {
+			strides[d] = stride;
+			stride *= (int) dims[d];
+		}
+		for (int d = 0; d < numDims; d++) {
+			if (radii[d] == 0) continue;
+			processLines(ops, buffer, dims, strides, d, (int) radii[d], max);
+			dims[d] -= 2 * radii[d];
+		}
+
+		final long[] position = new long[numDims];
+		if (output.iterationOrder() instanceof FlatIterationOrder) {
+			int offset = 0;
+			for (final T t : output) {
+				t.setReal(buffer.get(offset));
+				// advance to the next position, carrying over full lines
+				for (int d = 0; d < numDims; d++) {
+					offset += strides[d];
+					if (++position[d] < dims[d]) break;
+					offset -= (int) dims[d] * strides[d];
+					position[d] = 0;
+				}
+			}
+			return;
+		}
+		final Cursor<T> cursor = output.localizingCursor();
+		while (cursor.hasNext()) {
+			cursor.fwd();
+			cursor.localize(position);
+			int offset = 0;
+			for (int d = 0; d < numDims; d++) {
+				offset += (int) (position[d] - min[d]) * strides[d];
+			}
+			cursor.get().setReal(buffer.get(offset));
+		}
+	}
+
+	/** Checks whether all values of a type are exactly represented by a float. */
+	private static boolean fitsFloat(final RealType<?> type) {
+		if (type instanceof IntegerType) return type.getBitsPerPixel() <= 24;
+		return type instanceof FloatType;
+	}
+
+	/**
+	 * Computes the running extremum over windows of {@code 2 * radius + 1}
+	 * pixels along all lines in dimension d, in place. The results are stored
+	 * at the start of each line, which shrinks it by {@code 2 * radius} pixels.
+	 * The lines are split among threads with a {@link ChunkerOp}.
+	 */
+	private static void processLines(final OpEnvironment ops,
+		final Buffer buffer, final long[] dims, final int[] strides, final int d,
+		final int radius, final boolean max)
+	{
+		final int length = (int) dims[d];
+		final int stride = strides[d];
+		final int window = 2 * radius + 1;
+		final int outLength = length - 2 * radius;
+		long numLines = 1;
+		for (int k = 0; k < dims.length; k++) {
+			if (k != d) numLines *= dims[k];
+		}
+
+		ops.run(ChunkerOp.class, new Chunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final double[] line = new double[length];
+				final double[] prefix = new double[length];
+				final double[] suffix = new double[length];
+				long l = startIndex;
+				for (long s = 0; s < numSteps; s++, l += stepSize) {
+					// the start of the line, from its position in the other dimensions
+					int start = 0;
+					long rest = l;
+					for (int k = 0; k < dims.length; k++) {
+						if (k == d) continue;
+						start += (int) (rest % dims[k]) * strides[k];
+						rest /= dims[k];
+					}
+					for (int k = 0; k < length; k++) {
+						line[k] = buffer.get(start + k * stride);
+					}
+
+					// extremum from the start and to the end of each block of a window
+					for (int k = 0; k < length; k++) {
+						prefix[k] = k % window == 0 ? line[k] : extremum(prefix[k - 1],
+							line[k], max);
+					}
+					suffix[length - 1] = line[length - 1];
+					for (int k = length - 2; k >= 0; k--) {
+						suffix[k] = (k + 1) % window == 0 ? line[k] : extremum(suffix[k + 1],
+							line[k], max);
+					}
+
+					// a window is the end of one block and the start of the next
+					for (int k = 0; k < outLength; k++) {
+						buffer.set(start + k * stride, extremum(suffix[k], prefix[k +
+							window - 1], max));
+					}
+				}
+			}
+		}, numLines);
+	}
+
+	private static double extremum(final double a, final double b,
+		final boolean max)
+	{
+		return max ? Math.max(a, b) : Math.min(a, b);
+	}
+
+	// -- Helper classes --
+
+	/** Primitive storage of the pixels, as narrow as the type allows. */
+	private static abstract class Buffer {
+
+		public abstract double get(int index);
+
+		public abstract void set(int index, double value);
+	}
+
+	private static final class FloatBuffer extends Buffer {
+
+		private final float[] values;
+
+		public FloatBuffer(final int size) {
+			values = new float[size];
+		}
+
+		@Override
+		public double get(final int index) {
+			return values[index];
+		}
+
+		@Override
+		public void set(final int index, final double value) {
+			values[index] = (float) value;
+		}
+	}
+
+	private static final class DoubleBuffer extends Buffer {
+
+		private final double[] values;
+
+		public DoubleBuffer(final int size) {
+			values = new double[size];
+		}
+
+		@Override
+		public double get(final int index) {
+			return values[index];
+		}
+
+		@Override
+		public void set(final int index, final double value) {
+			values[index] = value;
+		}
+	}
+
+}
@@ -32,6 +32,7 @@ package net.imagej.ops.morphology.dilate;
 import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
 import net.imagej.ops.map.Maps;
+import net.imagej.ops.morphology.BoxMorphologies;
 import net.imagej.ops.special.function.Functions;
 import net.imagej.ops.special.function.UnaryFunctionOp;
 import net.imagej.ops.special.hybrid.AbstractBinaryHybridCF;
@@ -125,6 +126,11 @@ public class DefaultDilate<T extends RealType<T>> extends
 		}
 		final ExtendedRandomAccessibleInterval<T, RandomAccessibleInterval<T>> extended =
 			Views.extend(shifted, f);
+		final long[] radii = BoxMorphologies.radii(in2, output, minVal);
+		if (radii != null) {
+			BoxMorphologies.dilate(ops(), extended, radii, output);
+			return;
+		}
 		Dilation.dilate(extended, output, in2, minVal, Runtime.getRuntime()
 			.availableProcessors());
 	}
@@ -32,6 +32,7 @@ package net.imagej.ops.morphology.erode;
 import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
 import net.imagej.ops.map.Maps;
+import net.imagej.ops.morphology.BoxMorphologies;
 import net.imagej.ops.special.function.Functions;
 import net.imagej.ops.special.function.UnaryFunctionOp;
 import net.imagej.ops.special.hybrid.AbstractBinaryHybridCF;
@@ -125,6 +126,11 @@ public class DefaultErode<T extends RealType<T>> extends
 		}
 		final ExtendedRandomAccessibleInterval<T, RandomAccessibleInterval<T>> extended =
 			Views.extend(shifted, f);
+		final long[] radii = BoxMorphologies.radii(in2, output, maxVal);
+		if (radii != null) {
+			BoxMorphologies.erode(ops(), extended, radii, output);
+			return;
+		}
 		Erosion.erode(extended, output, in2, maxVal, Runtime.getRuntime()
 			.availableProcessors());
 	}
@@ -34,6 +34,7 @@ import java.util.List;
 import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
 import net.imagej.ops.map.Maps;
+import net.imagej.ops.morphology.BoxMorphologies;
 import net.imagej.ops.morphology.Morphologies;
 import net.imagej.ops.special.computer.BinaryComputerOp;
 import net.imagej.ops.special.computer.Computers;
@@ -44,6 +45,7 @@ import net.imagej.ops.special.hybrid.AbstractBinaryHybridCF;
 import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
 import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.neighborhood.Shape;
 import net.imglib2.img.Img;
@@ -118,6 +120,14 @@ public class ListErode<T extends RealType<T>> extends
 		final List<Shape> in2, final IterableInterval<T> out)
 	{
 		final long[][] minSize = Morphologies.computeMinSize(in1, in2);
+		final long[] radii = BoxMorphologies.radii(in2, out, maxVal);
+		if (radii != null) {
+			// a sequence of boxes is a single box, computed right into the output
+			final RandomAccessible<T> extended = Views.extendValue(in1, maxVal);
+			BoxMorphologies.erode(ops(), isFull ? Views.translate(extended, negate(
+				minSize[0])) : extended, radii, out);
+			return;
+		}
 		final Interval interval = new FinalInterval(minSize[1]);
 		Img<T> upstream = imgCreator.calculate(interval);
 		Img<T> downstream = imgCreator.calculate(interval);
@@ -138,4 +148,14 @@ public class ListErode<T extends RealType<T>> extends
 		else copyImg.compute(Views.interval(Views.translate(downstream,
 			minSize[0]), out), out);
 	}
+
+	// -- Helper methods --
+
+	private static long[] negate(final long[] offset) {
+		final long[] negated = new long[offset.length];
+		for (int d = 0; d < offset.length; d++) {
+			negated[d] = -offset[d];
+		}
+		return negated;
+	}
 }
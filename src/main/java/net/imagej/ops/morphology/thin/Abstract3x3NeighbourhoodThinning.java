@@ -136,6 +136,32 @@ public abstract class Abstract3x3NeighbourhoodThinning implements
 		return res;
 	}
 
+	/**
+	 * Returns whether {@link #removePixel} only depends on the 3x3 neighbourhood
+	 * of the pixel and the iteration, in which case the decisions can be
+	 * tabulated. Strategies must opt in, since a strategy which keeps state
+	 * across cycles would be tabulated wrongly.
+	 *
+	 * @return True if only the 3x3 neighbourhood is considered. False by
+	 *         default.
+	 */
+	public boolean dependsOnNeighbourhoodOnly() {
+		return false;
+	}
+
+	/**
+	 * Returns whether {@link #removePixel} only depends on the pixels at most
+	 * two pixels away and the iteration, so that thinning only needs to
+	 * re-examine the pixels near the ones removed. Strategies returning false
+	 * are run with a full scan of the image in every iteration.
+	 *
+	 * @return True if only nearby pixels are considered. By default, whether
+	 *         {@link #dependsOnNeighbourhoodOnly()}.
+	 */
+	public boolean dependsOnNearbyPixelsOnly() {
+		return dependsOnNeighbourhoodOnly();
+	}
+
 	@Override
 	public void afterCycle() {
 		// Intentionally left blank.
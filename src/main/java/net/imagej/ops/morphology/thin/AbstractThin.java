@@ -92,6 +92,14 @@ public abstract class AbstractThin extends
 	public void compute(final RandomAccessibleInterval<BitType> input,
 		final RandomAccessibleInterval<BitType> output)
 	{
+		if (IncrementalThinning.isSupported(m_strategy, input)) {
+			final IncrementalThinning thinning = new IncrementalThinning(m_strategy,
+				input);
+			thinning.run();
+			thinning.copyTo(output);
+			return;
+		}
+
 		// Create a new image as a buffer to store the thinning image in each
 		// iteration.
 		// This image and output are swapped each iteration since we need to work on
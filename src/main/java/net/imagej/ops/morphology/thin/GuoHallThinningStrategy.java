@@ -147,6 +147,11 @@ public class GuoHallThinningStrategy extends Abstract3x3NeighbourhoodThinning {
 
 	}
 
+	@Override
+	public boolean dependsOnNeighbourhoodOnly() {
+		return true;
+	}
+
 	@Override
 	public ThinningStrategy copy() {
 		return new GuoHallThinningStrategy(m_foreground);
@@ -116,6 +116,12 @@ public class HilditchThinningStrategy extends Abstract3x3NeighbourhoodThinning {
 		return true;
 	}
 
+	@Override
+	public boolean dependsOnNearbyPixelsOnly() {
+		// The neighbourhoods of two neighbours are considered as well.
+		return true;
+	}
+
 	@Override
 	public ThinningStrategy copy() {
 		return new HilditchThinningStrategy(m_foreground);
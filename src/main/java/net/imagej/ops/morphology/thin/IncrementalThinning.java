@@ -0,0 +1,261 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.morphology.thin;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+import org.scijava.util.IntArray;
+
+/**
+ * Thins an image with a {@link ThinningStrategy}, re-examining only pixels
+ * whose neighbourhood changed.
+ * <p>
+ * Each iteration decides on all candidates before removing any of them, just
+ * like a full scan of the image. A pixel whose neighbourhood did not change
+ * since the same step of the previous cycle gets the same decision as then, so
+ * the candidates of an iteration are the foreground pixels near the pixels
+ * removed during the last cycle. Strategies which only look at the 3x3
+ * neighbourhood are tabulated for each step of the cycle.
+ * </p>
+ */
+final class IncrementalThinning {
+
+	/** Offsets of the bits of a 3x3 neighbourhood, in the strategies' order. */
+	private static final int[] DX = { 0, 0, 1, 1, 1, 0, -1, -1, -1 };
+	private static final int[] DY = { 0, -1, -1, 0, 1, 1, 1, 0, -1 };
+
+	private final ThinningStrategy strategy;
+	private final long[] dims;
+	private final int width;
+	private final int height;
+	private final boolean[] pixels;
+
+	/** Decisions for each step of the cycle and each 3x3 pattern, or null. */
+	private final boolean[][] tables;
+
+	/** Copy of the pixels for strategies which cannot be tabulated. */
+	private Img<BitType> img;
+	private RandomAccess<BitType> imgAccess;
+	private RandomAccessible<BitType> extended;
+
+	public IncrementalThinning(final ThinningStrategy strategy,
+		final RandomAccessibleInterval<BitType> input)
+	{
+		this.strategy = strategy;
+		dims = Intervals.dimensionsAsLongArray(input);
+		width = (int) dims[0];
+		height = (int) dims[1];
+		pixels = new boolean[(int) Intervals.numElements(input)];
+		int index = 0;
+		for (final BitType t : Views.flatIterable(input)) {
+			pixels[index++] = t.get();
+		}
+
+		if (((Abstract3x3NeighbourhoodThinning) strategy)
+			.dependsOnNeighbourhoodOnly())
+		{
+			tables = tabulate(strategy);
+		}
+		else {
+			tables = null;
+			img = ArrayImgs.bits(dims);
+			final Cursor<BitType> cursor = Views.flatIterable(img).cursor();
+			for (final boolean pixel : pixels) {
+				cursor.next().set(pixel);
+			}
+			imgAccess = img.randomAccess();
+			extended = Views.extendBorder(img);
+		}
+	}
+
+	/**
+	 * Checks whether an image can be thinned incrementally with a strategy,
+	 * which requires the strategy to only look at pixels near the thinned one.
+	 */
+	public static boolean isSupported(final ThinningStrategy strategy,
+		final RandomAccessibleInterval<BitType> input)
+	{
+		return strategy instanceof Abstract3x3NeighbourhoodThinning &&
+			((Abstract3x3NeighbourhoodThinning) strategy)
+				.dependsOnNearbyPixelsOnly() && input.numDimensions() >= 2 && Intervals
+					.numElements(input) < Integer.MAX_VALUE;
+	}
+
+	/** Thins the image until a whole cycle removes no pixel. */
+	public void run() {
+		final int cycle = strategy.getIterationsPerCycle();
+		// NB: The pixels marked during each of the last iterations of a cycle.
+		// Initially, all foreground pixels are candidates for a whole cycle.
+		final IntArray[] marked = new IntArray[cycle];
+		for (int j = 0; j < cycle; j++) {
+			marked[j] = new IntArray();
+		}
+		for (int p = 0; p < pixels.length; p++) {
+			if (pixels[p]) marked[cycle - 1].addValue(p);
+		}
+
+		final int[] visited = new int[pixels.length];
+		final int[] touched = new int[pixels.length];
+		final long[] position = new long[dims.length];
+		// NB: Hilditch also looks at the neighbourhoods of two neighbours.
+		final int radius = tables == null ? 2 : 1;
+
+		int iteration = 1;
+		boolean changes = true;
+		while (changes) {
+			changes = false;
+			for (int j = 0; j < cycle; ++j) {
+				// decide on all candidates before changing any pixel
+				final IntArray removed = new IntArray();
+				for (final IntArray candidates : marked) {
+					for (int i = 0; i < candidates.size(); i++) {
+						final int p = candidates.getValue(i);
+						if (visited[p] == iteration || !pixels[p]) continue;
+						visited[p] = iteration;
+						if (removePixel(p, j, position)) removed.addValue(p);
+					}
+				}
+				for (int i = 0; i < removed.size(); i++) {
+					remove(removed.getValue(i), position);
+				}
+				strategy.afterCycle();
+
+				final IntArray next = marked[(iteration - 1) % cycle];
+				next.clear();
+				for (int i = 0; i < removed.size(); i++) {
+					markNeighbours(removed.getValue(i), radius, iteration, touched, next);
+				}
+				changes |= removed.size() > 0;
+				iteration++;
+			}
+		}
+	}
+
+	/** Writes the thinned image. */
+	public void copyTo(final RandomAccessibleInterval<BitType> output) {
+		int index = 0;
+		for (final BitType t : Views.flatIterable(output)) {
+			t.set(pixels[index++]);
+		}
+	}
+
+	// -- Helper methods --
+
+	private boolean removePixel(final int p, final int step,
+		final long[] position)
+	{
+		if (tables != null) return tables[step][pattern(p)];
+		localize(p, position);
+		return strategy.removePixel(position, extended, step);
+	}
+
+	private void remove(final int p, final long[] position) {
+		pixels[p] = false;
+		if (img != null) {
+			localize(p, position);
+			imgAccess.setPosition(position);
+			imgAccess.get().set(false);
+		}
+	}
+
+	/** Gets the 3x3 neighbourhood of a pixel, extending the border. */
+	private int pattern(final int p) {
+		final int x = p % width;
+		final int y = p / width % height;
+		final int plane = p - x - y * width;
+		int pattern = 0;
+		for (int k = 0; k < DX.length; k++) {
+			final int nx = Math.min(Math.max(x + DX[k], 0), width - 1);
+			final int ny = Math.min(Math.max(y + DY[k], 0), height - 1);
+			if (pixels[plane + ny * width + nx]) pattern |= 1 << k;
+		}
+		return pattern;
+	}
+
+	private void markNeighbours(final int p, final int radius,
+		final int iteration, final int[] touched, final IntArray next)
+	{
+		final int x = p % width;
+		final int y = p / width % height;
+		final int plane = p - x - y * width;
+		final int minX = Math.max(x - radius, 0);
+		final int maxX = Math.min(x + radius, width - 1);
+		final int minY = Math.max(y - radius, 0);
+		final int maxY = Math.min(y + radius, height - 1);
+		for (int ny = minY; ny <= maxY; ny++) {
+			for (int nx = minX; nx <= maxX; nx++) {
+				final int q = plane + ny * width + nx;
+				if (pixels[q] && touched[q] != iteration) {
+					touched[q] = iteration;
+					next.addValue(q);
+				}
+			}
+		}
+	}
+
+	private void localize(int p, final long[] position) {
+		for (int d = 0; d < dims.length; d++) {
+			position[d] = p % dims[d];
+			p /= dims[d];
+		}
+	}
+
+	/** Asks the strategy for its decision on each 3x3 pattern. */
+	private static boolean[][] tabulate(final ThinningStrategy strategy) {
+		final int cycle = strategy.getIterationsPerCycle();
+		final boolean[][] tables = new boolean[cycle][1 << DX.length];
+		final Img<BitType> neighbourhood = ArrayImgs.bits(3, 3);
+		final RandomAccess<BitType> access = neighbourhood.randomAccess();
+		final long[] center = { 1, 1 };
+		for (int pattern = 0; pattern < 1 << DX.length; pattern++) {
+			// only foreground pixels are ever thinned
+			if ((pattern & 1) == 0) continue;
+			for (int k = 0; k < DX.length; k++) {
+				access.setPosition(1 + DX[k], 0);
+				access.setPosition(1 + DY[k], 1);
+				access.get().set((pattern & 1 << k) != 0);
+			}
+			for (int step = 0; step < cycle; step++) {
+				tables[step][pattern] = strategy.removePixel(center, neighbourhood,
+					step);
+			}
+		}
+		return tables;
+	}
+
+}
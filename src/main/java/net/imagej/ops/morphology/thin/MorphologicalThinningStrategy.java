@@ -181,6 +181,11 @@ public class MorphologicalThinningStrategy extends
 		return 4;
 	}
 
+	@Override
+	public boolean dependsOnNeighbourhoodOnly() {
+		return true;
+	}
+
 	@Override
 	public ThinningStrategy copy() {
 		return new MorphologicalThinningStrategy(m_foreground);
@@ -130,6 +130,11 @@ public class ZhangSuenThinningStrategy extends
 		return true;
 	}
 
+	@Override
+	public boolean dependsOnNeighbourhoodOnly() {
+		return true;
+	}
+
 	@Override
 	public ThinningStrategy copy() {
 		return new ZhangSuenThinningStrategy(m_foreground);
@@ -29,12 +29,11 @@
 
 package net.imagej.ops.stats;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
 
 import net.imagej.ops.Op;
 import net.imagej.ops.Ops;
+import net.imglib2.IterableInterval;
 import net.imglib2.type.numeric.RealType;
 
 import org.scijava.plugin.Parameter;
@@ -42,6 +41,12 @@ import org.scijava.plugin.Plugin;
 
 /**
  * {@link Op} to calculate the n-th {@code stats.percentile}.
+ * <p>
+ * The values are gathered into a per-thread primitive buffer, which is reused
+ * across calls, and the quantile is selected in place; no objects are allocated
+ * per element. Only buffers of up to {@value #MAX_REUSED_LENGTH} values are
+ * kept, so a single large input does not pin its buffer to the thread.
+ * </p>
  * 
  * @author Daniel Seebacher (University of Konstanz)
  * @author Christian Dietz (University of Konstanz)
@@ -54,27 +59,48 @@ public class DefaultQuantile<I extends RealType<I>, O extends RealType<O>>
 	extends AbstractStatsOp<Iterable<I>, O> implements Ops.Stats.Quantile
 {
 
+	/** Length of the largest buffer kept for the next call. */
+	private static final int MAX_REUSED_LENGTH = 1 << 16;
+
 	@Parameter(min = "0.0", max = "1.0")
 	private double quantile;
-	
+
+	/** Scratch space for the values, one per thread. */
+	private final ThreadLocal<double[]> buffer = ThreadLocal.withInitial(
+		() -> new double[16]);
+
 	@Override
 	public void compute(final Iterable<I> input, final O output) {
-		final ArrayList<Double> statistics = new ArrayList<>();
+		double[] statistics = buffer.get();
+		if (input instanceof IterableInterval) {
+			final long size = ((IterableInterval<?>) input).size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Input too large: " + size);
+			}
+			if (statistics.length < size) statistics = new double[(int) size];
+		}
 
-		final Iterator<I> it = input.iterator();
-		while (it.hasNext()) {
-			statistics.add(it.next().getRealDouble());
+		int n = 0;
+		for (final I value : input) {
+			if (n == statistics.length) {
+				statistics = Arrays.copyOf(statistics, 2 * n);
+			}
+			statistics[n++] = value.getRealDouble();
 		}
+		if (statistics.length <= MAX_REUSED_LENGTH) buffer.set(statistics);
 
-		output.setReal(select(statistics, 0, statistics.size() - 1, (int) (statistics
-			.size() * quantile)));
+		if (n == 0) {
+			throw new IllegalArgumentException(
+				"Cannot compute the quantile of an empty input");
+		}
+		output.setReal(select(statistics, 0, n - 1, (int) (n * quantile)));
 	}
 
 	/**
 	 * Returns the value of the kth lowest element. Do note that for nth lowest
 	 * element, k = n - 1.
 	 */
-	private double select(final ArrayList<Double> array, final int inLeft,
+	private static double select(final double[] array, final int inLeft,
 		final int inRight, final int k)
 	{
 
@@ -85,39 +111,39 @@ public class DefaultQuantile<I extends RealType<I>, O extends RealType<O>>
 
 			if (right <= left + 1) {
 
-				if (right == left + 1 && array.get(right) < array.get(left)) {
+				if (right == left + 1 && array[right] < array[left]) {
 					swap(array, left, right);
 				}
 
-				return array.get(k);
+				return array[k];
 
 			}
 			final int middle = (left + right) >>> 1;
 			swap(array, middle, left + 1);
 
-			if (array.get(left) > array.get(right)) {
+			if (array[left] > array[right]) {
 				swap(array, left, right);
 			}
 
-			if (array.get(left + 1) > array.get(right)) {
+			if (array[left + 1] > array[right]) {
 				swap(array, left + 1, right);
 			}
 
-			if (array.get(left) > array.get(left + 1)) {
+			if (array[left] > array[left + 1]) {
 				swap(array, left, left + 1);
 			}
 
 			int i = left + 1;
 			int j = right;
-			final double pivot = array.get(left + 1);
+			final double pivot = array[left + 1];
 
 			while (true) {
 				do
 					++i;
-				while (array.get(i) < pivot);
+				while (array[i] < pivot);
 				do
 					--j;
-				while (array.get(j) > pivot);
+				while (array[j] > pivot);
 
 				if (j < i) {
 					break;
@@ -126,8 +152,8 @@ public class DefaultQuantile<I extends RealType<I>, O extends RealType<O>>
 				swap(array, i, j);
 			}
 
-			array.set(left + 1, array.get(j));
-			array.set(j, pivot);
+			array[left + 1] = array[j];
+			array[j] = pivot;
 
 			if (j >= k) {
 				right = j - 1;
@@ -140,9 +166,9 @@ public class DefaultQuantile<I extends RealType<I>, O extends RealType<O>>
 	}
 
 	/** Helper method for swapping array entries */
-	private void swap(final List<Double> array, final int a, final int b) {
-		final double temp = array.get(a);
-		array.set(a, array.get(b));
-		array.set(b, temp);
+	private static void swap(final double[] array, final int a, final int b) {
+		final double temp = array[a];
+		array[a] = array[b];
+		array[b] = temp;
 	}
 }
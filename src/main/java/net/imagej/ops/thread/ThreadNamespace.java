@@ -47,13 +47,32 @@ public class ThreadNamespace extends AbstractNamespace {
 	// -- Thread namespace ops --
 
 	/** Executes the "chunker" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.thread.chunker.DefaultChunker.class,
+	@OpMethod(ops = { net.imagej.ops.thread.chunker.ForkJoinChunker.class,
+		net.imagej.ops.thread.chunker.DefaultChunker.class,
 		net.imagej.ops.thread.chunker.ChunkerInterleaved.class })
 	public void chunker(final Chunk chunkable, final long numberOfElements) {
 		ops().run(net.imagej.ops.Ops.Thread.Chunker.class, chunkable,
 			numberOfElements);
 	}
 
+	/** Executes the "chunker" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.thread.chunker.ForkJoinChunker.class)
+	public void chunker(final Chunk chunkable, final long numberOfElements,
+		final long grainSize)
+	{
+		ops().run(net.imagej.ops.Ops.Thread.Chunker.class, chunkable,
+			numberOfElements, grainSize);
+	}
+
+	/** Executes the "chunker" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.thread.chunker.ForkJoinChunker.class)
+	public void chunker(final Chunk chunkable, final long numberOfElements,
+		final long grainSize, final long inlineThreshold)
+	{
+		ops().run(net.imagej.ops.Ops.Thread.Chunker.class, chunkable,
+			numberOfElements, grainSize, inlineThreshold);
+	}
+
 	// -- Named methods --
 
 	@Override
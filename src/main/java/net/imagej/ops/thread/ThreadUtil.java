@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.thread;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.scijava.thread.ThreadService;
+
+/**
+ * Utility methods for ops which split their work into tasks themselves and
+ * run them on the {@link ThreadService}.
+ */
+public final class ThreadUtil {
+
+	private ThreadUtil() {
+		// NB: prevent instantiation of utility class.
+	}
+
+	// -- Utility methods --
+
+	/**
+	 * Gets the number of tasks which the executor of the given
+	 * {@link ThreadService} runs concurrently. This is the number of available
+	 * processors, unless the executor is limited to fewer threads.
+	 */
+	public static int parallelism(final ThreadService threadService) {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		final ExecutorService executor = threadService.getExecutorService();
+		if (executor instanceof ForkJoinPool) {
+			return Math.min(processors, ((ForkJoinPool) executor).getParallelism());
+		}
+		if (executor instanceof ThreadPoolExecutor) {
+			return Math.max(1, Math.min(processors, ((ThreadPoolExecutor) executor)
+				.getMaximumPoolSize()));
+		}
+		return processors;
+	}
+
+	/**
+	 * Gets the number of tasks to split the given number of elements into, such
+	 * that every thread of the {@link ThreadService} gets the given number of
+	 * tasks, but no task is empty.
+	 *
+	 * @param threadService service the tasks are run on
+	 * @param numElements number of elements to split
+	 * @param tasksPerThread number of tasks per thread, to balance tasks of
+	 *          uneven cost
+	 * @return the number of tasks, between one and the number of elements
+	 */
+	public static int numTasks(final ThreadService threadService,
+		final long numElements, final int tasksPerThread)
+	{
+		final long numTasks = (long) tasksPerThread * parallelism(threadService);
+		return (int) Math.max(1, Math.min(numElements, numTasks));
+	}
+
+}
@@ -29,6 +29,8 @@
 package net.imagej.ops.thread.chunker;
 
 import net.imglib2.Cursor;
+import net.imglib2.type.NativeType;
+import net.imglib2.util.Fraction;
 
 public abstract class CursorBasedChunk implements Chunk {
 	
@@ -37,4 +39,17 @@ public abstract class CursorBasedChunk implements Chunk {
 		c.jumpFwd(startIndex + 1);
 	}
 
+	/**
+	 * Checks whether pixels of a type may be written by concurrent chunks. Types
+	 * packing several pixels into one storage entity, such as {@code BitType},
+	 * cannot, since chunks sharing an entity would overwrite each other.
+	 */
+	public static boolean isChunkable(final Object type) {
+		if (!(type instanceof NativeType)) return false;
+		final Fraction entitiesPerPixel = ((NativeType<?>) type)
+			.getEntitiesPerPixel();
+		return entitiesPerPixel.getNumerator() %
+			entitiesPerPixel.getDenominator() == 0;
+	}
+
 }
@@ -0,0 +1,174 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.thread.chunker;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.imagej.ops.Ops;
+import net.imagej.ops.thread.ThreadUtil;
+
+import org.scijava.Priority;
+import org.scijava.log.LogService;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+import org.scijava.thread.ThreadService;
+
+/**
+ * Work-stealing implementation of a {@link ChunkerOp}. The list of elements is
+ * recursively split in halves on a {@link ForkJoinPool} until the chunks reach
+ * the grain size, so idle threads can steal the remaining halves of unevenly
+ * expensive work. Each chunk consists of consecutive elements (stepSize is
+ * one). Problems smaller than the inline threshold are executed directly in
+ * the calling thread, as a single chunk.
+ * <p>
+ * The pool is the executor of the {@link ThreadService} if that is a
+ * {@link ForkJoinPool}. Otherwise, each {@link ThreadService} gets a pool of
+ * its own, with as many threads as {@link ThreadUtil#parallelism} allows, so
+ * the chunks neither exceed the threads of the context nor compete with other
+ * users of the common pool.
+ * </p>
+ * <p>
+ * If debug logging is enabled, the execution time of every chunk is reported.
+ * </p>
+ */
+@Plugin(type = Ops.Thread.Chunker.class, priority = Priority.HIGH)
+public class ForkJoinChunker extends AbstractChunker {
+
+	/** Default minimum number of elements per chunk. */
+	public static final long DEFAULT_GRAIN_SIZE = 1024;
+
+	/** Default number of elements below which no tasks are forked. */
+	public static final long DEFAULT_INLINE_THRESHOLD = 8192;
+
+	/** Number of chunks per worker thread which are aimed for. */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/** Pools of the {@link ThreadService}s whose executor is not one. */
+	private static final Map<ThreadService, ForkJoinPool> POOLS =
+		new WeakHashMap<>();
+
+	private final int STEP_SIZE = 1;
+
+	@Parameter
+	public LogService logService;
+
+	/** Minimum number of elements per chunk. */
+	@Parameter(required = false)
+	private long grainSize = DEFAULT_GRAIN_SIZE;
+
+	/** Number of elements below which the chunk is executed inline. */
+	@Parameter(required = false)
+	private long inlineThreshold = DEFAULT_INLINE_THRESHOLD;
+
+	@Override
+	public void run() {
+		if (numberOfElements <= 0) return;
+
+		if (numberOfElements <= inlineThreshold) {
+			execute(0, numberOfElements);
+			return;
+		}
+
+		final ForkJoinPool pool = pool(threadService);
+		final long chunkSize = Math.max(Math.max(1, grainSize), numberOfElements /
+			((long) pool.getParallelism() * CHUNKS_PER_THREAD));
+
+		final long start = System.nanoTime();
+		pool.invoke(new ChunkTask(0, numberOfElements, chunkSize));
+		if (logService.isDebug()) {
+			logService.debug("Processed " + numberOfElements + " elements in " +
+				(System.nanoTime() - start) / 1000 + " us (chunk size " + chunkSize +
+				")");
+		}
+	}
+
+	// -- Helper methods --
+
+	/** Gets the pool to run the chunks of the given {@link ThreadService} on. */
+	private static ForkJoinPool pool(final ThreadService threadService) {
+		final ExecutorService executor = threadService.getExecutorService();
+		if (executor instanceof ForkJoinPool) return (ForkJoinPool) executor;
+		synchronized (POOLS) {
+			// NB: The workers of a pool are daemon threads, which terminate when
+			// idle, so the pool of a disposed context does not need a shutdown.
+			return POOLS.computeIfAbsent(threadService, ts -> new ForkJoinPool(
+				ThreadUtil.parallelism(ts)));
+		}
+	}
+
+	/** Executes a single chunk of consecutive elements. */
+	private void execute(final long startIndex, final long numSteps) {
+		if (isCanceled()) return;
+		if (!logService.isDebug()) {
+			chunkable.execute(startIndex, STEP_SIZE, numSteps);
+			return;
+		}
+		final long start = System.nanoTime();
+		chunkable.execute(startIndex, STEP_SIZE, numSteps);
+		logService.debug("Chunk [" + startIndex + ", " + (startIndex + numSteps) +
+			") took " + (System.nanoTime() - start) / 1000 + " us on " + Thread
+				.currentThread().getName());
+	}
+
+	// -- Helper classes --
+
+	/** Splits its range in halves until the chunk size is reached. */
+	private class ChunkTask extends RecursiveAction {
+
+		private final long startIndex;
+		private final long numSteps;
+		private final long chunkSize;
+
+		public ChunkTask(final long startIndex, final long numSteps,
+			final long chunkSize)
+		{
+			this.startIndex = startIndex;
+			this.numSteps = numSteps;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (numSteps < 2 * chunkSize) {
+				execute(startIndex, numSteps);
+				return;
+			}
+			final long half = numSteps / 2;
+			invokeAll(new ChunkTask(startIndex, half, chunkSize), new ChunkTask(
+				startIndex + half, numSteps - half, chunkSize));
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.imagej.ops.special.computer.UnaryComputerOp;
+
+import org.junit.Test;
+import org.scijava.util.GenericUtils;
+
+/**
+ * Tests {@link OpInfoIndex}.
+ */
+public class OpInfoIndexTest extends AbstractOpTest {
+
+	/** Tests that name lookups agree with a linear scan. */
+	@Test
+	public void testNamed() {
+		final OpInfoIndex index = new OpInfoIndex(ops.infos());
+		for (final String name : new String[] { "math.add", "add", "gauss",
+			"filter.gauss", "stats.mean", "nonexistent" })
+		{
+			final List<OpInfo> expected = new ArrayList<>();
+			for (final OpInfo info : ops.infos()) {
+				if (info.nameMatches(name)) expected.add(info);
+			}
+			assertEquals(name, expected, index.named(name));
+		}
+	}
+
+	/** Tests that type lookups agree with a linear scan. */
+	@Test
+	public void testOfType() throws Exception {
+		final OpInfoIndex index = new OpInfoIndex(ops.infos());
+		for (final Class<?> type : new Class<?>[] { Ops.Filter.Gauss.class,
+			UnaryComputerOp.class })
+		{
+			final List<OpInfo> expected = new ArrayList<>();
+			for (final OpInfo info : ops.infos()) {
+				if (type.isAssignableFrom(info.cInfo().loadClass())) expected.add(info);
+			}
+			assertEquals(expected, index.ofType(type));
+		}
+	}
+
+	/** Tests that the environment only offers the relevant ops. */
+	@Test
+	public void testInfosByRef() {
+		final OpRef ref = OpRef.create(Ops.Filter.Gauss.class);
+		final int all = ops.infos().size();
+		final int relevant = ops.infos(ref).size();
+		assertTrue(relevant > 0);
+		assertTrue(relevant < all);
+		for (final OpInfo info : ops.infos(ref)) {
+			assertTrue(info.getName(), info.nameMatches("filter.gauss"));
+		}
+	}
+
+	/** Tests that a type without a single raw class does not narrow the ops. */
+	@Test
+	public void testTypeVariable() throws Exception {
+		final OpInfoIndex index = new OpInfoIndex(ops.infos());
+		final Type type = OpInfoIndexTest.class.getDeclaredMethod("bounded")
+			.getTypeParameters()[0];
+		final OpRef ref = OpRef.createTypes(Collections.singleton(type));
+		final Class<?> raw = GenericUtils.getClass(type);
+		assertEquals(raw == null ? index.infos() : index.ofType(raw), index.get(
+			ref));
+	}
+
+	// -- Helper methods --
+
+	/** Declares a type variable with two bounds, i.e. no single raw class. */
+	@SuppressWarnings("unused")
+	private static <T extends Number & Comparable<T>> void bounded() {
+		// NB: Only the type parameter is used.
+	}
+
+}
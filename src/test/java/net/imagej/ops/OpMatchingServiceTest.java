@@ -155,6 +155,34 @@ public class OpMatchingServiceTest extends AbstractOpTest {
 		}
 	}
 	
+	/** Tests that repeated requests are resolved from the match cache. */
+	@Test
+	public void testMatchCache() {
+		final DefaultOpMatchingService service = (DefaultOpMatchingService) matcher;
+		service.clearCache();
+		final long hits = service.getCacheHits();
+		final long misses = service.getCacheMisses();
+
+		final DoubleType value = new DoubleType(1);
+		final Module first = matcher.findMatch(ops, OpRef.create("test.nan",
+			value)).getModule();
+		assertEquals(misses + 1, service.getCacheMisses());
+		assertEquals(hits, service.getCacheHits());
+
+		final DoubleType other = new DoubleType(2);
+		final Module second = matcher.findMatch(ops, OpRef.create("test.nan",
+			other)).getModule();
+		assertEquals(misses + 1, service.getCacheMisses());
+		assertEquals(hits + 1, service.getCacheHits());
+		assertSame(first.getDelegateObject().getClass(), second
+			.getDelegateObject().getClass());
+		assertSame(other, second.getInput("arg"));
+
+		service.clearCache();
+		matcher.findMatch(ops, OpRef.create("test.nan", value));
+		assertEquals(misses + 2, service.getCacheMisses());
+	}
+
 	@Test
 	public void testLosslessMatch() {
 		// Not implemented yet
@@ -0,0 +1,75 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.cached;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import net.imagej.ops.AbstractOpTest;
+
+import org.junit.Test;
+import org.scijava.cache.CacheService;
+
+/**
+ * Tests {@link CacheServiceOpCache}.
+ */
+public class CacheServiceOpCacheTest extends AbstractOpTest {
+
+	@Test
+	public void testClear() {
+		final CacheService cacheService = context.service(CacheService.class);
+		final CacheServiceOpCache cache = new CacheServiceOpCache(cacheService);
+		final CacheServiceOpCache other = new CacheServiceOpCache(cacheService);
+		final double[] value = new double[10];
+		final double[] otherValue = new double[10];
+		cache.put("a", value);
+		other.put("a", otherValue);
+		cacheService.put("a", "unrelated");
+
+		assertSame(value, cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		// NB: Clearing removes the entries of this cache only.
+		cache.clear();
+		assertNull(cache.get("a"));
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertSame(otherValue, other.get("a"));
+		assertEquals("unrelated", cacheService.get("a"));
+
+		// NB: The cache is still usable after clearing.
+		cache.put("a", value);
+		assertSame(value, cache.get("a"));
+	}
+
+}
@@ -30,6 +30,7 @@
 package net.imagej.ops.cached;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
@@ -118,6 +119,17 @@ public class CachedOpEnvironmentTest extends AbstractOpTest {
 		assertSame(result, sameResult);
 	}
 
+	@Test
+	public void testOtherArgs() {
+		final DoubleType input = new DoubleType();
+		final Object result = Functions.unary(env, OptionalParameterOp.class,
+			Object.class, input, new ByteType((byte) 1)).calculate(input);
+		assertSame(result, Functions.unary(env, OptionalParameterOp.class,
+			Object.class, input, new ByteType((byte) 1)).calculate(input));
+		assertNotSame(result, Functions.unary(env, OptionalParameterOp.class,
+			Object.class, input, new ByteType((byte) 2)).calculate(input));
+	}
+
 	// some specialized ops to track number of counts
 	public static class MyMin extends AbstractUnaryHybridCF<Img<ByteType>, DoubleType>
 		implements Ops.Stats.Min
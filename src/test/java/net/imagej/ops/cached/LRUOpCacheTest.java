@@ -0,0 +1,110 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.cached;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.Ops;
+import net.imagej.ops.special.function.Functions;
+import net.imagej.ops.special.function.UnaryFunctionOp;
+import net.imglib2.img.Img;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.real.DoubleType;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link LRUOpCache}.
+ */
+public class LRUOpCacheTest extends AbstractOpTest {
+
+	@Test
+	public void testEviction() {
+		final LRUOpCache cache = new LRUOpCache(3 * (16 + 8 * 10));
+		cache.put("a", new double[10]);
+		cache.put("b", new double[10]);
+		cache.put("c", new double[10]);
+		assertEquals(3, cache.size());
+
+		// NB: Using "a" makes "b" the least recently used entry.
+		cache.get("a");
+		cache.put("d", new double[10]);
+		assertEquals(3, cache.size());
+		assertNull(cache.get("b"));
+		assertEquals(1, cache.getEvictions());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		// NB: Values larger than the budget are not cached.
+		cache.put("e", new double[1000]);
+		assertNull(cache.get("e"));
+		assertEquals(3, cache.size());
+		assertEquals(cache.getMaxBytes(), cache.getBytes());
+
+		// NB: Clearing keeps the statistics.
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getBytes());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void testImageSize() {
+		final LRUOpCache cache = new LRUOpCache(Long.MAX_VALUE);
+		final Img<ByteType> img = generateByteArrayTestImg(false, 10, 10);
+		cache.put(img, img);
+		assertEquals(cache.sizeOf(img), cache.getBytes());
+		assertEquals(100, cache.getBytes() - cache.sizeOf(new Object()));
+	}
+
+	@Test
+	public void testCachedOpEnvironment() {
+		final LRUOpCache cache = new LRUOpCache(1 << 20);
+		final CachedOpEnvironment env = new CachedOpEnvironment(ops, null,
+			new ArrayList<>(), cache);
+		assertSame(cache, env.getCache());
+
+		final Img<ByteType> img = generateByteArrayTestImg(true, 10, 10);
+		final UnaryFunctionOp<Img<ByteType>, DoubleType> mean = Functions.unary(
+			env, Ops.Stats.Mean.class, DoubleType.class, img);
+		final DoubleType result = mean.calculate(img);
+		assertSame(result, mean.calculate(img));
+		assertEquals(1, cache.getHits());
+	}
+
+}
@@ -34,9 +34,12 @@ import static org.junit.Assert.assertEquals;
 import java.util.Arrays;
 import java.util.function.BiFunction;
 
+import net.imagej.ops.Op;
+import net.imagej.ops.Ops;
 import net.imagej.ops.coloc.ColocalisationTest;
 import net.imagej.ops.special.function.AbstractBinaryFunctionOp;
 import net.imagej.ops.special.function.BinaryFunctionOp;
+import net.imagej.ops.special.function.Functions;
 import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.type.numeric.real.FloatType;
@@ -71,6 +74,36 @@ public class DefaultPValueTest extends ColocalisationTest {
 		assertColoc(0.6, 0.25, array, 0.25, 0.25, 0.25, 0.75, 0.75, 0.75);
 	}
 
+	@Test
+	public void testPrimitiveStatistics() {
+		final double[] sigma = new double[] { 3.0, 3.0 };
+		final Img<FloatType> ch1 = produceMeanBasedNoiseImage(new FloatType(), 30,
+			27, 0.2, 0.1, sigma, 0x01234567);
+		final Img<FloatType> ch2 = produceMeanBasedNoiseImage(new FloatType(), 30,
+			27, 0.2, 0.1, sigma, 0x98765432);
+
+		for (final Class<? extends Op> type : Arrays.asList(
+			Ops.Coloc.Pearsons.class, Ops.Coloc.ICQ.class))
+		{
+			// the known op is evaluated on primitive arrays, the wrapped one on
+			// shuffled copies of the image
+			final BinaryFunctionOp<Iterable<FloatType>, Iterable<FloatType>, Double> known =
+				Functions.binary(ops, type, Double.class, ch1, ch2);
+			final PValueResult primitive = ops.coloc().pValue(new PValueResult(),
+				ch1, ch2, known, 50);
+			final PValueResult buffered = ops.coloc().pValue(new PValueResult(),
+				ch1, ch2, op(known::calculate), 50);
+
+			assertEquals(buffered.getColocValue(), primitive.getColocValue(), 0.0);
+			assertEquals(buffered.getPValue(), primitive.getPValue(), 0.0);
+			final double[] expected = buffered.getColocValuesArray();
+			final double[] actual = primitive.getColocValuesArray();
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i], actual[i], 1e-10);
+			}
+		}
+	}
+
 	/**
 	 * Function is called once with original images. Thereafter, each call is with
 	 * a shuffled version of the first image.
@@ -30,16 +30,28 @@
 package net.imagej.ops.deconvolve;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
 
 import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.filter.FFTPlan;
 import net.imagej.ops.filter.convolve.PadAndConvolveFFT;
+import net.imagej.ops.special.computer.BinaryComputerOp;
+import net.imagej.ops.special.computer.Computers;
 import net.imglib2.Cursor;
 import net.imglib2.Point;
+import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.region.hypersphere.HyperSphere;
 import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImgFactory;
 import net.imglib2.outofbounds.OutOfBoundsConstantValueFactory;
+import net.imglib2.type.numeric.complex.ComplexFloatType;
 import net.imglib2.type.numeric.real.FloatType;
 import net.imglib2.util.Util;
 import net.imglib2.view.IntervalView;
@@ -123,6 +135,101 @@ public class DeconvolveTest extends AbstractOpTest {
 		}
 	}
 
+	@Test
+	public void testTiledRichardsonLucy() {
+		final Img<FloatType> in = new ArrayImgFactory<FloatType>().create(
+			new int[] { 150, 120 }, new FloatType());
+		placeSphereInCenter(in);
+
+		final RandomAccessibleInterval<FloatType> kernel = ops.create().kernelGauss(
+			new double[] { 2.0, 2.0 }, new FloatType());
+		final Img<FloatType> convolved = ops.create().img(in, new FloatType());
+		ops.run(PadAndConvolveFFT.class, convolved, in, kernel);
+
+		final Img<FloatType> expected = ops.create().img(in, new FloatType());
+		ops.run(PadAndRichardsonLucy.class, expected, convolved, kernel, 5);
+
+		// NB: The budget is small enough to require several blocks.
+		final Img<FloatType> actual = ops.create().img(in, new FloatType());
+		ops.deconvolve().richardsonLucy(actual, convolved, kernel, 256 * 1024L, 5);
+
+		// the blocks overlap by the kernel size, so the total intensity must not
+		// change noticeably
+		final double expectedSum = ops.stats().sum(expected).getRealDouble();
+		final double actualSum = ops.stats().sum(actual).getRealDouble();
+		assertEquals(expectedSum, actualSum, expectedSum * 0.01);
+
+		// NB: The sphere is far from the image and block borders at its center.
+		final RandomAccess<FloatType> e = expected.randomAccess();
+		final RandomAccess<FloatType> a = actual.randomAccess();
+		e.setPosition(new long[] { 75, 60 });
+		a.setPosition(e);
+		assertEquals(e.get().get(), a.get().get(), 0.01f);
+	}
+
+	/**
+	 * Tests that a single Richardson-Lucy op deconvolves images of the same size
+	 * one after another, reusing its buffers.
+	 */
+	@Test
+	public void testRichardsonLucyReuse() {
+		final CountingPlan plan = new CountingPlan();
+		final RandomAccessibleInterval<FloatType> kernel = ops.create().kernelGauss(
+			new double[] { 2.0, 2.0 }, new FloatType());
+
+		RandomAccessibleInterval<FloatType> in = randomImage(0);
+		RandomAccessibleInterval<FloatType> actual = ops.create().img(in,
+			new FloatType());
+		final BinaryComputerOp<RandomAccessibleInterval<FloatType>, RandomAccessibleInterval<FloatType>, RandomAccessibleInterval<FloatType>> rl =
+			Computers.binary(ops, PadAndRichardsonLucy.class, actual, in, kernel,
+				null, null, null, null, null, 5, false, true, plan);
+
+		for (int i = 0; i < 4; i++) {
+			in = randomImage(i);
+			actual = ops.create().img(in, new FloatType());
+			rl.compute(in, kernel, actual);
+
+			final Img<FloatType> expected = ops.create().img(in, new FloatType());
+			ops.run(PadAndRichardsonLucy.class, expected, in, kernel, null, null,
+				null, null, null, 5, false, true);
+			assertClose(expected, actual);
+		}
+
+		// the first call computes the PSF spectrum, the second one creates the
+		// filter for the buffer of the plan, the others reuse both
+		assertEquals(4, plan.acquired);
+		assertEquals(4, plan.released);
+		assertEquals(2, plan.reused);
+		assertEquals(1, plan.buffers.size());
+	}
+
+	/**
+	 * Tests that the tiled Richardson-Lucy op processes several blocks, with one
+	 * complex buffer per thread.
+	 */
+	@Test
+	public void testTiledRichardsonLucyBuffers() {
+		final Img<FloatType> in = new ArrayImgFactory<FloatType>().create(
+			new int[] { 150, 120 }, new FloatType());
+		placeSphereInCenter(in);
+		final RandomAccessibleInterval<FloatType> kernel = ops.create().kernelGauss(
+			new double[] { 2.0, 2.0 }, new FloatType());
+
+		final Img<FloatType> expected = ops.create().img(in, new FloatType());
+		ops.deconvolve().richardsonLucy(expected, in, kernel, 256 * 1024L, 5);
+
+		final CountingPlan plan = new CountingPlan();
+		final Img<FloatType> actual = ops.create().img(in, new FloatType());
+		ops.run(TiledRichardsonLucy.class, actual, in, kernel, 256 * 1024L, 5,
+			null, false, plan);
+		assertClose(expected, actual);
+
+		// every block takes a buffer from the plan and returns it
+		assertTrue(plan.acquired > 1);
+		assertEquals(plan.acquired, plan.released);
+		assertTrue(plan.buffers.size() <= plan.threads.size());
+	}
+
 	// utility to place a small sphere at the center of the image
 	private void placeSphereInCenter(Img<FloatType> img) {
 
@@ -137,4 +244,62 @@ public class DeconvolveTest extends AbstractOpTest {
 			value.setReal(1);
 		}
 	}
+
+	private RandomAccessibleInterval<FloatType> randomImage(final long seed) {
+		final Img<FloatType> img = new ArrayImgFactory<FloatType>().create(
+			new int[] { 40, 30 }, new FloatType());
+		final Random random = new Random(seed);
+		for (final FloatType value : img) {
+			value.set(1 + random.nextFloat());
+		}
+		return img;
+	}
+
+	private static void assertClose(
+		final RandomAccessibleInterval<FloatType> expected,
+		final RandomAccessibleInterval<FloatType> actual)
+	{
+		final Cursor<FloatType> e = Views.flatIterable(expected).cursor();
+		final Cursor<FloatType> a = Views.flatIterable(actual).cursor();
+		while (e.hasNext()) {
+			final float value = e.next().get();
+			assertEquals(value, a.next().get(), 1e-4f * Math.max(1, Math.abs(
+				value)));
+		}
+	}
+
+	// -- Helper classes --
+
+	/** Plan which counts how its buffers are used. */
+	private static class CountingPlan extends FFTPlan<ComplexFloatType> {
+
+		private int acquired;
+		private int released;
+		private int reused;
+		private final Set<Object> buffers = Collections.newSetFromMap(
+			new IdentityHashMap<>());
+		private final Set<Thread> threads = new HashSet<>();
+
+		@Override
+		public synchronized RandomAccessibleInterval<ComplexFloatType>
+			acquireBuffer(final long[] size,
+				final RandomAccessibleInterval<ComplexFloatType> preferred)
+		{
+			final RandomAccessibleInterval<ComplexFloatType> buffer = super
+				.acquireBuffer(size, preferred);
+			acquired++;
+			if (buffer != null && buffer == preferred) reused++;
+			threads.add(Thread.currentThread());
+			return buffer;
+		}
+
+		@Override
+		public synchronized void releaseBuffer(final long[] size,
+			final RandomAccessibleInterval<ComplexFloatType> buffer)
+		{
+			released++;
+			buffers.add(buffer);
+			super.releaseBuffer(size, buffer);
+		}
+	}
 }
@@ -30,11 +30,19 @@ package net.imagej.ops.features.haralick;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.Ops;
+import net.imagej.ops.cached.CachedOpEnvironment;
+import net.imagej.ops.cached.LRUOpCache;
+import net.imagej.ops.cached.OpCache;
 import net.imagej.ops.features.AbstractFeatureTest;
 import net.imagej.ops.image.cooccurrenceMatrix.MatrixOrientation2D;
 import net.imglib2.img.Img;
 import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.real.DoubleType;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -164,4 +172,59 @@ public class HaralickFeatureTest extends AbstractOpTest {
 		assertEquals(5176.653047585449, ops.haralick().variance(img, 128, 1, MatrixOrientation2D.HORIZONTAL).get(),
 				EPSILON);
 	}
+
+	@Test
+	public void allFeatures() {
+		final double[] features = ops.haralick().features(img, 128, 1,
+			MatrixOrientation2D.HORIZONTAL);
+		assertEquals(HaralickFeatureType.values().length, features.length);
+		assertEquals(0.002728531855956, features[HaralickFeatureType.ASM.index()],
+			EPSILON);
+		assertEquals(2.829684210526314e+03, features[HaralickFeatureType.CONTRAST
+			.index()], EPSILON);
+		assertEquals(-1.138457766487823, features[HaralickFeatureType.ICM1
+			.index()], EPSILON);
+		assertEquals(1.705010667439121e+04, features[HaralickFeatureType.SUM_VARIANCE
+			.index()], EPSILON);
+		assertEquals(ops.haralick().correlation(img, 128, 1,
+			MatrixOrientation2D.HORIZONTAL).get(), features[HaralickFeatureType.CORRELATION
+				.index()], 0);
+	}
+
+	@Test
+	public void featuresSharedInCachedEnvironment() {
+		final List<Object> vectors = new ArrayList<>();
+		final OpCache cache = new LRUOpCache(Long.MAX_VALUE) {
+
+			@Override
+			public void put(final Object key, final Object value) {
+				if (value instanceof double[]) vectors.add(value);
+				super.put(key, value);
+			}
+		};
+		final CachedOpEnvironment env = new CachedOpEnvironment(ops, null,
+			new ArrayList<>(), cache);
+
+		// the features of one image share a single result vector
+		final DoubleType asm = (DoubleType) env.run(Ops.Haralick.ASM.class, img,
+			128, 1, MatrixOrientation2D.HORIZONTAL);
+		final DoubleType contrast = (DoubleType) env.run(
+			Ops.Haralick.Contrast.class, img, 128, 1,
+			MatrixOrientation2D.HORIZONTAL);
+		final DoubleType entropy = (DoubleType) env.run(Ops.Haralick.Entropy.class,
+			img, 128, 1, MatrixOrientation2D.HORIZONTAL);
+		assertEquals(1, vectors.size());
+
+		final double[] features = (double[]) vectors.get(0);
+		assertEquals(features[HaralickFeatureType.ASM.index()], asm.get(), 0);
+		assertEquals(features[HaralickFeatureType.CONTRAST.index()], contrast
+			.get(), 0);
+		assertEquals(features[HaralickFeatureType.ENTROPY.index()], entropy.get(),
+			0);
+
+		// another distance needs its own vector
+		env.run(Ops.Haralick.ASM.class, img, 128, 2,
+			MatrixOrientation2D.HORIZONTAL);
+		assertEquals(2, vectors.size());
+	}
 }
@@ -0,0 +1,158 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.Op;
+import net.imagej.ops.filter.mean.BoxMeanFilter;
+import net.imagej.ops.filter.mean.DefaultMeanFilter;
+import net.imagej.ops.filter.mean.MeanFilterOp;
+import net.imagej.ops.filter.variance.BoxVarianceFilter;
+import net.imagej.ops.filter.variance.DefaultVarianceFilter;
+import net.imglib2.Cursor;
+import net.imglib2.algorithm.neighborhood.DiamondShape;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.outofbounds.OutOfBoundsMirrorFactory;
+import net.imglib2.outofbounds.OutOfBoundsMirrorFactory.Boundary;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Intervals;
+
+import org.junit.Test;
+
+/**
+ * Tests that {@link BoxMeanFilter} and {@link BoxVarianceFilter} agree with
+ * the neighborhood-based filters.
+ */
+public class BoxFiltersTest extends AbstractOpTest {
+
+	@Test
+	public void testMatching() {
+		final Img<ByteType> in = generateByteArrayTestImg(true, 10, 10);
+		final Img<ByteType> out = generateByteArrayTestImg(false, 10, 10);
+		assertEquals(BoxMeanFilter.class, ops.op(MeanFilterOp.class, out, in,
+			new RectangleShape(1, false)).getClass());
+		assertEquals(DefaultMeanFilter.class, ops.op(MeanFilterOp.class, out, in,
+			new DiamondShape(1)).getClass());
+	}
+
+	@Test
+	public void test2D() {
+		assertSameAsDefault(new RectangleShape(1, false), 23, 17);
+		assertSameAsDefault(new RectangleShape(4, true), 23, 17);
+	}
+
+	@Test
+	public void test3D() {
+		assertSameAsDefault(new RectangleShape(2, false), 12, 9, 7);
+		assertSameAsDefault(new RectangleShape(1, true), 12, 9, 7);
+	}
+
+	@Test
+	public void testOffsetVariance() {
+		// NB: Small variations on a large offset make the sums of squares cancel
+		// out, unless the values are shifted first.
+		final Random random = new Random(0xdeadbeef);
+		final Img<UnsignedShortType> shorts = ArrayImgs.unsignedShorts(600, 7);
+		for (final UnsignedShortType value : shorts) {
+			value.set(30000 + random.nextInt(4));
+		}
+		assertSameVariance(shorts, new RectangleShape(1, true));
+
+		final Img<FloatType> floats = ArrayImgs.floats(600, 7);
+		for (final FloatType value : floats) {
+			value.set(1e6f + random.nextFloat());
+		}
+		assertSameVariance(floats, new RectangleShape(2, false));
+	}
+
+	// -- Helper methods --
+
+	private void assertSameAsDefault(final RectangleShape shape,
+		final long... dims)
+	{
+		final Img<FloatType> in = generateFloatArrayTestImg(true, dims);
+		final OutOfBoundsMirrorFactory<FloatType, Img<FloatType>> oob =
+			new OutOfBoundsMirrorFactory<>(Boundary.SINGLE);
+
+		assertSame(in, shape, oob, BoxMeanFilter.class, DefaultMeanFilter.class);
+		assertSame(in, shape, oob, BoxVarianceFilter.class,
+			DefaultVarianceFilter.class);
+	}
+
+	private <T extends RealType<T>> void assertSameVariance(final Img<T> in,
+		final RectangleShape shape)
+	{
+		final OutOfBoundsMirrorFactory<T, Img<T>> oob =
+			new OutOfBoundsMirrorFactory<>(Boundary.SINGLE);
+		final long[] dims = Intervals.dimensionsAsLongArray(in);
+		final Img<FloatType> expected = ArrayImgs.floats(dims);
+		final Img<FloatType> actual = ArrayImgs.floats(dims);
+		ops.run(DefaultVarianceFilter.class, expected, in, shape, oob);
+		ops.run(BoxVarianceFilter.class, actual, in, shape, oob);
+
+		final Cursor<FloatType> e = expected.cursor();
+		final Cursor<FloatType> a = actual.cursor();
+		while (e.hasNext()) {
+			final float value = e.next().get();
+			assertEquals(value, a.next().get(), 1e-5 * Math.max(1, Math.abs(
+				value)));
+		}
+	}
+
+	private void assertSame(final Img<FloatType> in, final Shape shape,
+		final OutOfBoundsMirrorFactory<FloatType, Img<FloatType>> oob,
+		final Class<? extends Op> boxFilter, final Class<? extends Op> defaultFilter)
+	{
+		final Img<FloatType> expected = in.factory().create(in);
+		final Img<FloatType> actual = in.factory().create(in);
+		ops.run(defaultFilter, expected, in, shape, oob);
+		ops.run(boxFilter, actual, in, shape, oob);
+
+		final Cursor<FloatType> e = expected.cursor();
+		final Cursor<FloatType> a = actual.cursor();
+		while (e.hasNext()) {
+			final float value = e.next().get();
+			assertEquals(boxFilter.getSimpleName(), value, a.next().get(), 1e-4 *
+				Math.max(1, Math.abs(value)));
+		}
+	}
+
+}
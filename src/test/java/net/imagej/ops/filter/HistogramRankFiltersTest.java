@@ -0,0 +1,120 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.Op;
+import net.imagej.ops.filter.max.DefaultMaxFilter;
+import net.imagej.ops.filter.max.HistogramMaxFilter;
+import net.imagej.ops.filter.median.DefaultMedianFilter;
+import net.imagej.ops.filter.median.HistogramMedianFilter;
+import net.imagej.ops.filter.median.MedianFilterOp;
+import net.imagej.ops.filter.min.DefaultMinFilter;
+import net.imagej.ops.filter.min.HistogramMinFilter;
+import net.imglib2.Cursor;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.img.Img;
+import net.imglib2.outofbounds.OutOfBoundsMirrorFactory;
+import net.imglib2.outofbounds.OutOfBoundsMirrorFactory.Boundary;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.real.FloatType;
+
+import org.junit.Test;
+
+/**
+ * Tests that {@link HistogramMedianFilter}, {@link HistogramMinFilter} and
+ * {@link HistogramMaxFilter} agree with the neighborhood-based filters.
+ */
+public class HistogramRankFiltersTest extends AbstractOpTest {
+
+	@Test
+	public void testMatching() {
+		final Img<ByteType> in = generateByteArrayTestImg(true, 10, 10);
+		final Img<ByteType> out = generateByteArrayTestImg(false, 10, 10);
+		final RectangleShape shape = new RectangleShape(1, false);
+		assertEquals(HistogramMedianFilter.class, ops.op(MedianFilterOp.class, out,
+			in, shape).getClass());
+
+		final Img<FloatType> floats = generateFloatArrayTestImg(true, 10, 10);
+		assertEquals(DefaultMedianFilter.class, ops.op(MedianFilterOp.class,
+			floats.factory().create(floats), floats, shape).getClass());
+	}
+
+	@Test
+	public void test2D() {
+		assertSameAsDefault(new RectangleShape(1, false), 23, 17);
+		assertSameAsDefault(new RectangleShape(3, true), 23, 17);
+	}
+
+	@Test
+	public void test3D() {
+		assertSameAsDefault(new RectangleShape(2, false), 12, 9, 7);
+		assertSameAsDefault(new RectangleShape(1, true), 12, 9, 7);
+	}
+
+	// -- Helper methods --
+
+	private void assertSameAsDefault(final RectangleShape shape,
+		final long... dims)
+	{
+		final Img<ByteType> in = generateByteArrayTestImg(true, dims);
+		final OutOfBoundsMirrorFactory<ByteType, Img<ByteType>> oob =
+			new OutOfBoundsMirrorFactory<>(Boundary.SINGLE);
+
+		assertSame(in, shape, oob, HistogramMedianFilter.class,
+			DefaultMedianFilter.class);
+		assertSame(in, shape, oob, HistogramMinFilter.class,
+			DefaultMinFilter.class);
+		assertSame(in, shape, oob, HistogramMaxFilter.class,
+			DefaultMaxFilter.class);
+	}
+
+	private void assertSame(final Img<ByteType> in, final RectangleShape shape,
+		final OutOfBoundsMirrorFactory<ByteType, Img<ByteType>> oob,
+		final Class<? extends Op> histogramFilter,
+		final Class<? extends Op> defaultFilter)
+	{
+		final Img<ByteType> expected = in.factory().create(in);
+		final Img<ByteType> actual = in.factory().create(in);
+		ops.run(defaultFilter, expected, in, shape, oob);
+		ops.run(histogramFilter, actual, in, shape, oob);
+
+		final Cursor<ByteType> e = expected.cursor();
+		final Cursor<ByteType> a = actual.cursor();
+		while (e.hasNext()) {
+			assertEquals(histogramFilter.getSimpleName(), e.next().get(), a.next()
+				.get());
+		}
+	}
+
+}
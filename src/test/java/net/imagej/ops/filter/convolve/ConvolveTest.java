@@ -31,16 +31,22 @@ package net.imagej.ops.filter.convolve;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import net.imagej.ops.AbstractOpTest;
 import net.imagej.ops.Op;
 import net.imagej.ops.Ops;
+import net.imagej.ops.filter.FFTPlan;
 import net.imagej.ops.filter.fft.CreateOutputFFTMethods;
 import net.imagej.ops.filter.pad.PadInputFFTMethods;
 import net.imagej.ops.filter.pad.PadShiftKernelFFTMethods;
+import net.imagej.ops.special.computer.BinaryComputerOp;
+import net.imagej.ops.special.computer.Computers;
 import net.imagej.ops.special.function.BinaryFunctionOp;
 import net.imagej.ops.special.function.Functions;
 import net.imagej.ops.special.function.UnaryFunctionOp;
+import net.imglib2.Cursor;
 import net.imglib2.Dimensions;
 import net.imglib2.FinalDimensions;
 import net.imglib2.Point;
@@ -218,6 +224,75 @@ public class ConvolveTest extends AbstractOpTest {
 		assertEquals(size[0], out2.dimension(0));
 	}
 
+	/** Tests that reusing an {@link FFTPlan} gives the same results. */
+	@Test
+	public void testConvolveWithFFTPlan() {
+		final Img<FloatType> kernel = generateFloatArrayTestImg(true, 9, 11);
+		final FFTPlan<ComplexFloatType> plan = new FFTPlan<>();
+
+		for (int i = 0; i < 3; i++) {
+			final Img<FloatType> in = generateFloatArrayTestImg(true, 64, 48);
+			if (i == 1) placeSphereInCenter(in);
+
+			final Img<FloatType> expected = in.factory().create(in);
+			ops.run(PadAndConvolveFFT.class, expected, in, kernel);
+
+			final Img<FloatType> actual = in.factory().create(in);
+			ops.run(PadAndConvolveFFT.class, actual, in, kernel, null, null, null,
+				null, null, plan);
+
+			final Cursor<FloatType> e = expected.cursor();
+			final Cursor<FloatType> a = actual.cursor();
+			while (e.hasNext()) {
+				assertEquals(e.next().get(), a.next().get(), 0f);
+			}
+		}
+	}
+
+	/** Tests that tiled convolution gives the same results as full-frame. */
+	@Test
+	public void testTiledConvolve() {
+		final Img<FloatType> in = generateFloatArrayTestImg(true, 100, 70);
+		final Img<FloatType> kernel = generateFloatArrayTestImg(true, 7, 5);
+
+		final Img<FloatType> expected = in.factory().create(in);
+		ops.run(PadAndConvolveFFT.class, expected, in, kernel);
+
+		// NB: The budget is small enough to require several tiles.
+		final Img<FloatType> actual = in.factory().create(in);
+		ops.run(TiledConvolveFFT.class, actual, in, kernel, 64 * 1024L);
+
+		final Cursor<FloatType> e = expected.cursor();
+		final Cursor<FloatType> a = actual.cursor();
+		while (e.hasNext()) {
+			final float value = e.next().get();
+			assertEquals(value, a.next().get(), 1e-4f * Math.max(1, Math.abs(
+				value)));
+		}
+	}
+
+	/** Tests that tiled convolution refuses a budget too small for one tile. */
+	@Test
+	public void testTiledConvolveBudgetTooSmall() {
+		final Img<FloatType> in = generateFloatArrayTestImg(true, 100, 70);
+		final Img<FloatType> kernel = generateFloatArrayTestImg(true, 7, 5);
+
+		// NB: Matching the op first, so that a matching failure is not mistaken
+		// for the refused budget.
+		final Img<FloatType> out = in.factory().create(in);
+		final BinaryComputerOp<Img<FloatType>, Img<FloatType>, Img<FloatType>> tiled =
+			Computers.binary(ops, TiledConvolveFFT.class, out, in, kernel, 1024L);
+		assertTrue(tiled instanceof TiledConvolveFFT);
+		try {
+			tiled.compute(in, kernel, out);
+			fail("Expected the memory budget to be refused");
+		}
+		catch (final IllegalArgumentException exc) {
+			assertTrue(exc.getMessage(), exc.getMessage().contains(
+				"exceeds the memory budget of 1024 bytes"));
+		}
+	}
+
 	// utility to place a small sphere at the center of the image
 	private void placeSphereInCenter(Img<FloatType> img) {
 
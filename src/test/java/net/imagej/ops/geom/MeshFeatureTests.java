@@ -31,7 +31,9 @@ package net.imagej.ops.geom;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
 
 import net.imagej.mesh.Mesh;
 import net.imagej.mesh.Triangle;
@@ -55,6 +57,7 @@ import net.imagej.ops.geom.geom3d.DefaultVolumeMesh;
 import net.imglib2.roi.labeling.LabelRegion;
 import net.imglib2.type.numeric.real.DoubleType;
 
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -128,6 +131,18 @@ public class MeshFeatureTests extends AbstractFeatureTest {
 		assertTrue(!expectedFacets.hasNext() && !actualFacets.hasNext());
 	}
 
+	@Test
+	public void marchingCubesSharedVertices() {
+		final Mesh result = (Mesh) ops.run(DefaultMarchingCubes.class, ROI);
+		assertTrue(result.vertices().size() < result.triangles().size());
+		final Set<Vector3D> unique = new HashSet<>();
+		for (long v = 0; v < result.vertices().size(); v++) {
+			unique.add(new Vector3D(result.vertices().x(v), result.vertices().y(v),
+				result.vertices().z(v)));
+		}
+		assertEquals(result.vertices().size(), unique.size());
+	}
+
 	@Test
 	public void medianElongation() {
 		// formula verified and ground truth computed with matlab
@@ -30,9 +30,11 @@
 package net.imagej.ops.geom;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -41,6 +43,10 @@ import net.imagej.mesh.Triangle;
 import net.imagej.mesh.Vertices;
 import net.imagej.mesh.naive.NaiveDoubleMesh;
 import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.Ops;
+import net.imagej.ops.cached.CachedOpEnvironment;
+import net.imagej.ops.cached.LRUOpCache;
+import net.imagej.ops.cached.OpCache;
 import net.imagej.ops.geom.geom3d.DefaultConvexHull3D;
 
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
@@ -67,6 +73,38 @@ public class QuickHull3DTest extends AbstractOpTest {
 		assertConvex(convexHull, epsilon);
 	}
 
+	@Test
+	public void quickhullSharedInCachedEnvironment() {
+		final Mesh df = randomPoints(1000, 20150818);
+
+		final List<Object> hulls = new ArrayList<>();
+		final OpCache cache = new LRUOpCache(Long.MAX_VALUE) {
+
+			@Override
+			public void put(final Object key, final Object value) {
+				if (value instanceof Mesh) hulls.add(value);
+				super.put(key, value);
+			}
+		};
+		final CachedOpEnvironment env = new CachedOpEnvironment(ops, null,
+			new ArrayList<>(), cache);
+
+		// the hull based descriptors of one mesh share a single hull
+		env.run(Ops.Geometric.SizeConvexHull.class, df);
+		env.run(Ops.Geometric.BoundarySizeConvexHull.class, df);
+		env.run(Ops.Geometric.VerticesCountConvexHull.class, df);
+		assertEquals(1, hulls.size());
+
+		// without the cache, every call computes a new hull
+		final List<?> result = (List<?>) ops.run(DefaultConvexHull3D.class, df);
+		final List<?> again = (List<?>) ops.run(DefaultConvexHull3D.class, df);
+		assertNotSame(result.get(0), again.get(0));
+		assertEquals(result.get(1), again.get(1));
+		assertEquals(((Mesh) result.get(0)).vertices().size(), ((Mesh) hulls.get(
+			0)).vertices().size());
+		assertConvex((Mesh) hulls.get(0), (Double) result.get(1));
+	}
+
 	@Test
 	public void quickhull_4_Test() {
 		final Mesh df = new NaiveDoubleMesh();
@@ -0,0 +1,296 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.image.cooccurrenceMatrix;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.function.DoubleToIntFunction;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.roi.Regions;
+import net.imglib2.roi.labeling.ImgLabeling;
+import net.imglib2.roi.labeling.LabelRegions;
+import net.imglib2.roi.labeling.LabelingType;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+import org.junit.Test;
+import org.scijava.thread.ThreadService;
+import org.scijava.util.MersenneTwisterFast;
+
+/**
+ * Tests {@link CooccurrenceEngine}.
+ */
+public class CooccurrenceEngineTest extends AbstractOpTest {
+
+	private static final int GREY_LEVELS = 8;
+
+	@Test
+	public void testMatchesSingleOrientation() {
+		final Img<UnsignedByteType> img = randomImg(40, 30);
+		final IterableInterval<UnsignedByteType> roi = Views.iterable(Views
+			.interval(img, new long[] { 3, 5 }, new long[] { 31, 22 }));
+
+		final MatrixOrientation[] orientations = MatrixOrientation2D.values();
+		final int[] distances = { 1, 3 };
+		final CooccurrenceCounts[] counts = new CooccurrenceEngine(GREY_LEVELS,
+			orientations, distances).count(roi, value -> (int) value % GREY_LEVELS,
+				null);
+		assertEquals(orientations.length * distances.length, counts.length);
+
+		// every matrix equals the one of its own single-orientation engine
+		for (int o = 0; o < orientations.length; o++) {
+			for (int i = 0; i < distances.length; i++) {
+				final CooccurrenceCounts single = new CooccurrenceEngine(GREY_LEVELS,
+					new MatrixOrientation[] { orientations[o] }, distances[i]).count(roi,
+						value -> (int) value % GREY_LEVELS, null)[0];
+				final CooccurrenceCounts multi = counts[o * distances.length + i];
+				assertEquals(single.getNrPairs(), multi.getNrPairs());
+				for (int row = 0; row < GREY_LEVELS; row++) {
+					assertArrayEquals(single.toMatrix()[row], multi.toMatrix()[row], 0);
+				}
+			}
+		}
+
+		// horizontal pairs at distance one, counted by hand
+		final long[][] expected = new long[GREY_LEVELS][GREY_LEVELS];
+		long pairs = 0;
+		for (long y = 5; y <= 22; y++) {
+			for (long x = 3; x < 31; x++) {
+				expected[value(img, x, y) % GREY_LEVELS][value(img, x + 1, y) %
+					GREY_LEVELS]++;
+				pairs++;
+			}
+		}
+		final CooccurrenceCounts horizontal = counts[MatrixOrientation2D.HORIZONTAL
+			.ordinal() * distances.length];
+		assertEquals(pairs, horizontal.getNrPairs());
+		for (int row = 0; row < GREY_LEVELS; row++) {
+			for (int col = 0; col < GREY_LEVELS; col++) {
+				assertEquals(expected[row][col], horizontal.getCount(row, col));
+			}
+		}
+	}
+
+	@Test
+	public void testParallel() {
+		final Img<UnsignedByteType> img = randomImg(300, 200);
+		final CooccurrenceEngine engine = new CooccurrenceEngine(GREY_LEVELS,
+			MatrixOrientation2D.values(), 1, 2);
+		final CooccurrenceCounts[] sequential = engine.count(img, value -> (int) value %
+			GREY_LEVELS, null);
+		final CooccurrenceCounts[] parallel = engine.count(img, value -> (int) value %
+			GREY_LEVELS, context.getService(ThreadService.class));
+		for (int m = 0; m < engine.numMatrices(); m++) {
+			assertEquals(sequential[m].getNrPairs(), parallel[m].getNrPairs());
+			for (int row = 0; row < GREY_LEVELS; row++) {
+				for (int col = 0; col < GREY_LEVELS; col++) {
+					assertEquals(sequential[m].getCount(row, col), parallel[m].getCount(
+						row, col));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testMatrixOp() {
+		final Img<UnsignedByteType> img = randomImg(20, 20);
+		final double[][] matrix = ops.image().cooccurrenceMatrix(img, GREY_LEVELS, 1,
+			MatrixOrientation2D.VERTICAL);
+		double sum = 0;
+		for (final double[] row : matrix) {
+			for (final double p : row) {
+				sum += p;
+			}
+		}
+		assertEquals(1, sum, 1e-10);
+	}
+
+	@Test
+	public void testSparseRoi2D() {
+		final Img<UnsignedByteType> img = randomImg(40, 30);
+		final Img<BitType> mask = sparseMask(img);
+		final IterableInterval<UnsignedByteType> roi = sample(mask, img);
+		final double[] minMax = minMax(roi);
+		final double diff = minMax[1] - minMax[0];
+		final DoubleToIntFunction quantizer = value -> {
+			final int bin = (int) (((value - minMax[0]) / diff) * GREY_LEVELS);
+			return bin < GREY_LEVELS - 1 ? bin : GREY_LEVELS - 1;
+		};
+
+		for (final MatrixOrientation2D orientation : MatrixOrientation2D.values()) {
+			for (int distance = 1; distance <= 2; distance++) {
+				final double[][] matrix = ops.image().cooccurrenceMatrix(roi,
+					GREY_LEVELS, distance, orientation);
+				assertMatrixEquals(bruteForce(img, mask, roi, orientation, distance,
+					quantizer), matrix);
+			}
+		}
+	}
+
+	@Test
+	public void testSparseRoi3D() {
+		final Img<UnsignedByteType> img = randomImg(20, 18, 12);
+		final Img<BitType> mask = sparseMask(img);
+		final IterableInterval<UnsignedByteType> roi = sample(mask, img);
+		final double[] minMax = minMax(roi);
+		final double diff = minMax[1] - minMax[0];
+		// NB: Pixels of the bounding box outside the mask must not be counted.
+		final DoubleToIntFunction quantizer = value -> (int) (((value -
+			minMax[0]) / diff) * (GREY_LEVELS - 1));
+
+		for (final MatrixOrientation3D orientation : MatrixOrientation3D.values()) {
+			final double[][] matrix = ops.image().cooccurrenceMatrix(roi,
+				GREY_LEVELS, 1, orientation);
+			assertMatrixEquals(bruteForce(img, mask, roi, orientation, 1, quantizer),
+				matrix);
+		}
+	}
+
+	// -- Helper methods --
+
+	/** Creates a mask of a ball with holes, centered in the image. */
+	private Img<BitType> sparseMask(final Img<UnsignedByteType> img) {
+		final Img<BitType> mask = ArrayImgs.bits(Intervals.dimensionsAsLongArray(
+			img));
+		final MersenneTwisterFast random = new MersenneTwisterFast(0xfeed);
+		final Cursor<BitType> cursor = mask.localizingCursor();
+		while (cursor.hasNext()) {
+			cursor.fwd();
+			double distance = 0;
+			for (int d = 0; d < mask.numDimensions(); d++) {
+				final double x = (cursor.getDoublePosition(d) - mask.dimension(d) /
+					2.0) / mask.dimension(d);
+				distance += x * x;
+			}
+			cursor.get().set(distance < 0.16 && random.nextInt(4) != 0);
+		}
+		return mask;
+	}
+
+	/** Samples the image at the pixels of a mask, through a label region. */
+	private IterableInterval<UnsignedByteType> sample(final Img<BitType> mask,
+		final Img<UnsignedByteType> img)
+	{
+		final ImgLabeling<String, IntType> labeling = new ImgLabeling<>(ArrayImgs
+			.ints(Intervals.dimensionsAsLongArray(mask)));
+		final Cursor<LabelingType<String>> labels = labeling.cursor();
+		for (final BitType inMask : mask) {
+			final LabelingType<String> label = labels.next();
+			if (inMask.get()) label.add("roi");
+		}
+		return Regions.sample(new LabelRegions<>(labeling).getLabelRegion("roi"),
+			img);
+	}
+
+	private double[] minMax(final IterableInterval<UnsignedByteType> roi) {
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (final UnsignedByteType t : roi) {
+			min = Math.min(min, t.getRealDouble());
+			max = Math.max(max, t.getRealDouble());
+		}
+		return new double[] { min, max };
+	}
+
+	/** Counts the pairs of the mask directly, in the whole image. */
+	private double[][] bruteForce(final Img<UnsignedByteType> img,
+		final Img<BitType> mask, final IterableInterval<UnsignedByteType> roi,
+		final MatrixOrientation orientation, final int distance,
+		final DoubleToIntFunction quantizer)
+	{
+		final int numDims = img.numDimensions();
+		final double[][] matrix = new double[GREY_LEVELS][GREY_LEVELS];
+		final RandomAccess<BitType> maskAccess = mask.randomAccess();
+		final RandomAccess<UnsignedByteType> imgAccess = img.randomAccess();
+		final long[] position = new long[numDims];
+		long pairs = 0;
+		final Cursor<UnsignedByteType> cursor = roi.localizingCursor();
+		while (cursor.hasNext()) {
+			final int first = quantizer.applyAsInt(cursor.next().getRealDouble());
+			cursor.localize(position);
+			boolean inside = true;
+			for (int d = 0; d < numDims; d++) {
+				position[d] += orientation.getValueAtDim(d) * distance;
+				inside &= position[d] >= 0 && position[d] < img.dimension(d);
+			}
+			if (!inside) continue;
+			maskAccess.setPosition(position);
+			if (!maskAccess.get().get()) continue;
+			imgAccess.setPosition(position);
+			matrix[first][quantizer.applyAsInt(imgAccess.get().getRealDouble())]++;
+			pairs++;
+		}
+		for (final double[] row : matrix) {
+			for (int col = 0; col < row.length; col++) {
+				row[col] /= pairs;
+			}
+		}
+		return matrix;
+	}
+
+	private void assertMatrixEquals(final double[][] expected,
+		final double[][] actual)
+	{
+		assertEquals(expected.length, actual.length);
+		for (int row = 0; row < expected.length; row++) {
+			assertArrayEquals(expected[row], actual[row], 1e-12);
+		}
+	}
+
+
+	private Img<UnsignedByteType> randomImg(final long... dims) {
+		final Img<UnsignedByteType> img = ArrayImgs.unsignedBytes(dims);
+		final MersenneTwisterFast random = new MersenneTwisterFast(0x5eed);
+		final Cursor<UnsignedByteType> cursor = img.cursor();
+		while (cursor.hasNext()) {
+			cursor.next().set(random.nextInt(256));
+		}
+		return img;
+	}
+
+	private int value(final Img<UnsignedByteType> img, final long x,
+		final long y)
+	{
+		final RandomAccess<UnsignedByteType> ra = img.randomAccess();
+		ra.setPosition(new long[] { x, y });
+		return ra.get().get();
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.image.distancetransform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.Ops;
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.view.Views;
+
+import org.junit.Test;
+import org.scijava.util.MersenneTwisterFast;
+
+/**
+ * Tests {@link SeparableDistanceTransform} and
+ * {@link SeparableDistanceTransformCalibration}.
+ */
+public class SeparableDistanceTransformTest extends AbstractOpTest {
+
+	private static final double EPSILON = 0.0001;
+	private static final long SEED = 0x12345678;
+
+	@Test
+	public void testMatching() {
+		final RandomAccessibleInterval<BitType> in = ops.create().img(
+			new FinalInterval(20, 20, 5), new BitType());
+		assertTrue(ops.op(Ops.Image.DistanceTransform.class, null,
+			in) instanceof SeparableDistanceTransform);
+		assertTrue(ops.op(Ops.Image.DistanceTransform.class, null, in, new double[] {
+			1, 2, 3 }) instanceof SeparableDistanceTransformCalibration);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void test() {
+		final RandomAccessibleInterval<BitType> in = ops.create().img(
+			new FinalInterval(20, 13, 5, 4), new BitType());
+		generateImg(in);
+
+		// test normal DT
+		RandomAccessibleInterval<FloatType> expected =
+			(RandomAccessibleInterval<FloatType>) ops.run(
+				DefaultDistanceTransform.class, null, in);
+		RandomAccessibleInterval<FloatType> actual =
+			(RandomAccessibleInterval<FloatType>) ops.run(
+				SeparableDistanceTransform.class, null, in);
+		compareResults(expected, actual);
+
+		// test calibrated DT
+		final double[] calibration = new double[] { 3.74, 5.19, 1.21, 2.21 };
+		expected = (RandomAccessibleInterval<FloatType>) ops.run(
+			DefaultDistanceTransformCalibration.class, null, in, calibration);
+		actual = (RandomAccessibleInterval<FloatType>) ops.run(
+			SeparableDistanceTransformCalibration.class, null, in, calibration);
+		compareResults(expected, actual);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testNoBackground() {
+		final RandomAccessibleInterval<BitType> in = ops.create().img(
+			new FinalInterval(3, 4), new BitType());
+		for (final BitType b : Views.iterable(in)) {
+			b.set(true);
+		}
+		final RandomAccessibleInterval<FloatType> out =
+			(RandomAccessibleInterval<FloatType>) ops.run(
+				SeparableDistanceTransform.class, null, in);
+		for (final FloatType f : Views.iterable(out)) {
+			assertEquals(5, f.get(), EPSILON);
+		}
+	}
+
+	/*
+	 * generate a random BitType image
+	 */
+	private void generateImg(final RandomAccessibleInterval<BitType> in) {
+		final MersenneTwisterFast random = new MersenneTwisterFast(SEED);
+		for (final BitType b : Views.iterable(in)) {
+			b.set(random.nextBoolean());
+		}
+	}
+
+	private void compareResults(final RandomAccessibleInterval<FloatType> expected,
+		final RandomAccessibleInterval<FloatType> actual)
+	{
+		final Cursor<FloatType> cursor = Views.iterable(expected).localizingCursor();
+		final RandomAccess<FloatType> ra = actual.randomAccess();
+		while (cursor.hasNext()) {
+			cursor.fwd();
+			ra.setPosition(cursor);
+			assertEquals(cursor.get().get(), ra.get().get(), EPSILON);
+		}
+	}
+}
@@ -88,6 +88,47 @@ public class WatershedSeededTest extends AbstractOpTest {
 		testWithMask(input, labeledSeeds);
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testRidge() {
+		// two basins separated by a ridge along x = 4
+		final long[] dims = { 9, 3 };
+		final Img<FloatType> input = ArrayImgs.floats(dims);
+		final Cursor<FloatType> cursor = input.localizingCursor();
+		while (cursor.hasNext()) {
+			cursor.fwd();
+			cursor.get().setReal(4 - Math.abs(cursor.getIntPosition(0) - 4));
+		}
+
+		final Img<BitType> bits = ArrayImgs.bits(dims);
+		final RandomAccess<BitType> ra = bits.randomAccess();
+		ra.setPosition(new int[] { 1, 1 });
+		ra.get().set(true);
+		ra.setPosition(new int[] { 7, 1 });
+		ra.get().set(true);
+		final ImgLabeling<Integer, IntType> seeds = ops.labeling().cca(bits,
+			StructuringElement.EIGHT_CONNECTED);
+		final RandomAccess<LabelingType<Integer>> raSeeds = seeds.randomAccess();
+		raSeeds.setPosition(new int[] { 1, 1 });
+		final Integer left = raSeeds.get().iterator().next();
+		raSeeds.setPosition(new int[] { 7, 1 });
+		final Integer right = raSeeds.get().iterator().next();
+
+		for (final boolean eight : new boolean[] { false, true }) {
+			final ImgLabeling<Integer, IntType> out =
+				(ImgLabeling<Integer, IntType>) ops.run(WatershedSeeded.class, null,
+					input, seeds, eight, true);
+			final Cursor<LabelingType<Integer>> curOut = out.localizingCursor();
+			while (curOut.hasNext()) {
+				curOut.fwd();
+				final int x = curOut.getIntPosition(0);
+				assertEquals(1, curOut.get().size());
+				final Integer expected = x < 4 ? left : x > 4 ? right : -1;
+				assertEquals(expected, curOut.get().iterator().next());
+			}
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private void testWithoutMask(final RandomAccessibleInterval<FloatType> in,
 			final ImgLabeling<Integer, IntType> seeds) {
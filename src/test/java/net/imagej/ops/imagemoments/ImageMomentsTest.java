@@ -153,4 +153,57 @@ public class ImageMomentsTest extends AbstractOpTest {
 			.huMoment7(img).getRealDouble(), EPSILON);
 	}
 
+	/**
+	 * Test all moments computed at once against sums over the pixels.
+	 */
+	@Test
+	public void testAllMoments() {
+		final Moments2D moments = ops.imagemoments().moments(img);
+		final int n = Moments2D.MAX_ORDER + 1;
+		final double[][] raw = new double[n][n];
+		final double[][] central = new double[n][n];
+		final double[][] magnitude = new double[n][n];
+		sumMoments(raw, null, 0, 0);
+		final double centerX = raw[1][0] / raw[0][0];
+		final double centerY = raw[0][1] / raw[0][0];
+		sumMoments(central, magnitude, centerX, centerY);
+
+		final Moments2D parallel = ops.imagemoments().moments(img, true);
+		for (int p = 0; p <= Moments2D.MAX_ORDER; p++) {
+			for (int q = 0; p + q <= Moments2D.MAX_ORDER; q++) {
+				assertEquals(raw[p][q], moments.raw(p, q), raw[p][q] * 1e-12);
+				assertEquals(central[p][q], moments.central(p, q), magnitude[p][q] *
+					1e-10);
+				assertEquals(moments.raw(p, q), parallel.raw(p, q), Math.abs(moments
+					.raw(p, q)) * 1e-12);
+				assertEquals(moments.central(p, q), parallel.central(p, q), Math.abs(
+					moments.raw(p, q)) * 1e-12);
+			}
+		}
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Sums the moments of all orders around the given center, and optionally
+	 * the magnitudes of their terms.
+	 */
+	private static void sumMoments(final double[][] moments,
+		final double[][] magnitudes, final double centerX, final double centerY)
+	{
+		final Cursor<UnsignedByteType> cursor = img.localizingCursor();
+		while (cursor.hasNext()) {
+			final double value = cursor.next().getRealDouble();
+			final double x = cursor.getDoublePosition(0) - centerX;
+			final double y = cursor.getDoublePosition(1) - centerY;
+			for (int p = 0; p < moments.length; p++) {
+				for (int q = 0; p + q < moments.length; q++) {
+					final double term = Math.pow(x, p) * Math.pow(y, q) * value;
+					moments[p][q] += term;
+					if (magnitudes != null) magnitudes[p][q] += Math.abs(term);
+				}
+			}
+		}
+	}
+
 }
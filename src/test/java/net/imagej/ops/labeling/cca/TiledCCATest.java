@@ -0,0 +1,163 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.labeling.cca;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.Ops;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.labeling.ConnectedComponents.StructuringElement;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.roi.labeling.ImgLabeling;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.view.Views;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link TiledCCA}.
+ */
+public class TiledCCATest extends AbstractOpTest {
+
+	@Test
+	public void testFourConnected() {
+		assertSameComponents(StructuringElement.FOUR_CONNECTED);
+	}
+
+	@Test
+	public void testEightConnected() {
+		assertSameComponents(StructuringElement.EIGHT_CONNECTED);
+	}
+
+	@Test
+	public void testStatistics() {
+		final Img<BitType> img = ArrayImgs.bits(6, 5);
+		set(img, 1, 1);
+		set(img, 2, 1);
+		set(img, 2, 2);
+		set(img, 5, 0);
+		set(img, 4, 4);
+
+		final ComponentStatistics stats = new ComponentStatistics();
+		final ImgLabeling<Integer, IntType> labeling = ops.create().imgLabeling(
+			img);
+		ops.labeling().cca(labeling, Views.translate(img, 10, 20),
+			StructuringElement.EIGHT_CONNECTED, null, stats);
+
+		assertEquals(3, stats.numComponents());
+		// components are numbered in the order of their first pixel
+		assertEquals(1, stats.size(0));
+		assertEquals(15, stats.min(0, 0));
+		assertEquals(20, stats.min(0, 1));
+		assertEquals(3, stats.size(1));
+		assertEquals(11, stats.min(1, 0));
+		assertEquals(21, stats.min(1, 1));
+		assertEquals(12, stats.max(1, 0));
+		assertEquals(22, stats.max(1, 1));
+		assertEquals(1, stats.size(2));
+		assertEquals(14, stats.max(2, 0));
+		assertEquals(24, stats.max(2, 1));
+	}
+
+	// -- Helper methods --
+
+	@Test
+	public void testLargeImageFallback() {
+		// NB: The view is never iterated, so it needs no memory.
+		final long size = 1L << 16;
+		final RandomAccessibleInterval<BitType> large = Views.interval(Views
+			.extendZero(ArrayImgs.bits(1, 1)), new long[] { 0, 0 }, new long[] {
+				size, size });
+		assertTrue(ops.op(Ops.Labeling.CCA.class, large,
+			StructuringElement.FOUR_CONNECTED) instanceof DefaultCCA);
+
+		final Img<BitType> small = ArrayImgs.bits(16, 16);
+		assertTrue(ops.op(Ops.Labeling.CCA.class, small,
+			StructuringElement.FOUR_CONNECTED) instanceof TiledCCA);
+	}
+
+	private void assertSameComponents(final StructuringElement se) {
+		final Img<BitType> img = ArrayImgs.bits(23, 17, 31);
+		final Random random = new Random(0xdeadbeefL);
+		for (final BitType b : img) {
+			b.set(random.nextDouble() < 0.4);
+		}
+
+		final ComponentStatistics stats = new ComponentStatistics();
+		final ImgLabeling<Integer, IntType> expected = ops.create().imgLabeling(
+			img);
+		ops.run(DefaultCCA.class, expected, img, se);
+		final ImgLabeling<Integer, IntType> actual = ops.create().imgLabeling(img);
+		ops.run(TiledCCA.class, actual, img, se, null, stats);
+
+		final int numSets = expected.getMapping().numSets();
+		assertEquals(numSets, actual.getMapping().numSets());
+		assertEquals(numSets - 1, stats.numComponents());
+
+		// the two labelings must be equal up to a renumbering
+		final int[] forward = new int[numSets];
+		final int[] backward = new int[numSets];
+		final long[] sizes = new long[numSets];
+		final Cursor<IntType> e = expected.getIndexImg().cursor();
+		final Cursor<IntType> a = actual.getIndexImg().cursor();
+		final Cursor<BitType> c = img.cursor();
+		while (e.hasNext()) {
+			final int ei = e.next().get();
+			final int ai = a.next().get();
+			assertEquals(c.next().get(), ai != 0);
+			assertEquals(ei == 0, ai == 0);
+			if (ai == 0) continue;
+			if (forward[ei] == 0) forward[ei] = ai;
+			if (backward[ai] == 0) backward[ai] = ei;
+			assertEquals(ai, forward[ei]);
+			assertEquals(ei, backward[ai]);
+			sizes[ai]++;
+		}
+		for (int i = 1; i < numSets; i++) {
+			assertEquals(sizes[i], stats.size(i - 1));
+			assertTrue(stats.min(i - 1, 2) <= stats.max(i - 1, 2));
+		}
+	}
+
+	private void set(final Img<BitType> img, final int x, final int y) {
+		final RandomAccess<BitType> ra = img.randomAccess();
+		ra.setPosition(new int[] { x, y });
+		ra.get().set(true);
+	}
+
+}
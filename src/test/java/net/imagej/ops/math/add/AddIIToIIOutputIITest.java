@@ -0,0 +1,162 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.math.add;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.math.IIToIIOutputII;
+import net.imagej.ops.math.IIToRAIOutputII;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.real.FloatType;
+
+import org.junit.Test;
+
+/**
+ * Tests the parallel image arithmetic of {@link IIToIIOutputII.Add} and
+ * {@link IIToRAIOutputII.Add}.
+ */
+public class AddIIToIIOutputIITest extends AbstractOpTest {
+
+	/** Large enough to be processed in several chunks. */
+	private static final long SIZE = 512;
+
+	@Test
+	public void testCompute() {
+		final Img<FloatType> in1 = ramp(1);
+		final Img<FloatType> in2 = ramp(2);
+		final Img<FloatType> out = ArrayImgs.floats(SIZE, SIZE);
+		ops.run(IIToIIOutputII.Add.class, out, in1, in2);
+		assertRamp(out, 3);
+
+		final Img<FloatType> out2 = ArrayImgs.floats(SIZE, SIZE);
+		ops.run(IIToRAIOutputII.Add.class, out2, in1, in2);
+		assertRamp(out2, 3);
+	}
+
+	@Test
+	public void testInplace() {
+		final Img<FloatType> arg = ramp(1);
+		ops.run(IIToIIOutputII.Add.class, arg, arg, ramp(2));
+		assertRamp(arg, 3);
+
+		final Img<FloatType> arg2 = ramp(1);
+		ops.run(IIToRAIOutputII.Add.class, arg2, arg2, ramp(2));
+		assertRamp(arg2, 3);
+	}
+
+	@Test
+	public void testPackedTypes() {
+		// NB: Not a multiple of the 64 bits of a storage entity.
+		assertPacked(ArrayImgs.bits(67, 31));
+		assertPacked(ArrayImgs.unsigned12Bits(67, 31));
+	}
+
+	// -- Helper methods --
+
+	private <T extends NativeType<T> & IntegerType<T>> void assertPacked(
+		final Img<T> template)
+	{
+		final Img<T> in1 = randomize(template.copy(), 1);
+		final Img<T> in2 = randomize(template.copy(), 2);
+		final Img<T> expected = in1.copy();
+		final Cursor<T> c = expected.cursor();
+		final Cursor<T> c2 = in2.cursor();
+		while (c.hasNext()) {
+			c.next().add(c2.next());
+		}
+
+		final Img<T> out = template.factory().create(template, template
+			.firstElement());
+		ops.run(IIToIIOutputII.Add.class, out, in1, in2);
+		assertIntegersEqual(expected, out);
+
+		final Img<T> out2 = template.factory().create(template, template
+			.firstElement());
+		ops.run(IIToRAIOutputII.Add.class, out2, in1, in2);
+		assertIntegersEqual(expected, out2);
+
+		final Img<T> arg = in1.copy();
+		ops.run(IIToIIOutputII.Add.class, arg, arg, in2);
+		assertIntegersEqual(expected, arg);
+
+		final Img<T> arg2 = in1.copy();
+		ops.run(IIToRAIOutputII.Add.class, arg2, arg2, in2);
+		assertIntegersEqual(expected, arg2);
+	}
+
+	private <T extends IntegerType<T>> void assertIntegersEqual(
+		final Iterable<T> expected, final Iterable<T> actual)
+	{
+		final Iterator<T> a = actual.iterator();
+		for (final T e : expected) {
+			assertEquals(e.getIntegerLong(), a.next().getIntegerLong());
+		}
+	}
+
+	private <T extends NativeType<T> & IntegerType<T>> Img<T> randomize(
+		final Img<T> img, final long seed)
+	{
+		final Random random = new Random(seed);
+		for (final T t : img) {
+			t.setInteger(random.nextInt(4096));
+		}
+		return img;
+	}
+
+	private Img<FloatType> ramp(final float factor) {
+		final Img<FloatType> img = ArrayImgs.floats(SIZE, SIZE);
+		long i = 0;
+		for (final FloatType t : img) {
+			t.setReal(factor * (i++ % 1000));
+		}
+		return img;
+	}
+
+	private void assertRamp(final IterableInterval<FloatType> img,
+		final float factor)
+	{
+		final Cursor<FloatType> c = img.cursor();
+		long i = 0;
+		while (c.hasNext()) {
+			assertEquals(factor * (i++ % 1000), c.next().getRealFloat(), 0);
+		}
+	}
+
+}
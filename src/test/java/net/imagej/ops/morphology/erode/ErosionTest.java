@@ -46,6 +46,7 @@ import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.real.DoubleType;
 import net.imglib2.view.Views;
 
 import org.junit.Before;
@@ -133,4 +134,43 @@ public class ErosionTest extends AbstractOpTest {
 			.run(ListErode.class, IterableInterval.class, in, shapes, true);
 		assertIterationsEqual(out1, out2);
 	}
+
+	@Test
+	public void testBoxErode() {
+		final Img<ByteType> in3D = generateByteArrayTestImg(true, 20, 15, 10);
+		final Shape shape = new RectangleShape(3, false);
+		@SuppressWarnings("unchecked")
+		final Img<ByteType> out1 = (Img<ByteType>) ops.run(DefaultErode.class,
+			Img.class, in3D, shape, false);
+		final Img<ByteType> out2 = Erosion.erode(in3D, shape, 1);
+		assertIterationsEqual(out1, out2);
+	}
+
+	@Test
+	public void testBoxErodeDouble() {
+		// NB: Doubles do not fit into a float buffer.
+		final Img<DoubleType> in3D = ArrayImgs.doubles(31, 17, 6);
+		final MersenneTwisterFast rnd = new MersenneTwisterFast(0xbeefL);
+		for (final DoubleType px : in3D)
+			px.set(rnd.nextDouble() + 1e9);
+		final Shape shape = new RectangleShape(2, false);
+		@SuppressWarnings("unchecked")
+		final Img<DoubleType> out1 = (Img<DoubleType>) ops.run(DefaultErode.class,
+			Img.class, in3D, shape, false);
+		final Img<DoubleType> out2 = Erosion.erode(in3D, shape, 1);
+		assertIterationsEqual(out1, out2);
+	}
+
+	@Test
+	public void testListBoxErodeFull() {
+		final List<Shape> shapes = new ArrayList<>();
+		shapes.add(new RectangleShape(1, false));
+		shapes.add(new HorizontalLineShape(3, 0, false));
+		shapes.add(new HorizontalLineShape(2, 1, false));
+		@SuppressWarnings("unchecked")
+		final IterableInterval<ByteType> out1 = (IterableInterval<ByteType>) ops
+			.run(ListErode.class, IterableInterval.class, in, shapes, true);
+		final Img<ByteType> out2 = Erosion.erodeFull(in, shapes, 1);
+		assertIterationsEqual(out1, out2);
+	}
 }
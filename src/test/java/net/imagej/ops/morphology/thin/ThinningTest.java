@@ -29,10 +29,22 @@
 
 package net.imagej.ops.morphology.thin;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
 import net.imagej.ops.AbstractOpTest;
 import net.imagej.ops.features.AbstractFeatureTest;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.type.logic.BitType;
+import net.imglib2.util.Intervals;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -91,4 +103,181 @@ public class ThinningTest extends AbstractOpTest {
 			AbstractThin.class, "result_zhangSuen.tif"));
 		assertIterationsEqual(target, out);
 	}
+
+	@Test
+	public void testIncrementalMatchesRescanRandom() {
+		final Random random = new Random(0xdeadbeefL);
+		for (final ThinningStrategy strategy : strategies()) {
+			for (int i = 0; i < 4; i++) {
+				final Img<BitType> img = ArrayImgs.bits(37, 29);
+				for (final BitType t : img) {
+					t.set(random.nextInt(3) > 0);
+				}
+				assertIncrementalMatchesRescan(strategy, img);
+			}
+		}
+	}
+
+	@Test
+	public void testIncrementalMatchesRescanBordered() {
+		final Random random = new Random(0xcafeL);
+		for (final ThinningStrategy strategy : strategies()) {
+			// NB: Solid blocks touching all edges, with a few random holes.
+			final Img<BitType> img = ArrayImgs.bits(24, 17);
+			final Cursor<BitType> cursor = img.localizingCursor();
+			while (cursor.hasNext()) {
+				cursor.fwd();
+				final boolean edge = cursor.getLongPosition(0) < 6 || cursor
+					.getLongPosition(1) < 4 || cursor.getLongPosition(0) > 19 || cursor
+						.getLongPosition(1) > 12;
+				cursor.get().set(edge || random.nextInt(10) == 0);
+			}
+			assertIncrementalMatchesRescan(strategy, img);
+			for (final BitType t : img) {
+				t.set(true);
+			}
+			assertIncrementalMatchesRescan(strategy, img);
+		}
+	}
+
+	@Test
+	public void testIncrementalMatchesRescanStack() {
+		final Random random = new Random(42);
+		for (final ThinningStrategy strategy : strategies()) {
+			final Img<BitType> img = ArrayImgs.bits(19, 23, 5);
+			for (final BitType t : img) {
+				t.set(random.nextInt(4) > 0);
+			}
+			assertIncrementalMatchesRescan(strategy, img);
+		}
+	}
+
+	@Test
+	public void testStatefulStrategyRescans() {
+		final Random random = new Random(7);
+		final Img<BitType> img = ArrayImgs.bits(30, 20);
+		for (final BitType t : img) {
+			t.set(random.nextInt(3) > 0);
+		}
+		// NB: A strategy which does not opt in is never thinned incrementally.
+		final ThinningStrategy stateful = new StatefulStrategy();
+		assertFalse(IncrementalThinning.isSupported(stateful, img));
+		assertIterationsEqual(thin(new RescanStrategy(new StatefulStrategy()), img),
+			thin(stateful, img));
+	}
+
+	// -- Helper methods --
+
+	private static ThinningStrategy[] strategies() {
+		return new ThinningStrategy[] { new ZhangSuenThinningStrategy(),
+			new GuoHallThinningStrategy(), new HilditchThinningStrategy(),
+			new MorphologicalThinningStrategy() };
+	}
+
+	/**
+	 * Thins an image once incrementally and once with the full rescan of each
+	 * iteration, which a strategy not extending
+	 * {@link Abstract3x3NeighbourhoodThinning} forces, and compares both.
+	 */
+	private void assertIncrementalMatchesRescan(final ThinningStrategy strategy,
+		final RandomAccessibleInterval<BitType> input)
+	{
+		final ThinningStrategy incremental = strategy.copy();
+		assertTrue(IncrementalThinning.isSupported(incremental, input));
+		final ThinningStrategy rescan = new RescanStrategy(strategy.copy());
+		assertFalse(IncrementalThinning.isSupported(rescan, input));
+
+		final Img<BitType> expected = thin(rescan, input);
+		final Img<BitType> actual = thin(incremental, input);
+		final Cursor<BitType> e = expected.localizingCursor();
+		final Cursor<BitType> a = actual.cursor();
+		final long[] position = new long[input.numDimensions()];
+		while (e.hasNext()) {
+			e.fwd();
+			a.fwd();
+			e.localize(position);
+			assertEquals(strategy.getClass().getSimpleName() + " at " + Arrays
+				.toString(position), e.get().get(), a.get().get());
+		}
+	}
+
+	private Img<BitType> thin(final ThinningStrategy strategy,
+		final RandomAccessibleInterval<BitType> input)
+	{
+		final StrategyThin thin = new StrategyThin(strategy);
+		thin.setEnvironment(ops);
+		final Img<BitType> output = ArrayImgs.bits(Intervals
+			.dimensionsAsLongArray(input));
+		thin.compute(input, output);
+		return output;
+	}
+
+	// -- Helper classes --
+
+	/** Runs {@link AbstractThin} with a given strategy. */
+	private static class StrategyThin extends AbstractThin {
+
+		public StrategyThin(final ThinningStrategy strategy) {
+			m_strategy = strategy;
+		}
+	}
+
+	/** Removes pixels during the first two cycles only. */
+	private static class StatefulStrategy extends
+		Abstract3x3NeighbourhoodThinning
+	{
+
+		private final ThinningStrategy delegate = new ZhangSuenThinningStrategy();
+		private int cycles;
+
+		@Override
+		public boolean removePixel(final long[] position,
+			final RandomAccessible<BitType> accessible, final int iteration)
+		{
+			return cycles < 2 && delegate.removePixel(position, accessible,
+				iteration);
+		}
+
+		@Override
+		public void afterCycle() {
+			cycles++;
+		}
+
+		@Override
+		public ThinningStrategy copy() {
+			return new StatefulStrategy();
+		}
+	}
+
+	/** Delegates to another strategy, hiding its 3x3 neighbourhood. */
+	private static class RescanStrategy implements ThinningStrategy {
+
+		private final ThinningStrategy delegate;
+
+		public RescanStrategy(final ThinningStrategy delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean removePixel(final long[] position,
+			final RandomAccessible<BitType> accessible, final int iteration)
+		{
+			return delegate.removePixel(position, accessible, iteration);
+		}
+
+		@Override
+		public int getIterationsPerCycle() {
+			return delegate.getIterationsPerCycle();
+		}
+
+		@Override
+		public void afterCycle() {
+			delegate.afterCycle();
+		}
+
+		@Override
+		public ThinningStrategy copy() {
+			return new RescanStrategy(delegate.copy());
+		}
+	}
 }
@@ -29,6 +29,8 @@
 
 package net.imagej.ops.stats;
 
+import java.util.Arrays;
+
 import net.imagej.ops.AbstractOpTest;
 import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImg;
@@ -265,6 +267,30 @@ public class StatisticsTest extends AbstractOpTest {
 			0.00001d);
 	}
 
+	@Test
+	public void testQuantileMatchesSortedArray() {
+		final float[] sorted = array.clone();
+		Arrays.sort(sorted);
+		@SuppressWarnings("unchecked")
+		final DefaultQuantile<FloatType, DoubleType> op = ops.op(
+			DefaultQuantile.class, img, 0.25d);
+		for (final double q : new double[] { 0, 0.25, 0.5, 0.99 }) {
+			final DoubleType result = (DoubleType) ops.run(DefaultQuantile.class,
+				img, q);
+			Assert.assertEquals("Quantile " + q, sorted[(int) (sorted.length * q)],
+				result.getRealDouble(), 0);
+		}
+
+		// reuse the buffer for a smaller and then a larger input
+		final DoubleType out = new DoubleType();
+		final Img<FloatType> small = ArrayImgs.floats(new float[] { 3, 1, 2 }, 3);
+		op.compute(small, out);
+		Assert.assertEquals(1, out.getRealDouble(), 0);
+		op.compute(img, out);
+		Assert.assertEquals(sorted[(int) (sorted.length * 0.25)], out
+			.getRealDouble(), 0);
+	}
+
 	@Test
 	public void testSkewness() {
 		Assert.assertEquals("Skewness", -0.0012661517853476312, ((DoubleType) ops
@@ -0,0 +1,127 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2018 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ops.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.thread.chunker.Chunk;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.ForkJoinChunker;
+
+import org.junit.Test;
+import org.scijava.thread.ThreadService;
+
+/**
+ * Tests {@link ForkJoinChunker}.
+ */
+public class ForkJoinChunkerTest extends AbstractOpTest {
+
+	@Test
+	public void testMatchedByDefault() {
+		assertEquals(ForkJoinChunker.class, ops.op(ChunkerOp.class, new Counter(1),
+			1L).getClass());
+	}
+
+	@Test
+	public void testInline() {
+		assertVisitedOnce(100, ForkJoinChunker.DEFAULT_GRAIN_SIZE,
+			ForkJoinChunker.DEFAULT_INLINE_THRESHOLD);
+	}
+
+	@Test
+	public void testSplit() {
+		assertVisitedOnce(100_003, 16, 0);
+		assertVisitedOnce(1_000_000, ForkJoinChunker.DEFAULT_GRAIN_SIZE,
+			ForkJoinChunker.DEFAULT_INLINE_THRESHOLD);
+	}
+
+	@Test
+	public void testPoolOfThreadService() {
+		final Set<ForkJoinPool> pools = Collections.synchronizedSet(Collections
+			.newSetFromMap(new IdentityHashMap<>()));
+		final Chunk chunk = (startIndex, stepSize, numSteps) -> {
+			final ForkJoinPool pool = ForkJoinTask.getPool();
+			if (pool != null) pools.add(pool);
+		};
+		ops.run(ForkJoinChunker.class, chunk, 100_000L, 16L, 0L);
+
+		final int parallelism = ThreadUtil.parallelism(context.service(
+			ThreadService.class));
+		for (final ForkJoinPool pool : pools) {
+			assertNotSame(ForkJoinPool.commonPool(), pool);
+			assertTrue(pool.getParallelism() <= parallelism);
+		}
+	}
+
+	// -- Helper methods --
+
+	private void assertVisitedOnce(final int size, final long grainSize,
+		final long inlineThreshold)
+	{
+		final Counter counter = new Counter(size);
+		ops.run(ForkJoinChunker.class, counter, (long) size, grainSize,
+			inlineThreshold);
+		for (int i = 0; i < size; i++) {
+			assertEquals("Element " + i, 1, counter.visits.get(i));
+		}
+	}
+
+	// -- Helper classes --
+
+	private static class Counter implements Chunk {
+
+		private final AtomicIntegerArray visits;
+
+		public Counter(final int size) {
+			visits = new AtomicIntegerArray(size);
+		}
+
+		@Override
+		public void execute(final long startIndex, final long stepSize,
+			final long numSteps)
+		{
+			for (long i = 0; i < numSteps; i++) {
+				visits.incrementAndGet((int) (startIndex + i * stepSize));
+			}
+		}
+	}
+
+}